@@ -1,41 +1,105 @@
 package org.ernest.applications.trampoline.collectors;
 
 
-import org.apache.commons.collections4.queue.CircularFifoQueue;
-import org.ernest.applications.trampoline.entities.MemoryUsageDto;
-import org.ernest.applications.trampoline.exceptions.CreatingSettingsFolderException;
-import org.ernest.applications.trampoline.exceptions.ReadingEcosystemException;
-import org.ernest.applications.trampoline.services.FileManager;
-import org.json.JSONException;
+import org.ernest.applications.trampoline.entities.HostOverview;
+import org.ernest.applications.trampoline.entities.HostResources;
+import org.ernest.applications.trampoline.entities.MetricsResolution;
+import org.ernest.applications.trampoline.entities.MetricsSeries;
+import org.ernest.applications.trampoline.entities.ProcessResources;
+import org.ernest.applications.trampoline.services.UpdateBroadcaster;
+import org.ernest.applications.trampoline.utils.TimeSeriesStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.text.DecimalFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Queue;
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 public class DashboardCollector {
 
+    private static final String HOST_SERIES = "host";
+
+    private static final String[] HOST_FIELDS = {"cpuPermille", "loadPermille", "memoryUsedKB", "memoryTotalKB", "swapUsedKB", "instancesResidentSetKB", "instancesCpuPermille"};
+
+    private static final String[] INSTANCE_FIELDS = {"residentSetKB", "cpuPermille", "threads"};
+
     private final Logger log = LoggerFactory.getLogger(DashboardCollector.class);
 
-    private Queue<MemoryUsageDto> memoryUsageQueue = new CircularFifoQueue(25);
+    @Autowired
+    ResourceSampler resourceSampler;
+
+    @Autowired
+    UpdateBroadcaster updateBroadcaster;
+
+    @Value("${dashboard.sample.delay.millis:10000}")
+    private long sampleDelayMillis;
+
+    @Value("${dashboard.retention.raw.minutes:60}")
+    private long rawRetentionMinutes;
+
+    @Value("${dashboard.retention.minute.hours:24}")
+    private long minuteRetentionHours;
+
+    @Value("${dashboard.top.consumers:5}")
+    private int topConsumers;
+
+    private TimeSeriesStore hostStore;
+
+    private TimeSeriesStore instanceStore;
 
-    @Scheduled(fixedDelay=10000)
-    public void collectMetrics() throws JSONException, InterruptedException, CreatingSettingsFolderException, ReadingEcosystemException {
-        log.info("Collecting Memory Dashboard Information");
+    private volatile HostOverview overview;
+
+    @PostConstruct
+    public void start() {
+        Map<MetricsResolution, Integer> capacities = new EnumMap<>(MetricsResolution.class);
+        capacities.put(MetricsResolution.RAW, (int) Math.max(1, TimeUnit.MINUTES.toMillis(rawRetentionMinutes) / sampleDelayMillis));
+        capacities.put(MetricsResolution.MINUTE, (int) Math.max(1, TimeUnit.HOURS.toMinutes(minuteRetentionHours)));
+        hostStore = new TimeSeriesStore(HOST_FIELDS, capacities);
+        instanceStore = new TimeSeriesStore(INSTANCE_FIELDS, capacities);
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.sample.delay.millis:10000}")
+    public void collectMetrics() {
+        log.info("Collecting Host Dashboard Information");
+
+        resourceSampler.sample();
+        HostResources host = resourceSampler.getHostResources();
+        if (host == null) {
+            return;
+        }
+        Collection<ProcessResources> processes = resourceSampler.getProcessResources().values();
+        processes.forEach(process -> instanceStore.add(process.getInstanceId(), host.getSampledAt(),
+                new long[]{process.getResidentSetKB(), Math.round(process.getCpuPercent() * 10), process.getThreadCount()}));
+        instanceStore.retain(processes.stream().map(ProcessResources::getInstanceId).collect(Collectors.toSet()));
+
+        long instancesResidentSetKB = processes.stream().mapToLong(ProcessResources::getResidentSetKB).sum();
+        double instancesCpuPercent = processes.stream().mapToDouble(ProcessResources::getCpuPercent).sum();
+        hostStore.add(HOST_SERIES, host.getSampledAt(), new long[]{Math.round(host.getCpuLoadPercent() * 10), Math.round(host.getLoadAverage() * 1000),
+                host.getMemoryTotalKB() - host.getMemoryAvailableKB(), host.getMemoryTotalKB(), host.getSwapUsedKB(),
+                instancesResidentSetKB, Math.round(instancesCpuPercent * 10)});
+
+        overview = new HostOverview(host, instancesResidentSetKB, instancesCpuPercent, processes.stream()
+                .sorted(Comparator.comparingLong(ProcessResources::getResidentSetKB).reversed())
+                .limit(topConsumers)
+                .collect(Collectors.toList()));
+        updateBroadcaster.publish(UpdateBroadcaster.HOST_TOPIC, overview);
+    }
+
+    public HostOverview getOverview() {
+        return overview;
+    }
 
-        MemoryUsageDto memoryUsageDto = new MemoryUsageDto();
-        memoryUsageDto.setDate(new SimpleDateFormat("HH:mm:ss").format(new Date()));
-        memoryUsageDto.setFreeMemoryMB(new DecimalFormat("0.00").format(Runtime.getRuntime().freeMemory()/1000000));
-        memoryUsageDto.setTotalMemoryMB(new DecimalFormat("0.00").format(Runtime.getRuntime().totalMemory()/1000000));
-        memoryUsageQueue.add(memoryUsageDto);
+    public MetricsSeries getHostSeries(long from, long to, MetricsResolution resolution) {
+        return hostStore.query(HOST_SERIES, from, to, resolution);
     }
 
-    public Queue<MemoryUsageDto> getMemoryUsageQueue() {
-        return memoryUsageQueue;
+    public MetricsSeries getInstanceSeries(String id, long from, long to, MetricsResolution resolution) {
+        return instanceStore.query(id, from, to, resolution);
     }
 }
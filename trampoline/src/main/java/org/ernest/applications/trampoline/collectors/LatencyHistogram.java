@@ -0,0 +1,80 @@
+package org.ernest.applications.trampoline.collectors;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cumulative latency histogram keyed by bucket upper bound in seconds, as published by Prometheus {@code _bucket}
+ * series. Histograms of several instances merge by adding counts per bound, and quantiles are interpolated linearly
+ * inside the bucket that contains them.
+ */
+class LatencyHistogram {
+
+    private final TreeMap<Double, Long> buckets = new TreeMap<>();
+
+    static LatencyHistogram parsePrometheus(String text, String metric) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        String prefix = metric + "_bucket{";
+        for (String line : text.split("\n")) {
+            if (!line.startsWith(prefix)) {
+                continue;
+            }
+            int le = line.indexOf("le=\"");
+            int end = le < 0 ? -1 : line.indexOf('"', le + 4);
+            if (end < 0) {
+                continue;
+            }
+            String bound = line.substring(le + 4, end);
+            double upper = "+Inf".equals(bound) ? Double.POSITIVE_INFINITY : Double.parseDouble(bound);
+            long count = (long) Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1).trim());
+            histogram.buckets.merge(upper, count, Long::sum);
+        }
+        return histogram;
+    }
+
+    boolean isEmpty() {
+        return buckets.isEmpty();
+    }
+
+    LatencyHistogram minus(LatencyHistogram previous) {
+        LatencyHistogram delta = new LatencyHistogram();
+        for (Map.Entry<Double, Long> bucket : buckets.entrySet()) {
+            long difference = bucket.getValue() - previous.buckets.getOrDefault(bucket.getKey(), 0L);
+            if (difference < 0) {
+                return this;
+            }
+            delta.buckets.put(bucket.getKey(), difference);
+        }
+        return delta;
+    }
+
+    synchronized void merge(LatencyHistogram other) {
+        other.buckets.forEach((bound, count) -> buckets.merge(bound, count, Long::sum));
+    }
+
+    long count() {
+        return buckets.isEmpty() ? 0 : buckets.lastEntry().getValue();
+    }
+
+    double quantile(double q) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        double target = q * total;
+        double previousBound = 0;
+        long previousCount = 0;
+        for (Map.Entry<Double, Long> bucket : buckets.entrySet()) {
+            if (bucket.getValue() >= target) {
+                if (bucket.getKey().isInfinite()) {
+                    return previousBound;
+                }
+                long inBucket = bucket.getValue() - previousCount;
+                return inBucket == 0 ? bucket.getKey() : previousBound + (bucket.getKey() - previousBound) * (target - previousCount) / inBucket;
+            }
+            previousBound = bucket.getKey();
+            previousCount = bucket.getValue();
+        }
+        return previousBound;
+    }
+}
@@ -0,0 +1,89 @@
+package org.ernest.applications.trampoline.collectors;
+
+import java.util.*;
+
+/**
+ * Micrometer metrics scraped from Spring Boot 2.x instances, parsed from entries of the form
+ * {@code field=metric:STATISTIC:scale} or {@code field=metric:STATISTIC:scale:tag:value}. Each entry becomes a long
+ * column named {@code field} holding the measurement multiplied by {@code scale}.
+ */
+class MetricsCatalog {
+
+    private final List<Entry> entries;
+
+    private MetricsCatalog(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    static MetricsCatalog parse(String spec) {
+        List<Entry> entries = new ArrayList<>();
+        for (String item : spec.split(",")) {
+            if (item.trim().isEmpty()) {
+                continue;
+            }
+            String[] fieldAndMetric = item.trim().split("=", 2);
+            String[] parts = fieldAndMetric.length == 2 ? fieldAndMetric[1].split(":") : new String[0];
+            if (parts.length != 3 && parts.length != 5) {
+                throw new IllegalArgumentException("Invalid metrics catalog entry: " + item);
+            }
+            entries.add(new Entry(fieldAndMetric[0].trim(), parts[0].trim(), parts[1].trim().toUpperCase(), Double.parseDouble(parts[2].trim()),
+                    parts.length == 5 ? parts[3].trim() + ":" + parts[4].trim() : null));
+        }
+        return new MetricsCatalog(entries);
+    }
+
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    String[] getFields() {
+        return entries.stream().map(Entry::getField).toArray(String[]::new);
+    }
+
+    Map<String, List<Entry>> byRequest() {
+        Map<String, List<Entry>> requests = new LinkedHashMap<>();
+        entries.forEach(entry -> requests.computeIfAbsent(entry.getRequest(), key -> new ArrayList<>()).add(entry));
+        return requests;
+    }
+
+    static class Entry {
+
+        private final String field;
+
+        private final String metric;
+
+        private final String statistic;
+
+        private final double scale;
+
+        private final String tag;
+
+        Entry(String field, String metric, String statistic, double scale, String tag) {
+            this.field = field;
+            this.metric = metric;
+            this.statistic = statistic;
+            this.scale = scale;
+            this.tag = tag;
+        }
+
+        String getField() {
+            return field;
+        }
+
+        String getMetric() {
+            return metric;
+        }
+
+        String getStatistic() {
+            return statistic;
+        }
+
+        long scale(double value) {
+            return Math.round(value * scale);
+        }
+
+        String getRequest() {
+            return tag == null ? metric : metric + "?tag=" + tag;
+        }
+    }
+}
@@ -1,24 +1,44 @@
 package org.ernest.applications.trampoline.collectors;
 
-import org.apache.commons.collections4.queue.CircularFifoQueue;
+import org.ernest.applications.trampoline.entities.ActuatorVersion;
+import org.ernest.applications.trampoline.entities.HeapTrend;
+import org.ernest.applications.trampoline.entities.HttpRequestStats;
 import org.ernest.applications.trampoline.entities.Instance;
+import org.ernest.applications.trampoline.entities.InstanceMetrics;
 import org.ernest.applications.trampoline.entities.Metrics;
+import org.ernest.applications.trampoline.entities.MetricsResolution;
+import org.ernest.applications.trampoline.entities.MetricsSeries;
 import org.ernest.applications.trampoline.exceptions.CreatingSettingsFolderException;
 import org.ernest.applications.trampoline.exceptions.ReadingEcosystemException;
+import org.ernest.applications.trampoline.services.ActuatorClient;
+import org.ernest.applications.trampoline.services.AlertEngine;
 import org.ernest.applications.trampoline.services.EcosystemManager;
+import org.ernest.applications.trampoline.services.FileManager;
+import org.ernest.applications.trampoline.services.UpdateBroadcaster;
+import org.ernest.applications.trampoline.utils.HeapTrendEstimator;
+import org.ernest.applications.trampoline.utils.MetricsSegments;
+import org.ernest.applications.trampoline.utils.TimeSeriesStore;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
-import java.text.SimpleDateFormat;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 @Component
 public class MetricsCollector {
@@ -28,98 +48,454 @@ public class MetricsCollector {
     @Autowired
     EcosystemManager ecosystemManager;
 
-    private Map<String, Queue<Metrics>> metricsMap = new HashMap<>();
+    @Autowired
+    UpdateBroadcaster updateBroadcaster;
 
-    @Scheduled(fixedDelay = 30000)
-    public void collectMetrics() throws CreatingSettingsFolderException, ReadingEcosystemException {
+    @Autowired
+    ActuatorClient actuatorClient;
 
-        ecosystemManager.getEcosystem().getInstances().forEach(instance -> {
-            try {
-                Metrics metrics;
-                try {
-                    metrics = buildMetricsFromJsonResponseV1x(instance);
-                } catch (Exception e) {
-                    metrics = buildMetricsFromJsonResponseV2x(instance);
-                }
+    @Autowired
+    FileManager fileManager;
 
-                if (metricsMap.containsKey(instance.getId())) {
-                    metricsMap.get(instance.getId()).add(metrics);
-                } else {
-                    Queue<Metrics> queue = new CircularFifoQueue(20);
-                    queue.add(metrics);
-                    metricsMap.put(instance.getId(), queue);
-                }
-            } catch (Exception e) {
-                log.error("Not possible to retrieve metrics for instance: [" + instance.getId() + "] hosted on port: [" + instance.getPort() + "]");
+    @Autowired
+    AlertEngine alertEngine;
+
+    @Value("${metrics.scrape.threads:8}")
+    private int scrapeThreads;
+
+    @Value("${metrics.scrape.deadline.millis:10000}")
+    private long deadlineMillis;
+
+    private static final String[] METRICS_FIELDS = {"totalMemoryKB", "freeMemoryKB", "heapKB", "initHeapKB", "committedHeapKB", "usedHeapKB"};
+
+    private static final String[] LATENCY_FIELDS = {"requests", "p50Millis", "p95Millis", "p99Millis"};
+
+    private static final String HTTP_REQUESTS_METRIC = "http.server.requests";
+
+    @Value("${metrics.catalog:}")
+    private String catalogSpec;
+
+    @Value("${metrics.http.max.uris:20}")
+    private int maxHttpUris;
+
+    @Value("${metrics.latency.histogram:http_server_requests_seconds}")
+    private String latencyHistogram;
+
+    @Value("${metrics.store.raw.samples:240}")
+    private int rawSamples;
+
+    @Value("${metrics.store.minute.samples:1440}")
+    private int minuteSamples;
+
+    @Value("${metrics.store.ten.minutes.samples:1008}")
+    private int tenMinutesSamples;
+
+    @Value("${metrics.store.hour.samples:720}")
+    private int hourSamples;
+
+    @Value("${metrics.history.enabled:false}")
+    private boolean historyEnabled;
+
+    @Value("${metrics.history.folder.name:metrics-history}")
+    private String historyFolderName;
+
+    @Value("${metrics.history.segment.kb:1024}")
+    private int historySegmentKb;
+
+    @Value("${metrics.history.segment.minutes:60}")
+    private long historySegmentMinutes;
+
+    @Value("${metrics.history.retention.days:7}")
+    private long historyRetentionDays;
+
+    @Value("${metrics.leak.bucket.minutes:5}")
+    private long leakBucketMinutes;
+
+    @Value("${metrics.leak.half.life.minutes:120}")
+    private double leakHalfLifeMinutes;
+
+    @Value("${metrics.leak.min.points:6}")
+    private int leakMinPoints;
+
+    @Value("${metrics.leak.horizon.hours:24}")
+    private long leakHorizonHours;
+
+    private MetricsCatalog catalog;
+
+    private TimeSeriesStore metricsStore;
+
+    private TimeSeriesStore latencyStore;
+
+    private Map<String, LatencyHistogram> lastHistograms = new ConcurrentHashMap<>();
+
+    private Map<String, LatencyHistogram> pendingLatencies = new ConcurrentHashMap<>();
+
+    private Map<String, List<HttpRequestStats>> httpStats = new ConcurrentHashMap<>();
+
+    private MetricsSegments metricsHistory;
+
+    private Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    private Set<String> staleInstances = ConcurrentHashMap.newKeySet();
+
+    private Map<String, HeapTrendEstimator> heapTrends = new ConcurrentHashMap<>();
+
+    private Map<String, Long> heapLimits = new ConcurrentHashMap<>();
+
+    private Set<String> leakSuspects = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService scrapers;
+
+    @PostConstruct
+    public void start() {
+        Map<MetricsResolution, Integer> capacities = new EnumMap<>(MetricsResolution.class);
+        capacities.put(MetricsResolution.RAW, rawSamples);
+        capacities.put(MetricsResolution.MINUTE, minuteSamples);
+        capacities.put(MetricsResolution.TEN_MINUTES, tenMinutesSamples);
+        capacities.put(MetricsResolution.HOUR, hourSamples);
+        catalog = MetricsCatalog.parse(catalogSpec == null ? "" : catalogSpec);
+        String[] fields = Stream.concat(Arrays.stream(METRICS_FIELDS), Arrays.stream(catalog.getFields())).toArray(String[]::new);
+        metricsStore = new TimeSeriesStore(fields, capacities);
+        latencyStore = new TimeSeriesStore(LATENCY_FIELDS, capacities);
+        if (historyEnabled) {
+            metricsHistory = new MetricsSegments(new File(fileManager.getSettingsFolder() + "/" + historyFolderName), fields,
+                    historySegmentKb * 1024, TimeUnit.MINUTES.toMillis(historySegmentMinutes), TimeUnit.DAYS.toMillis(historyRetentionDays));
+        }
+        scrapers = Executors.newFixedThreadPool(scrapeThreads, runnable -> {
+            Thread thread = new Thread(runnable, "metrics-scraper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        scrapers.shutdownNow();
+        if (metricsHistory != null) {
+            metricsHistory.close();
+        }
+    }
+
+    public void collectMetrics() throws CreatingSettingsFolderException, ReadingEcosystemException {
+        List<CompletableFuture<Void>> scrapes = new ArrayList<>();
+        ecosystemManager.getEcosystem().getInstances().forEach(instance -> {
+            if (inFlight.containsKey(instance.getId())) {
+                log.warn("Previous metrics scrape still running for instance: [{}]", instance.getId());
+                staleInstances.add(instance.getId());
+                return;
             }
+            CompletableFuture<Void> scrape = scrape(instance)
+                    .thenAccept(metrics -> store(instance.getId(), metrics))
+                    .exceptionally(e -> {
+                        log.error("Not possible to retrieve metrics for instance: [" + instance.getId() + "] hosted on port: [" + instance.getPort() + "]");
+                        return null;
+                    });
+            inFlight.put(instance.getId(), scrape);
+            scrape.whenComplete((result, e) -> inFlight.remove(instance.getId()));
+            scrapes.add(scrape);
         });
 
+        try {
+            CompletableFuture.allOf(scrapes.toArray(new CompletableFuture[0])).get(deadlineMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            inFlight.keySet().forEach(id -> {
+                log.warn("Metrics scrape missed the deadline for instance: [{}]", id);
+                staleInstances.add(id);
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Metrics scrape failed [{}]", e.getMessage());
+        }
+
+        recordLatencies();
         removeNotActiveInstances();
     }
 
-    public Queue<Metrics> getInstanceMetrics(String id) {
-        return metricsMap.get(id);
+    public MetricsSeries getInstanceMetrics(String id, long from, long to, MetricsResolution resolution) {
+        if (metricsHistory != null && from < metricsStore.getOldest(id)) {
+            try {
+                return metricsHistory.query(id, from, to, resolution != null ? resolution : historyResolution(from, to));
+            } catch (IOException e) {
+                log.error("Not possible to read metrics history for instance: [{}]", id, e);
+            }
+        }
+        return metricsStore.query(id, from, to, resolution);
+    }
+
+    public MetricsSeries getLatencies(String microserviceId, long from, long to, MetricsResolution resolution) {
+        return latencyStore.query(microserviceId, from, to, resolution);
     }
 
-    private void removeNotActiveInstances() {
-        List<String> idsToBeDeleted = metricsMap.keySet().stream().filter(id -> {
+    public List<HttpRequestStats> getHttpRequestStats(String id) {
+        return httpStats.getOrDefault(id, Collections.emptyList());
+    }
+
+    public List<HeapTrend> getHeapTrends() {
+        return heapTrends.entrySet().stream().map(trend -> buildHeapTrend(trend.getKey(), trend.getValue())).collect(Collectors.toList());
+    }
+
+    public Set<String> getStaleInstances() {
+        return new HashSet<>(staleInstances);
+    }
+
+    private CompletableFuture<Metrics> scrape(Instance instance) {
+        return CompletableFuture.supplyAsync(() -> actuatorClient.getVersion(instance), scrapers).thenCompose(version -> version == ActuatorVersion.V1
+                ? CompletableFuture.supplyAsync(() -> buildMetricsFromJsonResponseV1x(instance), scrapers)
+                : buildMetricsFromJsonResponseV2x(instance));
+    }
+
+    private void store(String instanceId, Metrics metrics) {
+        long timestamp = System.currentTimeMillis();
+        metrics.setTimestamp(timestamp);
+        long[] values = LongStream.concat(Stream.of(metrics.getTotalMemoryKB(), metrics.getFreeMemoryKB(), metrics.getHeapKB(), metrics.getInitHeapKB(),
+                        metrics.getCommittedHeapKB(), metrics.getUsedHeapKB()).mapToLong(value -> value != null ? value : 0L),
+                Arrays.stream(catalog.getFields()).mapToLong(field -> metrics.getCatalog().getOrDefault(field, 0L))).toArray();
+        metricsStore.add(instanceId, timestamp, values);
+        if (metricsHistory != null) {
             try {
-                return !ecosystemManager.getEcosystem().getInstances().stream().anyMatch(i -> i.getId().equals(id));
-            } catch (CreatingSettingsFolderException e) {
-                e.printStackTrace();
-            } catch (ReadingEcosystemException e) {
-                e.printStackTrace();
+                metricsHistory.append(instanceId, timestamp, values);
+            } catch (IOException e) {
+                log.error("Not possible to write metrics history for instance: [{}]", instanceId, e);
             }
-            return true;
-        }).collect(Collectors.toList());
+        }
+        staleInstances.remove(instanceId);
+        updateBroadcaster.publish(UpdateBroadcaster.METRICS_TOPIC, new InstanceMetrics(instanceId, metrics));
+        trackHeap(instanceId, timestamp, metrics);
 
-        idsToBeDeleted.stream().forEach(id -> metricsMap.remove(id));
+        Map<String, Long> sample = new HashMap<>();
+        String[] fields = metricsStore.getFields();
+        for (int i = 0; i < fields.length; i++) {
+            sample.put(fields[i], values[i]);
+        }
+        alertEngine.onSample(instanceId, timestamp, sample);
     }
 
-    private Metrics buildMetricsFromJsonResponseV1x(Instance instance) throws JSONException {
-        Metrics metrics = new Metrics();
+    private void trackHeap(String instanceId, long timestamp, Metrics metrics) {
+        HeapTrendEstimator estimator = heapTrends.computeIfAbsent(instanceId, id -> new HeapTrendEstimator(TimeUnit.MINUTES.toMillis(leakBucketMinutes), leakHalfLifeMinutes));
+        synchronized (estimator) {
+            estimator.add(timestamp, metrics.getUsedHeapKB());
+        }
+        heapLimits.put(instanceId, metrics.getHeapKB());
 
-        String url = instance.buildActuatorUrl() + "/metrics";
-        log.info("Reading metrics Spring Boot 1.x for instance id: [{}] using url: [{}]", instance.getId(), url);
+        HeapTrend trend = buildHeapTrend(instanceId, estimator);
+        if (trend.isFlagged() && leakSuspects.add(instanceId)) {
+            log.warn("Instance id: [{}] heap grows {} KB/min after GC and would be exhausted in {} minutes", instanceId,
+                    Math.round(trend.getSlopeKBPerMinute()), Math.round(trend.getMinutesToExhaustion()));
+        } else if (!trend.isFlagged()) {
+            leakSuspects.remove(instanceId);
+        }
+    }
 
-        JSONObject metricsJson = new JSONObject(new RestTemplate().getForObject(url, String.class));
-        metrics.setTotalMemoryKB(Long.valueOf(metricsJson.get("mem").toString()));
-        metrics.setFreeMemoryKB(Long.valueOf(metricsJson.get("mem.free").toString()));
-        metrics.setHeapKB(Long.valueOf(metricsJson.get("heap").toString()));
-        metrics.setInitHeapKB(Long.valueOf(metricsJson.get("heap.init").toString()));
-        metrics.setUsedHeapKB(Long.valueOf(metricsJson.get("heap.used").toString()));
-        metrics.setDate(new SimpleDateFormat("HH:mm:ss").format(new Date()));
+    private HeapTrend buildHeapTrend(String instanceId, HeapTrendEstimator estimator) {
+        long maxHeapKB = heapLimits.getOrDefault(instanceId, 0L);
+        synchronized (estimator) {
+            double minutes = estimator.getMinutesToReach(maxHeapKB);
+            boolean flagged = estimator.getPoints() >= leakMinPoints && minutes <= TimeUnit.HOURS.toMinutes(leakHorizonHours);
+            return new HeapTrend(instanceId, estimator.getPoints(), estimator.getSlopeKBPerMinute(), Math.round(estimator.getProjectedKB()), maxHeapKB,
+                    Double.isInfinite(minutes) ? null : minutes, flagged);
+        }
+    }
 
-        return metrics;
+    /**
+     * Records the latency deltas merged since the previous cycle. Each fleet's histogram is taken out of the pending
+     * map atomically, so a scrape that finishes after the deadline merges its delta into a fresh histogram that is
+     * recorded by the next cycle instead of being lost.
+     */
+    private void recordLatencies() {
+        long timestamp = System.currentTimeMillis();
+        new ArrayList<>(pendingLatencies.keySet()).forEach(microserviceId -> {
+            LatencyHistogram histogram = pendingLatencies.remove(microserviceId);
+            if (histogram != null && histogram.count() > 0) {
+                latencyStore.add(microserviceId, timestamp, new long[]{histogram.count(), Math.round(histogram.quantile(0.5) * 1000),
+                        Math.round(histogram.quantile(0.95) * 1000), Math.round(histogram.quantile(0.99) * 1000)});
+            }
+        });
     }
 
-    private Metrics buildMetricsFromJsonResponseV2x(Instance instance) {
-        log.info("Reading metrics Spring Boot 2.x for instance id: [{}]", instance.getId());
+    private MetricsResolution historyResolution(long from, long to) {
+        long span = to - from;
+        if (span <= TimeUnit.HOURS.toMillis(2)) {
+            return MetricsResolution.RAW;
+        }
+        if (span <= TimeUnit.DAYS.toMillis(1)) {
+            return MetricsResolution.MINUTE;
+        }
+        return span <= TimeUnit.DAYS.toMillis(7) ? MetricsResolution.TEN_MINUTES : MetricsResolution.HOUR;
+    }
+
+    private void removeNotActiveInstances() {
+        List<Instance> instances = ecosystemManager.getEcosystem().getInstances();
+        Set<String> activeIds = instances.stream().map(Instance::getId).collect(Collectors.toSet());
+        metricsStore.retain(activeIds);
+        heapTrends.keySet().retainAll(activeIds);
+        heapLimits.keySet().retainAll(activeIds);
+        leakSuspects.retainAll(activeIds);
+        Set<String> fleetIds = instances.stream().map(MetricsCollector::fleetId).collect(Collectors.toSet());
+        latencyStore.retain(fleetIds);
+        pendingLatencies.keySet().retainAll(fleetIds);
+        lastHistograms.keySet().retainAll(activeIds);
+        httpStats.keySet().retainAll(activeIds);
+        if (metricsHistory != null) {
+            metricsHistory.deleteExpired(System.currentTimeMillis());
+        }
+        staleInstances.retainAll(activeIds);
+        actuatorClient.retain(activeIds);
+    }
 
+    private Metrics buildMetricsFromJsonResponseV1x(Instance instance) {
         Metrics metrics = new Metrics();
-        metrics.setTotalMemoryKB(getValueMetric(instance, "jvm.memory.max", 1024 * 1024));
-        metrics.setHeapKB(0L);
-        metrics.setInitHeapKB(0L);
-        metrics.setUsedHeapKB(getValueMetric(instance, "jvm.memory.used", 1024 * 1024));
-        metrics.setFreeMemoryKB(metrics.getTotalMemoryKB() - metrics.getUsedHeapKB());
-        metrics.setDate(new SimpleDateFormat("HH:mm:ss").format(new Date()));
 
+        log.info("Reading metrics Spring Boot 1.x for instance id: [{}]", instance.getId());
+
+        try {
+            JSONObject metricsJson = new JSONObject(actuatorClient.get(instance, "/metrics"));
+            metrics.setTotalMemoryKB(Long.valueOf(metricsJson.get("mem").toString()));
+            metrics.setFreeMemoryKB(Long.valueOf(metricsJson.get("mem.free").toString()));
+            metrics.setHeapKB(Long.valueOf(metricsJson.get("heap").toString()));
+            metrics.setInitHeapKB(Long.valueOf(metricsJson.get("heap.init").toString()));
+            metrics.setCommittedHeapKB(Long.valueOf(metricsJson.get("heap.committed").toString()));
+            metrics.setUsedHeapKB(Long.valueOf(metricsJson.get("heap.used").toString()));
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
         return metrics;
     }
 
-    private Long getValueMetric(Instance instance, String key, int divide) {
-        String url = String.format("http://%s:%s/%s/metrics/%s", instance.getIp(), instance.getPort(), instance.getActuatorPrefix(), key);
+    private CompletableFuture<Metrics> buildMetricsFromJsonResponseV2x(Instance instance) {
+        log.info("Reading metrics Spring Boot 2.x for instance id: [{}]", instance.getId());
+
+        CompletableFuture<Set<String>> names = CompletableFuture.supplyAsync(() -> actuatorClient.getMetricNames(instance), scrapers);
+        CompletableFuture<Long> total = CompletableFuture.supplyAsync(() -> getMemoryMetric(instance, "jvm.memory.max"), scrapers);
+        CompletableFuture<Long> used = CompletableFuture.supplyAsync(() -> getMemoryMetric(instance, "jvm.memory.used"), scrapers);
+        CompletableFuture<Long> heap = CompletableFuture.supplyAsync(() -> getMemoryMetric(instance, "jvm.memory.max?tag=area:heap"), scrapers);
+        CompletableFuture<Long> usedHeap = CompletableFuture.supplyAsync(() -> getMemoryMetric(instance, "jvm.memory.used?tag=area:heap"), scrapers);
+        CompletableFuture<Long> committedHeap = CompletableFuture.supplyAsync(() -> getMemoryMetric(instance, "jvm.memory.committed?tag=area:heap"), scrapers);
+        CompletableFuture<Map<String, Long>> catalogValues = names.thenCompose(available -> scrapeCatalog(instance, available));
+        CompletableFuture<Void> requests = names.thenCompose(available -> available.contains(HTTP_REQUESTS_METRIC)
+                ? scrapeHttpRequests(instance) : CompletableFuture.completedFuture(null));
+        CompletableFuture<Void> latencies = CompletableFuture.supplyAsync(() -> actuatorClient.hasPrometheus(instance), scrapers)
+                .thenCompose(prometheus -> prometheus ? scrapeLatencies(instance) : CompletableFuture.completedFuture(null));
+
+        return CompletableFuture.allOf(total, used, heap, usedHeap, committedHeap, catalogValues, requests, latencies).thenApply(done -> {
+            Metrics metrics = new Metrics();
+            metrics.setTotalMemoryKB(total.join());
+            metrics.setHeapKB(heap.join());
+            metrics.setCommittedHeapKB(committedHeap.join());
+            metrics.setUsedHeapKB(usedHeap.join());
+            metrics.setFreeMemoryKB(metrics.getTotalMemoryKB() - used.join());
+            metrics.setCatalog(catalogValues.join());
+            return metrics;
+        });
+    }
+
+    private CompletableFuture<Map<String, Long>> scrapeCatalog(Instance instance, Set<String> names) {
+        Map<String, CompletableFuture<Map<String, Double>>> requests = new LinkedHashMap<>();
+        catalog.byRequest().forEach((request, entries) -> {
+            if (names.contains(entries.get(0).getMetric())) {
+                requests.put(request, CompletableFuture.supplyAsync(() -> readMeasurements(instance, request), scrapers));
+            }
+        });
+        return CompletableFuture.allOf(requests.values().toArray(new CompletableFuture[0])).thenApply(done -> {
+            Map<String, Long> values = new LinkedHashMap<>();
+            catalog.getEntries().forEach(entry -> {
+                CompletableFuture<Map<String, Double>> measurements = requests.get(entry.getRequest());
+                if (measurements != null && measurements.join().containsKey(entry.getStatistic())) {
+                    values.put(entry.getField(), entry.scale(measurements.join().get(entry.getStatistic())));
+                }
+            });
+            return values;
+        });
+    }
+
+    private CompletableFuture<Void> scrapeHttpRequests(Instance instance) {
+        return CompletableFuture.supplyAsync(() -> readTagValues(instance, HTTP_REQUESTS_METRIC, "uri"), scrapers).thenCompose(uris -> {
+            List<CompletableFuture<HttpRequestStats>> stats = uris.stream().limit(maxHttpUris)
+                    .map(uri -> CompletableFuture.supplyAsync(() -> {
+                        Map<String, Double> measurements = readMeasurements(instance, HTTP_REQUESTS_METRIC + "?tag=uri:" + encode(uri));
+                        return new HttpRequestStats(uri, Math.round(measurements.getOrDefault("COUNT", 0d)),
+                                Math.round(measurements.getOrDefault("TOTAL_TIME", 0d) * 1000), Math.round(measurements.getOrDefault("MAX", 0d) * 1000));
+                    }, scrapers))
+                    .collect(Collectors.toList());
+            return CompletableFuture.allOf(stats.toArray(new CompletableFuture[0])).thenAccept(done -> httpStats.put(instance.getId(),
+                    stats.stream().map(CompletableFuture::join).sorted(Comparator.comparingLong(HttpRequestStats::getCount).reversed()).collect(Collectors.toList())));
+        });
+    }
+
+    private CompletableFuture<Void> scrapeLatencies(Instance instance) {
+        return CompletableFuture.supplyAsync(() -> actuatorClient.getIfPresent(instance, "/prometheus"), scrapers).thenAccept(text -> {
+            if (text == null) {
+                return;
+            }
+            LatencyHistogram histogram = LatencyHistogram.parsePrometheus(text, latencyHistogram);
+            LatencyHistogram previous = lastHistograms.put(instance.getId(), histogram);
+            if (previous != null && !histogram.isEmpty()) {
+                LatencyHistogram delta = histogram.minus(previous);
+                pendingLatencies.compute(fleetId(instance), (id, pending) -> {
+                    LatencyHistogram merged = pending != null ? pending : new LatencyHistogram();
+                    merged.merge(delta);
+                    return merged;
+                });
+            }
+        });
+    }
+
+    private Long getMemoryMetric(Instance instance, String request) {
+        Double value = readMeasurements(instance, request).get("VALUE");
+        if (value == null) {
+            throw new IllegalStateException("Memory metric [" + request + "] is not available");
+        }
+        return Math.round(value / 1024);
+    }
+
+    private Map<String, Double> readMeasurements(Instance instance, String request) {
+        Map<String, Double> measurements = new HashMap<>();
         try {
-            JSONObject metricsJson = new JSONObject(new RestTemplate().getForObject(url, String.class));
-            int i = metricsJson.getJSONArray("measurements").getJSONObject(0).getInt("value");
-            return Math.round((double) i / divide);
+            String body = actuatorClient.getIfPresent(instance, "/metrics/" + request);
+            if (body != null) {
+                JSONArray measurementsJson = new JSONObject(body).getJSONArray("measurements");
+                for (int i = 0; i < measurementsJson.length(); i++) {
+                    measurements.put(measurementsJson.getJSONObject(i).optString("statistic", "VALUE"), measurementsJson.getJSONObject(i).getDouble("value"));
+                }
+            }
         } catch (JSONException e) {
             log.warn("Metrics JSON failed [{}]", e.getLocalizedMessage());
         } catch (RestClientException e) {
             log.warn("Metrics failed [{}]", e.getLocalizedMessage());
         }
-        return 0L;
+        return measurements;
+    }
+
+    private List<String> readTagValues(Instance instance, String metric, String tag) {
+        List<String> values = new ArrayList<>();
+        try {
+            String body = actuatorClient.getIfPresent(instance, "/metrics/" + metric);
+            JSONArray tags = body == null ? new JSONArray() : new JSONObject(body).getJSONArray("availableTags");
+            for (int i = 0; i < tags.length(); i++) {
+                if (tag.equals(tags.getJSONObject(i).getString("tag"))) {
+                    JSONArray tagValues = tags.getJSONObject(i).getJSONArray("values");
+                    for (int j = 0; j < tagValues.length(); j++) {
+                        values.add(tagValues.getString(j));
+                    }
+                }
+            }
+        } catch (JSONException e) {
+            log.warn("Metrics JSON failed [{}]", e.getLocalizedMessage());
+        } catch (RestClientException e) {
+            log.warn("Metrics failed [{}]", e.getLocalizedMessage());
+        }
+        return values;
     }
-}
 
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
+    private static String fleetId(Instance instance) {
+        return instance.getMicroserviceId() != null ? instance.getMicroserviceId() : instance.getId();
+    }
+}
@@ -0,0 +1,144 @@
+package org.ernest.applications.trampoline.collectors;
+
+import org.ernest.applications.trampoline.entities.HostResources;
+import org.ernest.applications.trampoline.entities.Instance;
+import org.ernest.applications.trampoline.entities.ProcessResources;
+import org.ernest.applications.trampoline.services.EcosystemManager;
+import org.ernest.applications.trampoline.utils.ScriptContentsProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import oshi.SystemInfo;
+import oshi.hardware.HWDiskStore;
+import oshi.hardware.HardwareAbstractionLayer;
+import oshi.hardware.NetworkIF;
+import oshi.software.os.OSFileStore;
+import oshi.software.os.OSProcess;
+import oshi.software.os.OperatingSystem;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class ResourceSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceSampler.class);
+
+    @Autowired
+    EcosystemManager ecosystemManager;
+
+    private HardwareAbstractionLayer hardware;
+
+    private OperatingSystem operatingSystem;
+
+    private volatile HostResources hostResources;
+
+    private Map<String, ProcessResources> processResources = new ConcurrentHashMap<>();
+
+    private long[] previousIo;
+
+    @PostConstruct
+    public void start() {
+        SystemInfo systemInfo = new SystemInfo();
+        hardware = systemInfo.getHardware();
+        operatingSystem = systemInfo.getOperatingSystem();
+    }
+
+    public synchronized void sample() {
+        long now = System.currentTimeMillis();
+        try {
+            hostResources = sampleHost(now);
+        } catch (RuntimeException e) {
+            log.warn("Host resources sampling failed [{}]", e.getMessage());
+        }
+
+        Map<String, ProcessResources> sampled = new HashMap<>();
+        for (Instance instance : ecosystemManager.getEcosystem().getInstances()) {
+            Integer pid = readPid(instance);
+            OSProcess process = pid == null ? null : operatingSystem.getProcess(pid);
+            if (process != null) {
+                sampled.put(instance.getId(), sampleProcess(instance, process, now, processResources.get(instance.getId())));
+            }
+        }
+        processResources.keySet().retainAll(sampled.keySet());
+        processResources.putAll(sampled);
+    }
+
+    public HostResources getHostResources() {
+        return hostResources;
+    }
+
+    public Map<String, ProcessResources> getProcessResources() {
+        return new HashMap<>(processResources);
+    }
+
+    private HostResources sampleHost(long now) {
+        HostResources host = new HostResources();
+        host.setSampledAt(now);
+        host.setCpuLoadPercent(Math.max(0, hardware.getProcessor().getSystemCpuLoadBetweenTicks() * 100));
+        host.setLoadAverage(hardware.getProcessor().getSystemLoadAverage());
+        host.setMemoryTotalKB(hardware.getMemory().getTotal() / 1024);
+        host.setMemoryAvailableKB(hardware.getMemory().getAvailable() / 1024);
+        host.setSwapTotalKB(hardware.getMemory().getSwapTotal() / 1024);
+        host.setSwapUsedKB(hardware.getMemory().getSwapUsed() / 1024);
+
+        List<OSFileStore> fileStores = Arrays.asList(operatingSystem.getFileSystem().getFileStores());
+        host.setDiskTotalKB(fileStores.stream().mapToLong(OSFileStore::getTotalSpace).sum() / 1024);
+        host.setDiskUsableKB(fileStores.stream().mapToLong(OSFileStore::getUsableSpace).sum() / 1024);
+
+        List<NetworkIF> networks = Arrays.asList(hardware.getNetworkIFs());
+        List<HWDiskStore> disks = Arrays.asList(hardware.getDiskStores());
+        long[] io = {now, disks.stream().mapToLong(HWDiskStore::getReadBytes).sum(), disks.stream().mapToLong(HWDiskStore::getWriteBytes).sum(),
+                networks.stream().mapToLong(NetworkIF::getBytesRecv).sum(), networks.stream().mapToLong(NetworkIF::getBytesSent).sum()};
+        if (previousIo != null && now > previousIo[0]) {
+            host.setDiskReadKBPerSecond(rate(io, previousIo, 1));
+            host.setDiskWriteKBPerSecond(rate(io, previousIo, 2));
+            host.setNetworkReceivedKBPerSecond(rate(io, previousIo, 3));
+            host.setNetworkSentKBPerSecond(rate(io, previousIo, 4));
+        }
+        previousIo = io;
+        return host;
+    }
+
+    private ProcessResources sampleProcess(Instance instance, OSProcess process, long now, ProcessResources previous) {
+        ProcessResources resources = new ProcessResources();
+        resources.setInstanceId(instance.getId());
+        resources.setName(instance.getName());
+        resources.setPid(process.getProcessID());
+        resources.setSampledAt(now);
+        resources.setResidentSetKB(process.getResidentSetSize() / 1024);
+        resources.setCpuTimeMillis(process.getKernelTime() + process.getUserTime());
+        resources.setThreadCount(process.getThreadCount());
+        resources.setOpenFiles(countOpenFiles(process.getProcessID()));
+        if (previous != null && previous.getPid() == resources.getPid() && now > previous.getSampledAt()) {
+            resources.setCpuPercent(Math.max(0, 100.0 * (resources.getCpuTimeMillis() - previous.getCpuTimeMillis()) / (now - previous.getSampledAt())));
+        }
+        return resources;
+    }
+
+    private Integer readPid(Instance instance) {
+        if (instance.getPomLocation() == null) {
+            return null;
+        }
+        File pidFile = new File(ScriptContentsProvider.getPidFile(instance));
+        try {
+            return ScriptContentsProvider.readPid(pidFile);
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Reading pid file [{}] failed [{}]", pidFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private static long countOpenFiles(int pid) {
+        String[] descriptors = new File("/proc/" + pid + "/fd").list();
+        return descriptors == null ? -1 : descriptors.length;
+    }
+
+    private static long rate(long[] current, long[] previous, int index) {
+        return Math.max(0, (current[index] - previous[index]) * 1000 / (current[0] - previous[0]) / 1024);
+    }
+}
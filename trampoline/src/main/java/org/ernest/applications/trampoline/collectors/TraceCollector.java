@@ -1,22 +1,32 @@
 package org.ernest.applications.trampoline.collectors;
 
+import org.ernest.applications.trampoline.entities.ActuatorVersion;
 import org.ernest.applications.trampoline.entities.Instance;
 import org.ernest.applications.trampoline.entities.TraceActuator;
+import org.ernest.applications.trampoline.entities.TraceIngestion;
 import org.ernest.applications.trampoline.exceptions.CreatingSettingsFolderException;
 import org.ernest.applications.trampoline.exceptions.ReadingEcosystemException;
+import org.ernest.applications.trampoline.services.ActuatorClient;
 import org.ernest.applications.trampoline.services.EcosystemManager;
+import org.ernest.applications.trampoline.utils.TraceBuffer;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 @Component
 public class TraceCollector {
@@ -26,25 +36,94 @@ public class TraceCollector {
     @Autowired
     EcosystemManager ecosystemManager;
 
-    public List<TraceActuator> getTraces(String idInstance) throws CreatingSettingsFolderException, ReadingEcosystemException, JSONException {
-        List<TraceActuator> traces = new ArrayList<>();
+    @Autowired
+    ActuatorClient actuatorClient;
+
+    @Value("${traces.buffer.size:1000}")
+    private int bufferSize;
+
+    @Value("${traces.poll.min.millis:2000}")
+    private long minPollMillis;
+
+    @Value("${traces.poll.max.millis:60000}")
+    private long maxPollMillis;
+
+    @Value("${traces.poll.threads:2}")
+    private int pollThreads;
+
+    private Map<String, TraceBuffer> buffers = new ConcurrentHashMap<>();
+
+    private Map<String, Long> nextPolls = new ConcurrentHashMap<>();
+
+    private Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService pollers;
+
+    @PostConstruct
+    public void start() {
+        pollers = Executors.newFixedThreadPool(pollThreads, runnable -> {
+            Thread thread = new Thread(runnable, "trace-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
-        Instance instance = ecosystemManager.getEcosystem().getInstances().stream().filter(i -> i.getId().equals(idInstance)).findAny().get();
-        JSONArray traceArrayJson;
-
-        String url;
-        try {
-            url = instance.buildActuatorUrl() + "/trace";
-            log.info("Reading traces Spring Boot 1.x for instance id: [{}] using url: [{}]", idInstance, url);
-            traceArrayJson = new JSONArray(new RestTemplate().getForObject(url, String.class));
-            buildTracesV1x(traces, traceArrayJson);
-        }catch (Exception e){
-            url = instance.buildActuatorUrl() + "/httptrace";
-            log.info("Reading traces Spring Boot 2.x for instance id: [{}] using url: [{}]", idInstance, url);
-            traceArrayJson = new JSONObject(new RestTemplate().getForObject(url, String.class)).getJSONArray("traces");
-            buildTracesV2x(traces, traceArrayJson);
+    @PreDestroy
+    public void stop() {
+        pollers.shutdownNow();
+    }
+
+    public void ingestTraces() throws CreatingSettingsFolderException, ReadingEcosystemException {
+        long now = System.currentTimeMillis();
+        List<Instance> instances = ecosystemManager.getEcosystem().getInstances();
+        for (Instance instance : instances) {
+            if (nextPolls.getOrDefault(instance.getId(), 0L) > now || !inFlight.add(instance.getId())) {
+                continue;
+            }
+            pollers.execute(() -> {
+                try {
+                    poll(instance);
+                } catch (Exception e) {
+                    log.warn("Not possible to ingest traces for instance: [{}] hosted on port: [{}]", instance.getId(), instance.getPort());
+                    nextPolls.put(instance.getId(), System.currentTimeMillis() + maxPollMillis);
+                } finally {
+                    inFlight.remove(instance.getId());
+                }
+            });
         }
 
+        Set<String> activeIds = instances.stream().map(Instance::getId).collect(Collectors.toSet());
+        buffers.keySet().retainAll(activeIds);
+        nextPolls.keySet().retainAll(activeIds);
+    }
+
+    public List<TraceActuator> getTraces(String idInstance) throws CreatingSettingsFolderException, ReadingEcosystemException, JSONException {
+        Instance instance = ecosystemManager.getEcosystem().findInstance(idInstance).get();
+        TraceBuffer buffer = buffers.get(idInstance);
+        return (buffer != null ? buffer : poll(instance)).getTraces();
+    }
+
+    public List<TraceIngestion> getIngestions() {
+        return buffers.entrySet().stream().map(buffer -> new TraceIngestion(buffer.getKey(), buffer.getValue().getSize(), buffer.getValue().getIngested(),
+                buffer.getValue().getEvicted(), buffer.getValue().getOverflows(), buffer.getValue().getMissed(), buffer.getValue().getIntervalMillis()))
+                .collect(Collectors.toList());
+    }
+
+    private TraceBuffer poll(Instance instance) throws JSONException {
+        TraceBuffer buffer = buffers.computeIfAbsent(instance.getId(), id -> new TraceBuffer(bufferSize, minPollMillis, maxPollMillis));
+        int fresh = buffer.offer(readTraces(instance));
+        log.debug("Ingested [{}] new traces for instance id: [{}]", fresh, instance.getId());
+        nextPolls.put(instance.getId(), System.currentTimeMillis() + buffer.getIntervalMillis());
+        return buffer;
+    }
+
+    private List<TraceActuator> readTraces(Instance instance) throws JSONException {
+        List<TraceActuator> traces = new ArrayList<>();
+        if (actuatorClient.getVersion(instance) == ActuatorVersion.V1) {
+            buildTracesV1x(traces, new JSONArray(actuatorClient.get(instance, "/trace")));
+        } else {
+            buildTracesV2x(traces, new JSONObject(actuatorClient.get(instance, "/httptrace")).getJSONArray("traces"));
+        }
         return traces;
     }
 
@@ -53,6 +132,7 @@ public class TraceCollector {
             JSONObject traceJson = traceArrayJson.getJSONObject(i);
 
             org.ernest.applications.trampoline.entities.TraceActuator traceActuator = new org.ernest.applications.trampoline.entities.TraceActuator();
+            traceActuator.setTimestamp(Instant.parse(traceJson.getString("timestamp")).toEpochMilli());
             traceActuator.setDate(traceJson.getString("timestamp"));
             traceActuator.setMethod(traceJson.getJSONObject("request").getString("method"));
             traceActuator.setPath(traceJson.getJSONObject("request").getString("uri"));
@@ -67,6 +147,7 @@ public class TraceCollector {
             JSONObject traceJson = traceArrayJson.getJSONObject(i);
 
             TraceActuator traceActuator = new TraceActuator();
+            traceActuator.setTimestamp(traceJson.getLong("timestamp"));
             traceActuator.setDate(new SimpleDateFormat("HH:mm:ss").format(traceJson.getLong("timestamp")));
             traceActuator.setMethod(traceJson.getJSONObject("info").getString("method"));
             traceActuator.setPath(traceJson.getJSONObject("info").getString("path"));
@@ -0,0 +1,78 @@
+package org.ernest.applications.trampoline.config;
+
+import org.ernest.applications.trampoline.collectors.MetricsCollector;
+import org.ernest.applications.trampoline.collectors.TraceCollector;
+import org.ernest.applications.trampoline.services.HealthChecker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+
+/**
+ * The light periodic tasks share the collectors scheduler, while metrics scrapes, health polls and trace ticks each
+ * run on a scheduler of their own, so a scrape waiting for its deadline can never delay a health poll or the one
+ * second trace tick.
+ */
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    @Value("${scheduling.pool.size:4}")
+    private int poolSize;
+
+    @Value("${metrics.scrape.delay.millis:30000}")
+    private long metricsDelayMillis;
+
+    @Value("${health.poll.millis:5000}")
+    private long healthDelayMillis;
+
+    @Value("${traces.poll.tick.millis:1000}")
+    private long tracesDelayMillis;
+
+    @Autowired
+    private MetricsCollector metricsCollector;
+
+    @Autowired
+    private HealthChecker healthChecker;
+
+    @Autowired
+    private TraceCollector traceCollector;
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskScheduler collectorsScheduler() {
+        return buildScheduler(poolSize, "collector-");
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskScheduler metricsScheduler() {
+        return buildScheduler(1, "metrics-");
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskScheduler healthScheduler() {
+        return buildScheduler(1, "health-");
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskScheduler tracesScheduler() {
+        return buildScheduler(1, "traces-");
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.setTaskScheduler(collectorsScheduler());
+        metricsScheduler().scheduleWithFixedDelay(metricsCollector::collectMetrics, metricsDelayMillis);
+        healthScheduler().scheduleWithFixedDelay(healthChecker::checkInstances, healthDelayMillis);
+        tracesScheduler().scheduleWithFixedDelay(traceCollector::ingestTraces, tracesDelayMillis);
+    }
+
+    private static ThreadPoolTaskScheduler buildScheduler(int poolSize, String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setDaemon(true);
+        return scheduler;
+    }
+}
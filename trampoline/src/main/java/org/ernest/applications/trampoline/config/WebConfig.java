@@ -1,6 +1,10 @@
 package org.ernest.applications.trampoline.config;
 
+import org.ernest.applications.trampoline.entities.AlertRuleTypeEnumConverter;
+import org.ernest.applications.trampoline.entities.AlertScopeEnumConverter;
 import org.ernest.applications.trampoline.entities.BuildToolsEnumConverter;
+import org.ernest.applications.trampoline.entities.MetricsAggregationEnumConverter;
+import org.ernest.applications.trampoline.entities.ProbeTypeEnumConverter;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.format.FormatterRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -11,5 +15,9 @@ public class WebConfig implements WebMvcConfigurer {
     @Override
     public void addFormatters(FormatterRegistry registry) {
         registry.addConverter(new BuildToolsEnumConverter());
+        registry.addConverter(new ProbeTypeEnumConverter());
+        registry.addConverter(new AlertScopeEnumConverter());
+        registry.addConverter(new AlertRuleTypeEnumConverter());
+        registry.addConverter(new MetricsAggregationEnumConverter());
     }
 }
@@ -0,0 +1,55 @@
+package org.ernest.applications.trampoline.controller;
+
+import org.ernest.applications.trampoline.entities.Alert;
+import org.ernest.applications.trampoline.entities.AlertRule;
+import org.ernest.applications.trampoline.model.CreateAlertRule;
+import org.ernest.applications.trampoline.services.AlertEngine;
+import org.ernest.applications.trampoline.services.EcosystemManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Controller
+@RequestMapping("/alerts")
+public class AlertsController {
+
+    @Autowired
+    EcosystemManager ecosystemManager;
+
+    @Autowired
+    AlertEngine alertEngine;
+
+    @RequestMapping(value = "/rules", method = RequestMethod.GET)
+    @ResponseBody
+    public List<AlertRule> getRules() {
+        return ecosystemManager.getEcosystem().getAlertRules();
+    }
+
+    @RequestMapping(value = "/setrule", method = RequestMethod.POST)
+    @ResponseBody
+    public void setRule(@Valid @NotNull CreateAlertRule create) {
+        ecosystemManager.setNewAlertRule(create);
+    }
+
+    @RequestMapping(value = "/removerule", method = RequestMethod.POST)
+    @ResponseBody
+    public void removeRule(@RequestParam(value = "id") String id) {
+        ecosystemManager.removeAlertRule(id);
+    }
+
+    @RequestMapping(value = "/active", method = RequestMethod.GET)
+    @ResponseBody
+    public List<Alert> getActiveAlerts() {
+        return alertEngine.getActiveAlerts();
+    }
+
+    @RequestMapping(value = "/log", method = RequestMethod.GET)
+    @ResponseBody
+    public List<Alert> getAlertLog() {
+        return alertEngine.getAlertLog();
+    }
+}
@@ -1,20 +1,29 @@
 package org.ernest.applications.trampoline.controller;
 
 import org.ernest.applications.trampoline.collectors.DashboardCollector;
+import org.ernest.applications.trampoline.collectors.ResourceSampler;
 import org.ernest.applications.trampoline.entities.Ecosystem;
-import org.ernest.applications.trampoline.entities.MemoryUsageDto;
+import org.ernest.applications.trampoline.entities.HostOverview;
+import org.ernest.applications.trampoline.entities.HostResources;
+import org.ernest.applications.trampoline.entities.MetricsResolution;
+import org.ernest.applications.trampoline.entities.MetricsSeries;
 import org.ernest.applications.trampoline.exceptions.CreatingSettingsFolderException;
 import org.ernest.applications.trampoline.exceptions.ReadingEcosystemException;
 import org.ernest.applications.trampoline.services.EcosystemManager;
+import org.ernest.applications.trampoline.services.UpdateBroadcaster;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.Queue;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
 
 @Controller
 public class DashboardController {
@@ -27,6 +36,12 @@ public class DashboardController {
 	@Autowired
 	DashboardCollector dashboardCollector;
 
+	@Autowired
+	ResourceSampler resourceSampler;
+
+	@Autowired
+	UpdateBroadcaster updateBroadcaster;
+
 	@RequestMapping("/")
     public String greeting(Model model) {
 		Ecosystem ecosystem = ecosystemManager.getEcosystem();
@@ -41,9 +56,38 @@ public class DashboardController {
 		return DASHBOARD_VIEW;
     }
 
-	@RequestMapping(value= "/dashboard/memory", method = RequestMethod.GET)
+	@RequestMapping(value= "/dashboard/overview", method = RequestMethod.GET)
 	@ResponseBody
-	public Queue<MemoryUsageDto> checkStatusInstance()  {
-		return dashboardCollector.getMemoryUsageQueue();
+	public HostOverview getOverview()  {
+		return dashboardCollector.getOverview();
+	}
+
+	@GetMapping(value = "/dashboard/host/series")
+	@ResponseBody
+	public MetricsSeries getHostSeries(@RequestParam(value = "from", required = false) Long from, @RequestParam(value = "to", required = false) Long to,
+									   @RequestParam(value = "resolution", required = false) String resolution) {
+		long now = System.currentTimeMillis();
+		return dashboardCollector.getHostSeries(from == null ? now - TimeUnit.HOURS.toMillis(1) : from, to == null ? now : to,
+				resolution == null ? null : MetricsResolution.getByCode(resolution));
+	}
+
+	@GetMapping(value = "/dashboard/instance/series")
+	@ResponseBody
+	public MetricsSeries getInstanceSeries(@RequestParam(value = "id") String id, @RequestParam(value = "from", required = false) Long from,
+										   @RequestParam(value = "to", required = false) Long to, @RequestParam(value = "resolution", required = false) String resolution) {
+		long now = System.currentTimeMillis();
+		return dashboardCollector.getInstanceSeries(id, from == null ? now - TimeUnit.HOURS.toMillis(1) : from, to == null ? now : to,
+				resolution == null ? null : MetricsResolution.getByCode(resolution));
+	}
+
+	@GetMapping(value = "/dashboard/host")
+	@ResponseBody
+	public HostResources getHostResources() {
+		return resourceSampler.getHostResources();
+	}
+
+	@GetMapping(value = "/updates")
+	public SseEmitter streamUpdates(@RequestParam(value = "topics") String[] topics) {
+		return updateBroadcaster.subscribe(new HashSet<>(Arrays.asList(topics)));
 	}
 }
@@ -2,19 +2,30 @@ package org.ernest.applications.trampoline.controller;
 
 import org.ernest.applications.trampoline.collectors.InstanceInfoCollector;
 import org.ernest.applications.trampoline.collectors.MetricsCollector;
+import org.ernest.applications.trampoline.collectors.ResourceSampler;
 import org.ernest.applications.trampoline.collectors.TraceCollector;
 import org.ernest.applications.trampoline.entities.*;
 import org.ernest.applications.trampoline.exceptions.*;
+import org.ernest.applications.trampoline.model.MetricsQuery;
+import org.ernest.applications.trampoline.services.BuildScheduler;
 import org.ernest.applications.trampoline.services.EcosystemManager;
+import org.ernest.applications.trampoline.services.InstanceLogStreamer;
+import org.ernest.applications.trampoline.services.MetricsQueryService;
+import org.ernest.applications.trampoline.services.ProcessSupervisor;
 import org.ernest.applications.trampoline.utils.PortsChecker;
 import org.json.JSONException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Controller
 @RequestMapping("/instances")
@@ -28,12 +39,27 @@ public class InstancesController {
     @Autowired
     MetricsCollector metricsCollector;
 
+    @Autowired
+    MetricsQueryService metricsQueryService;
+
     @Autowired
     TraceCollector traceCollector;
 
+    @Autowired
+    ResourceSampler resourceSampler;
+
     @Autowired
     InstanceInfoCollector instanceInfoCollector;
 
+    @Autowired
+    ProcessSupervisor processSupervisor;
+
+    @Autowired
+    InstanceLogStreamer instanceLogStreamer;
+
+    @Autowired
+    BuildScheduler buildScheduler;
+
     @RequestMapping("")
     public String getInstanceView(Model model) {
         Ecosystem ecosystem = ecosystemManager.getEcosystem();
@@ -51,10 +77,45 @@ public class InstancesController {
         return ecosystemManager.getStatusInstance(id);
     }
 
+    @RequestMapping(value = "/health/all", method = RequestMethod.GET)
+    @ResponseBody
+    public InstancesHealth checkStatusInstances(@RequestParam(value = "since", defaultValue = "0") long since) {
+        return ecosystemManager.getStatusInstances(since);
+    }
+
+    @RequestMapping(value = "/health/probes", method = RequestMethod.GET)
+    @ResponseBody
+    public List<InstanceHealth> getInstanceProbes() {
+        return ecosystemManager.getInstanceProbes();
+    }
+
+    @RequestMapping(value = "/process", method = RequestMethod.POST)
+    @ResponseBody
+    public InstanceProcess getProcess(@RequestParam(value = "id") String id) {
+        return processSupervisor.getProcess(id).orElse(null);
+    }
+
+    @RequestMapping(value = "/processes", method = RequestMethod.GET)
+    @ResponseBody
+    public List<InstanceProcess> getProcesses() {
+        return processSupervisor.getProcesses();
+    }
+
+    @RequestMapping(value = "/builds", method = RequestMethod.GET)
+    @ResponseBody
+    public List<BuildExecution> getBuilds() {
+        return buildScheduler.getBuilds();
+    }
+
+    @GetMapping(value = "/logs")
+    public SseEmitter streamLogs(@RequestParam(value = "id") String id) {
+        return instanceLogStreamer.subscribe(ecosystemManager.getInstanceOutputFile(id));
+    }
+
     @RequestMapping(value = "/instanceinfo", method = RequestMethod.POST)
     @ResponseBody
     public MicroService getInstanceInfo(@RequestParam(value = "id") String id) throws CreatingSettingsFolderException, ReadingEcosystemException {
-        return ecosystemManager.getEcosystem().getMicroservices().stream().filter(m -> m.getId().equals(id)).findFirst().get();
+        return ecosystemManager.getEcosystem().findMicroservice(id).get();
     }
 
     @ResponseBody
@@ -79,8 +140,50 @@ public class InstancesController {
 
     @RequestMapping(value = "/metrics", method = RequestMethod.POST)
     @ResponseBody
-    public Queue<Metrics> getMetrics(@RequestParam(value = "id") String id) {
-        return metricsCollector.getInstanceMetrics(id);
+    public MetricsSeries getMetrics(@RequestParam(value = "id") String id, @RequestParam(value = "from", required = false) Long from,
+                                    @RequestParam(value = "to", required = false) Long to, @RequestParam(value = "resolution", required = false) String resolution) {
+        long now = System.currentTimeMillis();
+        return metricsCollector.getInstanceMetrics(id, from == null ? now - TimeUnit.MINUTES.toMillis(10) : from, to == null ? now : to,
+                resolution == null ? null : MetricsResolution.getByCode(resolution));
+    }
+
+    @RequestMapping(value = "/metrics/query", method = RequestMethod.GET)
+    @ResponseBody
+    public MetricsQueryResult queryMetrics(@Valid @NotNull MetricsQuery query) {
+        return metricsQueryService.query(query);
+    }
+
+    @RequestMapping(value = "/metrics/latency", method = RequestMethod.GET)
+    @ResponseBody
+    public MetricsSeries getLatencies(@RequestParam(value = "microserviceId") String microserviceId, @RequestParam(value = "from", required = false) Long from,
+                                      @RequestParam(value = "to", required = false) Long to, @RequestParam(value = "resolution", required = false) String resolution) {
+        long now = System.currentTimeMillis();
+        return metricsCollector.getLatencies(microserviceId, from == null ? now - TimeUnit.MINUTES.toMillis(10) : from, to == null ? now : to,
+                resolution == null ? null : MetricsResolution.getByCode(resolution));
+    }
+
+    @RequestMapping(value = "/metrics/http", method = RequestMethod.GET)
+    @ResponseBody
+    public List<HttpRequestStats> getHttpRequestStats(@RequestParam(value = "id") String id) {
+        return metricsCollector.getHttpRequestStats(id);
+    }
+
+    @RequestMapping(value = "/metrics/trends", method = RequestMethod.GET)
+    @ResponseBody
+    public List<HeapTrend> getHeapTrends() {
+        return metricsCollector.getHeapTrends();
+    }
+
+    @RequestMapping(value = "/metrics/stale", method = RequestMethod.GET)
+    @ResponseBody
+    public Set<String> getStaleMetrics() {
+        return metricsCollector.getStaleInstances();
+    }
+
+    @RequestMapping(value = "/resources", method = RequestMethod.GET)
+    @ResponseBody
+    public Map<String, ProcessResources> getProcessResources() {
+        return resourceSampler.getProcessResources();
     }
 
     @RequestMapping(value = "/traces", method = RequestMethod.POST)
@@ -89,6 +192,12 @@ public class InstancesController {
         return traceCollector.getTraces(id);
     }
 
+    @RequestMapping(value = "/traces/ingestion", method = RequestMethod.GET)
+    @ResponseBody
+    public List<TraceIngestion> getTraceIngestions() {
+        return traceCollector.getIngestions();
+    }
+
     @RequestMapping(value = "/info", method = RequestMethod.POST)
     @ResponseBody
     public InstanceGitInfo getInstanceInfoWhenDeployed(@RequestParam(value = "id") String id) throws CreatingSettingsFolderException, ReadingEcosystemException {
@@ -98,7 +207,7 @@ public class InstancesController {
     @RequestMapping(value = "/checkport", method = RequestMethod.POST)
     @ResponseBody
     public boolean checkPort(@RequestParam(value = "port") int port) throws CreatingSettingsFolderException, ReadingEcosystemException {
-        boolean declaredInstanceOnPort = ecosystemManager.getEcosystem().getInstances().stream().anyMatch(i -> i.getPort().equals(String.valueOf(port)));
+        boolean declaredInstanceOnPort = !ecosystemManager.getEcosystem().findInstancesByPort(String.valueOf(port)).isEmpty();
 
         return !declaredInstanceOnPort && PortsChecker.available(port);
     }
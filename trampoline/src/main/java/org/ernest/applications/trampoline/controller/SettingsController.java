@@ -20,9 +20,7 @@ import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Controller
@@ -94,20 +92,30 @@ public class SettingsController {
     @RequestMapping(value = "/microserviceinfo", method = RequestMethod.POST)
     @ResponseBody
     public MicroService getMicroserviceInfo(@RequestParam(value = "id") String id) throws CreatingSettingsFolderException, ReadingEcosystemException, CreatingMicroserviceScriptException, SavingEcosystemException {
-        return ecosystemManager.getEcosystem().getMicroservices().stream().filter(m -> m.getId().equals(id)).findFirst().get();
+        return ecosystemManager.getEcosystem().findMicroservice(id).get();
     }
 
     @RequestMapping(value = "/setmicroservicesgroup", method = RequestMethod.POST)
     @ResponseBody
-    public void getMicroserviceInfo(@RequestParam(value = "name") String name, @RequestParam(value = "idsMicroservicesGroup[]") List<String> idsMicroservicesGroup, @RequestParam(value = "delaysMicroservicesGroup[]") List<Integer> delaysMicroservicesGroup) throws CreatingSettingsFolderException, ReadingEcosystemException, CreatingMicroserviceScriptException, SavingEcosystemException {
-        ecosystemManager.setMicroserviceGroup(name, idsMicroservicesGroup, delaysMicroservicesGroup);
+    public void getMicroserviceInfo(@RequestParam(value = "name") String name, @RequestParam(value = "idsMicroservicesGroup[]") List<String> idsMicroservicesGroup, @RequestParam(value = "delaysMicroservicesGroup[]") List<Integer> delaysMicroservicesGroup,
+                                    @RequestParam(value = "dependenciesMicroservicesGroup[]", required = false) List<String> dependenciesMicroservicesGroup) throws CreatingSettingsFolderException, ReadingEcosystemException, CreatingMicroserviceScriptException, SavingEcosystemException {
+        Map<String, List<String>> dependencies = new HashMap<>();
+        for (int index = 0; dependenciesMicroservicesGroup != null && index < dependenciesMicroservicesGroup.size() && index < idsMicroservicesGroup.size(); index++) {
+            List<String> prerequisites = Arrays.stream(dependenciesMicroservicesGroup.get(index).trim().split("\\s+"))
+                    .filter(prerequisite -> !prerequisite.isEmpty())
+                    .collect(Collectors.toList());
+            if (!prerequisites.isEmpty()) {
+                dependencies.put(idsMicroservicesGroup.get(index), prerequisites);
+            }
+        }
+        ecosystemManager.setMicroserviceGroup(name, idsMicroservicesGroup, delaysMicroservicesGroup, dependencies);
     }
 
     @RequestMapping(value = "/groupinfo", method = RequestMethod.POST)
     @ResponseBody
     public MicroserviceGroupInfo getGroupInfo(@RequestParam(value = "id") String id) throws CreatingSettingsFolderException, ReadingEcosystemException, CreatingMicroserviceScriptException, SavingEcosystemException {
-        MicroservicesGroup microservicesGroup = ecosystemManager.getEcosystem().getMicroservicesGroups().stream().filter(m -> m.getId().equals(id)).findFirst().get();
-        List<MicroService> microservices = ecosystemManager.getEcosystem().getMicroservices();
+        Ecosystem ecosystem = ecosystemManager.getEcosystem();
+        MicroservicesGroup microservicesGroup = ecosystem.findMicroservicesGroup(id).get();
 
         MicroserviceGroupInfo info = new MicroserviceGroupInfo();
         info.setName(microservicesGroup.getName());
@@ -117,9 +125,17 @@ public class SettingsController {
             delays.put(microservicesGroup.getMicroservicesIds().get(index), microservicesGroup.getMicroservicesDelays().get(index));
         }
 
-        info.setMicroservicesNames(microservices.stream()
-                .filter(m -> microservicesGroup.getMicroservicesIds().contains(m.getId()))
-                .map(microservice -> microservice.getName() + " [" + delays.get(microservice.getId()) + " sec]")
+        Map<String, List<String>> dependencies = Optional.ofNullable(microservicesGroup.getMicroservicesDependencies()).orElse(Collections.emptyMap());
+        boolean byDependencies = dependencies.values().stream().anyMatch(prerequisites -> !prerequisites.isEmpty());
+        info.setMicroservicesNames(microservicesGroup.getMicroservicesIds().stream()
+                .map(ecosystem::findMicroservice)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .map(microservice -> microservice.getName() + (byDependencies
+                        ? " [after: " + dependencies.getOrDefault(microservice.getId(), Collections.emptyList()).stream()
+                                .map(ecosystem::findMicroservice).filter(Optional::isPresent).map(prerequisite -> prerequisite.get().getName())
+                                .collect(Collectors.joining(", ")) + "]"
+                        : " [" + delays.get(microservice.getId()) + " sec]"))
                 .collect(Collectors.toList()));
         return info;
     }
@@ -146,7 +162,7 @@ public class SettingsController {
     @ResponseBody
     public void checkoutAndPullAndRestart(@RequestParam(value = "id") String id, @RequestParam(value = "branchName") String branchName) throws CreatingSettingsFolderException, ReadingEcosystemException, SavingEcosystemException, IOException, GitAPIException {
         gitManager.checkoutAndPull(id, branchName);
-        List<String> intancesIds = ecosystemManager.getEcosystem().getInstances().stream().filter(i -> i.getMicroserviceId().equals(id)).map(Instance::getId).collect(Collectors.toList());
+        List<String> intancesIds = ecosystemManager.getEcosystem().findInstancesByMicroserviceId(id).stream().map(Instance::getId).collect(Collectors.toList());
         intancesIds.forEach(intancesId -> {
             try {
                 ecosystemManager.restartInstance(intancesId);
@@ -179,8 +195,9 @@ public class SettingsController {
     @RequestMapping(value = "/setexternalinstance", method = RequestMethod.POST)
     @ResponseBody
     public void setExternalInstance(@RequestParam(value = "name") String name, @RequestParam(value = "port") String port,
-                                    @RequestParam(value = "actuatorPrefix") String actuatorPrefix, @RequestParam(value = "ip") String ip) throws CreatingSettingsFolderException, ReadingEcosystemException, CreatingMicroserviceScriptException, SavingEcosystemException {
-        ecosystemManager.setNewExternalInstance(name, port, actuatorPrefix, ip);
+                                    @RequestParam(value = "actuatorPrefix") String actuatorPrefix, @RequestParam(value = "ip") String ip,
+                                    @RequestParam(value = "probeType", defaultValue = "health") ProbeType probeType, @RequestParam(value = "probePath", required = false) String probePath) throws CreatingSettingsFolderException, ReadingEcosystemException, CreatingMicroserviceScriptException, SavingEcosystemException {
+        ecosystemManager.setNewExternalInstance(name, port, actuatorPrefix, ip, probeType, probePath);
     }
 
     @RequestMapping(value = "/removeexternalinstance", method = RequestMethod.POST)
@@ -189,5 +206,10 @@ public class SettingsController {
         ecosystemManager.removeExternalInstance(id);
     }
 
+    @RequestMapping(value = "/buildcache", method = RequestMethod.GET)
+    @ResponseBody
+    public BuildCacheStats getBuildCacheStats() {
+        return ecosystemManager.getBuildCacheStats();
+    }
 
 }
\ No newline at end of file
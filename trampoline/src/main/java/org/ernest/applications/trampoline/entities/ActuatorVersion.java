@@ -0,0 +1,16 @@
+package org.ernest.applications.trampoline.entities;
+
+public enum ActuatorVersion {
+    V1("1.x"),
+    V2("2.x");
+
+    private String code;
+
+    ActuatorVersion(String code){
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
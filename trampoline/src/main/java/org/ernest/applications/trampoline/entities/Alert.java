@@ -0,0 +1,31 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Alert {
+
+    private String id;
+
+    private String ruleId;
+
+    private String ruleName;
+
+    private String instanceId;
+
+    private String instanceName;
+
+    private String state;
+
+    private double value;
+
+    private String message;
+
+    private long firedAt;
+
+    private long resolvedAt;
+}
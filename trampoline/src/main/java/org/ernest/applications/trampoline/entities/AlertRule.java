@@ -0,0 +1,97 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+public class AlertRule extends Freezable {
+
+    private String id;
+
+    private String name;
+
+    private AlertScope scope;
+
+    private String targetId;
+
+    private AlertRuleType type;
+
+    private String metric;
+
+    private String ratioOf;
+
+    private double threshold;
+
+    private long durationSeconds;
+
+    private String status;
+
+    private int count;
+
+    private long windowSeconds;
+
+    public void setId(String id) {
+        checkNotFrozen();
+        this.id = id;
+    }
+
+    public void setName(String name) {
+        checkNotFrozen();
+        this.name = name;
+    }
+
+    public void setScope(AlertScope scope) {
+        checkNotFrozen();
+        this.scope = scope;
+    }
+
+    public void setTargetId(String targetId) {
+        checkNotFrozen();
+        this.targetId = targetId;
+    }
+
+    public void setType(AlertRuleType type) {
+        checkNotFrozen();
+        this.type = type;
+    }
+
+    public void setMetric(String metric) {
+        checkNotFrozen();
+        this.metric = metric;
+    }
+
+    public void setRatioOf(String ratioOf) {
+        checkNotFrozen();
+        this.ratioOf = ratioOf;
+    }
+
+    public void setThreshold(double threshold) {
+        checkNotFrozen();
+        this.threshold = threshold;
+    }
+
+    public void setDurationSeconds(long durationSeconds) {
+        checkNotFrozen();
+        this.durationSeconds = durationSeconds;
+    }
+
+    public void setStatus(String status) {
+        checkNotFrozen();
+        this.status = status;
+    }
+
+    public void setCount(int count) {
+        checkNotFrozen();
+        this.count = count;
+    }
+
+    public void setWindowSeconds(long windowSeconds) {
+        checkNotFrozen();
+        this.windowSeconds = windowSeconds;
+    }
+}
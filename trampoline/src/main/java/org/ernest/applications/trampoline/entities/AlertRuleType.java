@@ -0,0 +1,23 @@
+package org.ernest.applications.trampoline.entities;
+
+import java.util.Arrays;
+
+public enum AlertRuleType {
+    THRESHOLD("threshold"),
+    RATE("rate"),
+    TRANSITIONS("transitions");
+
+    private String code;
+
+    AlertRuleType(String code){
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static AlertRuleType getByCode(String code) {
+        return Arrays.asList(AlertRuleType.values()).stream().filter(p -> code.equals(p.getCode())).findFirst().get();
+    }
+}
@@ -0,0 +1,16 @@
+package org.ernest.applications.trampoline.entities;
+
+import org.springframework.core.convert.converter.Converter;
+
+public class AlertRuleTypeEnumConverter implements Converter<String, AlertRuleType> {
+
+    @Override
+    public AlertRuleType convert(String from) {
+        try {
+            return AlertRuleType.valueOf(from.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return AlertRuleType.THRESHOLD;
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package org.ernest.applications.trampoline.entities;
+
+import java.util.Arrays;
+
+public enum AlertScope {
+    MICROSERVICE("microservice"),
+    GROUP("group");
+
+    private String code;
+
+    AlertScope(String code){
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static AlertScope getByCode(String code) {
+        return Arrays.asList(AlertScope.values()).stream().filter(p -> code.equals(p.getCode())).findFirst().get();
+    }
+}
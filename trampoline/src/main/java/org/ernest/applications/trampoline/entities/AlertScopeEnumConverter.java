@@ -0,0 +1,16 @@
+package org.ernest.applications.trampoline.entities;
+
+import org.springframework.core.convert.converter.Converter;
+
+public class AlertScopeEnumConverter implements Converter<String, AlertScope> {
+
+    @Override
+    public AlertScope convert(String from) {
+        try {
+            return AlertScope.valueOf(from.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return AlertScope.MICROSERVICE;
+        }
+    }
+
+}
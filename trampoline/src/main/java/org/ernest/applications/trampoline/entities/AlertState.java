@@ -0,0 +1,17 @@
+package org.ernest.applications.trampoline.entities;
+
+public enum AlertState {
+
+    FIRING("firing"),
+    RESOLVED("resolved");
+
+    private String code;
+
+    AlertState(String code){
+        this.code = code;
+    }
+
+    public String getCode(){
+        return code;
+    }
+}
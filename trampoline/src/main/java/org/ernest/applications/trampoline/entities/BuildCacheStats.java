@@ -0,0 +1,25 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildCacheStats {
+
+    private long hits;
+
+    private long misses;
+
+    private long stores;
+
+    private long evictions;
+
+    private int entries;
+
+    private long sizeBytes;
+
+    private long maxSizeBytes;
+}
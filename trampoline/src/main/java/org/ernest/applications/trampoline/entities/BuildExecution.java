@@ -0,0 +1,29 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class BuildExecution {
+
+    private String instanceId;
+
+    private String name;
+
+    private long queuedAt;
+
+    private Long startedAt;
+
+    private Long finishedAt;
+
+    private Integer exitCode;
+
+    public Long getQueueWaitMillis() {
+        return startedAt != null ? startedAt - queuedAt : null;
+    }
+
+    public Long getWallMillis() {
+        return startedAt != null && finishedAt != null ? finishedAt - startedAt : null;
+    }
+}
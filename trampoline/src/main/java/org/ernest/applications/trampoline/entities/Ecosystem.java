@@ -1,15 +1,27 @@
 package org.ernest.applications.trampoline.entities;
 
+import com.google.gson.Gson;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.ToString;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@Setter
+/**
+ * Whole Trampoline state as stored in the settings file.
+ *
+ * Instances published by {@link org.ernest.applications.trampoline.services.FileManager} are frozen: their lists
+ * and the elements in them are read-only and lookups by id are answered from an index built once at publication time. Callers that need to
+ * change something work on a {@link #copy()} and save it, which publishes it as the new snapshot.
+ */
 @Getter
-@ToString
+@ToString(exclude = "index")
 public class Ecosystem {
 
     private GitCredentials gitCredentials;
@@ -26,16 +38,133 @@ public class Ecosystem {
 
     private List<MicroservicesGroup> microservicesGroups;
 
+    private List<AlertRule> alertRules;
+
+    private long journalSequence;
+
+    private int schemaVersion;
+
+    @Getter(AccessLevel.NONE)
+    private transient volatile EcosystemIndex index;
+
     public Ecosystem() {
         microservices = new ArrayList<>();
         instances = new ArrayList<>();
         microservicesGroups = new ArrayList<>();
         externalInstances = new ArrayList<>();
+        alertRules = new ArrayList<>();
         gitCredentials = new GitCredentials();
     }
 
+    public void setGitCredentials(GitCredentials gitCredentials) {
+        checkNotFrozen();
+        this.gitCredentials = gitCredentials;
+    }
+
+    public void setMavenBinaryLocation(String mavenBinaryLocation) {
+        checkNotFrozen();
+        this.mavenBinaryLocation = mavenBinaryLocation;
+    }
+
+    public void setMavenHomeLocation(String mavenHomeLocation) {
+        checkNotFrozen();
+        this.mavenHomeLocation = mavenHomeLocation;
+    }
+
+    public void setMicroservices(List<MicroService> microservices) {
+        checkNotFrozen();
+        this.microservices = microservices;
+    }
+
+    public void setExternalInstances(List<ExternalInstance> externalInstances) {
+        checkNotFrozen();
+        this.externalInstances = externalInstances;
+    }
+
+    public void setInstances(List<Instance> instances) {
+        checkNotFrozen();
+        this.instances = instances;
+    }
+
+    public void setMicroservicesGroups(List<MicroservicesGroup> microservicesGroups) {
+        checkNotFrozen();
+        this.microservicesGroups = microservicesGroups;
+    }
+
+    public void setAlertRules(List<AlertRule> alertRules) {
+        checkNotFrozen();
+        this.alertRules = alertRules;
+    }
+
+    public void setJournalSequence(long journalSequence) {
+        checkNotFrozen();
+        this.journalSequence = journalSequence;
+    }
+
+    public void setSchemaVersion(int schemaVersion) {
+        checkNotFrozen();
+        this.schemaVersion = schemaVersion;
+    }
+
     public boolean removeInstance(String id) {
         return instances.removeIf(i -> i.getId().equalsIgnoreCase(id));
     }
 
+    public Ecosystem copy() {
+        Gson gson = new Gson();
+        return gson.fromJson(gson.toJsonTree(this), Ecosystem.class);
+    }
+
+    public Ecosystem freeze() {
+        microservices = Collections.unmodifiableList(new ArrayList<>(microservices));
+        instances = Collections.unmodifiableList(new ArrayList<>(instances));
+        microservicesGroups = Collections.unmodifiableList(new ArrayList<>(microservicesGroups));
+        externalInstances = Collections.unmodifiableList(new ArrayList<>(externalInstances));
+        alertRules = Collections.unmodifiableList(new ArrayList<>(alertRules));
+        Stream.of(microservices, instances, microservicesGroups, externalInstances, alertRules).flatMap(List::stream).forEach(Freezable::freeze);
+        if (gitCredentials != null) {
+            gitCredentials.freeze();
+        }
+        index = new EcosystemIndex(this);
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return index != null;
+    }
+
+    public Optional<MicroService> findMicroservice(String id) {
+        return isFrozen() ? Optional.ofNullable(index.getMicroservice(id)) : findFirst(microservices, m -> m.getId().equals(id));
+    }
+
+    public Optional<Instance> findInstance(String id) {
+        return isFrozen() ? Optional.ofNullable(index.getInstance(id)) : findFirst(instances, i -> i.getId().equals(id));
+    }
+
+    public Optional<MicroservicesGroup> findMicroservicesGroup(String id) {
+        return isFrozen() ? Optional.ofNullable(index.getMicroservicesGroup(id)) : findFirst(microservicesGroups, g -> g.getId().equals(id));
+    }
+
+    public Optional<ExternalInstance> findExternalInstance(String id) {
+        return isFrozen() ? Optional.ofNullable(index.getExternalInstance(id)) : findFirst(externalInstances, i -> i.getId().equals(id));
+    }
+
+    public List<Instance> findInstancesByMicroserviceId(String microserviceId) {
+        return isFrozen() ? index.getInstancesByMicroserviceId(microserviceId) : instances.stream().filter(i -> microserviceId.equals(i.getMicroserviceId())).collect(Collectors.toList());
+    }
+
+    public List<Instance> findInstancesByPort(String port) {
+        return isFrozen() ? index.getInstancesByPort(port) : instances.stream().filter(i -> port.equals(i.getPort())).collect(Collectors.toList());
+    }
+
+    private void checkNotFrozen() {
+        if (isFrozen()) {
+            throw new UnsupportedOperationException("Published Ecosystem snapshots are read-only, change a copy instead");
+        }
+    }
+
+    private static <T> Optional<T> findFirst(List<T> values, Predicate<T> predicate) {
+        return values.stream().filter(predicate).findFirst();
+    }
+
 }
@@ -0,0 +1,61 @@
+package org.ernest.applications.trampoline.entities;
+
+import java.util.*;
+import java.util.function.Function;
+
+final class EcosystemIndex {
+
+    private final Map<String, MicroService> microservicesById;
+    private final Map<String, Instance> instancesById;
+    private final Map<String, MicroservicesGroup> microservicesGroupsById;
+    private final Map<String, ExternalInstance> externalInstancesById;
+    private final Map<String, List<Instance>> instancesByMicroserviceId;
+    private final Map<String, List<Instance>> instancesByPort;
+
+    EcosystemIndex(Ecosystem ecosystem) {
+        microservicesById = byId(ecosystem.getMicroservices(), MicroService::getId);
+        instancesById = byId(ecosystem.getInstances(), Instance::getId);
+        microservicesGroupsById = byId(ecosystem.getMicroservicesGroups(), MicroservicesGroup::getId);
+        externalInstancesById = byId(ecosystem.getExternalInstances(), ExternalInstance::getId);
+        instancesByMicroserviceId = groupBy(ecosystem.getInstances(), Instance::getMicroserviceId);
+        instancesByPort = groupBy(ecosystem.getInstances(), Instance::getPort);
+    }
+
+    MicroService getMicroservice(String id) {
+        return microservicesById.get(id);
+    }
+
+    Instance getInstance(String id) {
+        return instancesById.get(id);
+    }
+
+    MicroservicesGroup getMicroservicesGroup(String id) {
+        return microservicesGroupsById.get(id);
+    }
+
+    ExternalInstance getExternalInstance(String id) {
+        return externalInstancesById.get(id);
+    }
+
+    List<Instance> getInstancesByMicroserviceId(String microserviceId) {
+        return instancesByMicroserviceId.getOrDefault(microserviceId, Collections.emptyList());
+    }
+
+    List<Instance> getInstancesByPort(String port) {
+        return instancesByPort.getOrDefault(port, Collections.emptyList());
+    }
+
+    private static <T> Map<String, T> byId(List<T> values, Function<T, String> id) {
+        Map<String, T> map = new HashMap<>(values.size() * 2);
+        values.forEach(value -> map.putIfAbsent(id.apply(value), value));
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static <T> Map<String, List<T>> groupBy(List<T> values, Function<T, String> key) {
+        Map<String, List<T>> map = new HashMap<>();
+        values.stream().filter(value -> key.apply(value) != null)
+                .forEach(value -> map.computeIfAbsent(key.apply(value), k -> new ArrayList<>()).add(value));
+        map.replaceAll((k, list) -> Collections.unmodifiableList(list));
+        return Collections.unmodifiableMap(map);
+    }
+}
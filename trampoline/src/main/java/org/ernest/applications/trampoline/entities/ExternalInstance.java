@@ -1,18 +1,21 @@
 package org.ernest.applications.trampoline.entities;
 
-public class ExternalInstance {
+public class ExternalInstance extends Freezable {
 
     private String id;
     private String ip;
     private String name;
     private String port;
     private String actuatorPrefix;
+    private ProbeType probeType;
+    private String probePath;
 
     public String getId() {
         return id;
     }
 
     public void setId(String id) {
+        checkNotFrozen();
         this.id = id;
     }
 
@@ -21,6 +24,7 @@ public class ExternalInstance {
     }
 
     public void setIp(String ip) {
+        checkNotFrozen();
         this.ip = ip;
     }
 
@@ -29,6 +33,7 @@ public class ExternalInstance {
     }
 
     public void setName(String name) {
+        checkNotFrozen();
         this.name = name;
     }
 
@@ -37,6 +42,7 @@ public class ExternalInstance {
     }
 
     public void setPort(String port) {
+        checkNotFrozen();
         this.port = port;
     }
 
@@ -45,9 +51,28 @@ public class ExternalInstance {
     }
 
     public void setActuatorPrefix(String actuatorPrefix) {
+        checkNotFrozen();
         this.actuatorPrefix = actuatorPrefix;
     }
 
+    public ProbeType getProbeType() {
+        return probeType;
+    }
+
+    public void setProbeType(ProbeType probeType) {
+        checkNotFrozen();
+        this.probeType = probeType;
+    }
+
+    public String getProbePath() {
+        return probePath;
+    }
+
+    public void setProbePath(String probePath) {
+        checkNotFrozen();
+        this.probePath = probePath;
+    }
+
     @Override
     public String toString() {
         return "ExternalInstance{" +
@@ -56,6 +81,8 @@ public class ExternalInstance {
                 ", name='" + name + '\'' +
                 ", port='" + port + '\'' +
                 ", actuatorPrefix='" + actuatorPrefix + '\'' +
+                ", probeType=" + probeType +
+                ", probePath='" + probePath + '\'' +
                 '}';
     }
 }
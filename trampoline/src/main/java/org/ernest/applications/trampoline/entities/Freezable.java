@@ -0,0 +1,20 @@
+package org.ernest.applications.trampoline.entities;
+
+/**
+ * Element of an Ecosystem that becomes read-only once its snapshot is published. Setters are rejected from then on,
+ * so a reader cannot change what every other thread sees; copies made with {@link Ecosystem#copy()} start editable.
+ */
+public abstract class Freezable {
+
+    private transient boolean frozen;
+
+    void freeze() {
+        frozen = true;
+    }
+
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Published Ecosystem snapshots are read-only, change a copy instead");
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package org.ernest.applications.trampoline.entities;
 
-public class GitCredentials {
+public class GitCredentials extends Freezable {
 
     private HttpsSettings httpsSettings;
     private SshSettings sshSettings;
@@ -21,11 +21,23 @@ public class GitCredentials {
         this.sshSettings = sshSettings;
     }
 
+    @Override
+    void freeze() {
+        super.freeze();
+        if (httpsSettings != null) {
+            httpsSettings.freeze();
+        }
+        if (sshSettings != null) {
+            sshSettings.freeze();
+        }
+    }
+
     public HttpsSettings getHttpsSettings() {
         return httpsSettings;
     }
 
     public void setHttpsSettings(HttpsSettings httpsSettings) {
+        checkNotFrozen();
         this.httpsSettings = httpsSettings;
     }
 
@@ -34,10 +46,11 @@ public class GitCredentials {
     }
 
     public void setSshSettings(SshSettings sshSettings) {
+        checkNotFrozen();
         this.sshSettings = sshSettings;
     }
 
-    public static class HttpsSettings {
+    public static class HttpsSettings extends Freezable {
         private String username;
         private String pass;
 
@@ -51,6 +64,7 @@ public class GitCredentials {
         }
 
         public void setUsername(String username) {
+            checkNotFrozen();
             this.username = username;
         }
 
@@ -59,12 +73,13 @@ public class GitCredentials {
         }
 
         public void setPass(String pass) {
+            checkNotFrozen();
             this.pass = pass;
         }
 
     }
 
-    public static class SshSettings {
+    public static class SshSettings extends Freezable {
         private String sshKeyLocation;
         private String sshKeyPassword;
 
@@ -77,6 +92,7 @@ public class GitCredentials {
         }
 
         public void setSshKeyLocation(String sshKeyLocation) {
+            checkNotFrozen();
             this.sshKeyLocation = sshKeyLocation;
         }
 
@@ -85,6 +101,7 @@ public class GitCredentials {
         }
 
         public void setSshKeyPassword(String sshKeyPassword) {
+            checkNotFrozen();
             this.sshKeyPassword = sshKeyPassword;
         }
     }
@@ -0,0 +1,25 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeapTrend {
+
+    private String instanceId;
+
+    private int points;
+
+    private double slopeKBPerMinute;
+
+    private long projectedUsedHeapKB;
+
+    private long maxHeapKB;
+
+    private Double minutesToExhaustion;
+
+    private boolean flagged;
+}
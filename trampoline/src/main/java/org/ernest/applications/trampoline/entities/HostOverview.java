@@ -0,0 +1,21 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HostOverview {
+
+    private HostResources host;
+
+    private long instancesResidentSetKB;
+
+    private double instancesCpuPercent;
+
+    private List<ProcessResources> topConsumers;
+}
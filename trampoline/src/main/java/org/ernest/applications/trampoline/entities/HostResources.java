@@ -0,0 +1,37 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HostResources {
+
+    private long sampledAt;
+
+    private double cpuLoadPercent;
+
+    private double loadAverage;
+
+    private long memoryTotalKB;
+
+    private long memoryAvailableKB;
+
+    private long swapTotalKB;
+
+    private long swapUsedKB;
+
+    private long diskTotalKB;
+
+    private long diskUsableKB;
+
+    private long diskReadKBPerSecond;
+
+    private long diskWriteKBPerSecond;
+
+    private long networkReceivedKBPerSecond;
+
+    private long networkSentKBPerSecond;
+}
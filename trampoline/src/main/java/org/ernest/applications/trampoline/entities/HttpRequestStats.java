@@ -0,0 +1,19 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HttpRequestStats {
+
+    private String uri;
+
+    private long count;
+
+    private long totalTimeMillis;
+
+    private long maxMillis;
+}
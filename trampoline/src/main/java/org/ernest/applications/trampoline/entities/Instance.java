@@ -1,11 +1,15 @@
 package org.ernest.applications.trampoline.entities;
 
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
-@Data
+@Getter
+@ToString
+@EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
-public class Instance {
+public class Instance extends Freezable {
 
     private String id;
 
@@ -25,6 +29,65 @@ public class Instance {
 
     private String microserviceId;
 
+    private ProbeType probeType;
+
+    private String probePath;
+
+    public void setId(String id) {
+        checkNotFrozen();
+        this.id = id;
+    }
+
+    public void setIp(String ip) {
+        checkNotFrozen();
+        this.ip = ip;
+    }
+
+    public void setName(String name) {
+        checkNotFrozen();
+        this.name = name;
+    }
+
+    public void setPomLocation(String pomLocation) {
+        checkNotFrozen();
+        this.pomLocation = pomLocation;
+    }
+
+    public void setPort(String port) {
+        checkNotFrozen();
+        this.port = port;
+    }
+
+    public void setActuatorPrefix(String actuatorPrefix) {
+        checkNotFrozen();
+        this.actuatorPrefix = actuatorPrefix;
+    }
+
+    public void setVmArguments(String vmArguments) {
+        checkNotFrozen();
+        this.vmArguments = vmArguments;
+    }
+
+    public void setAppArguments(String appArguments) {
+        checkNotFrozen();
+        this.appArguments = appArguments;
+    }
+
+    public void setMicroserviceId(String microserviceId) {
+        checkNotFrozen();
+        this.microserviceId = microserviceId;
+    }
+
+    public void setProbeType(ProbeType probeType) {
+        checkNotFrozen();
+        this.probeType = probeType;
+    }
+
+    public void setProbePath(String probePath) {
+        checkNotFrozen();
+        this.probePath = probePath;
+    }
+
     public String buildActuatorUrl() {
         return "http://" + getIp() + ":" + getPort() + "/" + getActuatorPrefix();
     }
@@ -0,0 +1,37 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Immutable, so a probe replaces the entry published by {@link org.ernest.applications.trampoline.services.HealthChecker}
+ * instead of changing one that may be serialized concurrently.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class InstanceHealth {
+
+    private final String instanceId;
+
+    private final String status;
+
+    private final long version;
+
+    private final long checkedAt;
+
+    private final long probeLatencyMillis;
+
+    private final long probeLatencyMinMillis;
+
+    private final long probeLatencyAvgMillis;
+
+    private final long probeLatencyMaxMillis;
+
+    private final int consecutiveFailures;
+
+    private final boolean circuitOpen;
+}
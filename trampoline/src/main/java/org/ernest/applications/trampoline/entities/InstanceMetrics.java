@@ -0,0 +1,15 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstanceMetrics {
+
+    private String instanceId;
+
+    private Metrics metrics;
+}
@@ -0,0 +1,23 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class InstanceProcess {
+
+    private String instanceId;
+
+    private ProcessState state;
+
+    private Integer exitCode;
+
+    private long since;
+
+    private List<String> stdout;
+
+    private List<String> stderr;
+}
@@ -0,0 +1,19 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstancesHealth {
+
+    private long version;
+
+    private List<InstanceHealth> instances;
+
+    private List<String> removed;
+}
@@ -1,23 +1,26 @@
 package org.ernest.applications.trampoline.entities;
 
 
-import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class Metrics {
 
-    private String date;
+    private Long timestamp;
     private Long totalMemoryKB;
     private Long freeMemoryKB;
     private Long heapKB;
     private Long initHeapKB;
+    private Long committedHeapKB;
     private Long usedHeapKB;
+    private Map<String, Long> catalog = new LinkedHashMap<>();
 
-    public String getDate() {
-        return date;
+    public Long getTimestamp() {
+        return timestamp;
     }
 
-    public void setDate(String date) {
-        this.date = date;
+    public void setTimestamp(Long timestamp) {
+        this.timestamp = timestamp;
     }
 
     public Long getTotalMemoryKB() {
@@ -52,6 +55,14 @@ public class Metrics {
         this.initHeapKB = initHeapKB;
     }
 
+    public Long getCommittedHeapKB() {
+        return committedHeapKB;
+    }
+
+    public void setCommittedHeapKB(Long committedHeapKB) {
+        this.committedHeapKB = committedHeapKB;
+    }
+
     public Long getUsedHeapKB() {
         return usedHeapKB;
     }
@@ -60,15 +71,25 @@ public class Metrics {
         this.usedHeapKB = usedHeapKB;
     }
 
+    public Map<String, Long> getCatalog() {
+        return catalog;
+    }
+
+    public void setCatalog(Map<String, Long> catalog) {
+        this.catalog = catalog;
+    }
+
     @Override
     public String toString() {
         return "Metrics{" +
-                "date=" + date +
+                "timestamp=" + timestamp +
                 ", totalMemoryKB=" + totalMemoryKB +
                 ", freeMemoryKB=" + freeMemoryKB +
                 ", heapKB=" + heapKB +
                 ", initHeapKB=" + initHeapKB +
+                ", committedHeapKB=" + committedHeapKB +
                 ", usedHeapKB=" + usedHeapKB +
+                ", catalog=" + catalog +
                 '}';
     }
 }
\ No newline at end of file
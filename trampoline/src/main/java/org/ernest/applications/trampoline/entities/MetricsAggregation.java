@@ -0,0 +1,25 @@
+package org.ernest.applications.trampoline.entities;
+
+import java.util.Arrays;
+
+public enum MetricsAggregation {
+    MIN("min"),
+    MAX("max"),
+    AVG("avg"),
+    LAST("last"),
+    P95("p95");
+
+    private String code;
+
+    MetricsAggregation(String code){
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static MetricsAggregation getByCode(String code) {
+        return Arrays.asList(MetricsAggregation.values()).stream().filter(p -> code.equals(p.getCode())).findFirst().get();
+    }
+}
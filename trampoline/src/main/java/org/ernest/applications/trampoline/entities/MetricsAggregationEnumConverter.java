@@ -0,0 +1,16 @@
+package org.ernest.applications.trampoline.entities;
+
+import org.springframework.core.convert.converter.Converter;
+
+public class MetricsAggregationEnumConverter implements Converter<String, MetricsAggregation> {
+
+    @Override
+    public MetricsAggregation convert(String from) {
+        try {
+            return MetricsAggregation.valueOf(from.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return MetricsAggregation.AVG;
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class MetricsQueryResult {
+
+    private long from;
+
+    private long to;
+
+    private long stepMillis;
+
+    private long[] timestamps;
+
+    private List<MetricsQuerySeries> series = new ArrayList<>();
+}
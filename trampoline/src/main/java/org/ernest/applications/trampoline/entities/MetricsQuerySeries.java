@@ -0,0 +1,21 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsQuerySeries {
+
+    private String instanceId;
+
+    private String name;
+
+    private String resolution;
+
+    private Map<String, Map<String, Long[]>> values;
+}
@@ -0,0 +1,31 @@
+package org.ernest.applications.trampoline.entities;
+
+import java.util.Arrays;
+
+public enum MetricsResolution {
+    RAW("raw", 0L),
+    MINUTE("1m", 60_000L),
+    TEN_MINUTES("10m", 600_000L),
+    HOUR("1h", 3_600_000L);
+
+    private String code;
+
+    private long stepMillis;
+
+    MetricsResolution(String code, long stepMillis){
+        this.code = code;
+        this.stepMillis = stepMillis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getStepMillis() {
+        return stepMillis;
+    }
+
+    public static MetricsResolution getByCode(String code) {
+        return Arrays.asList(MetricsResolution.values()).stream().filter(p -> code.equals(p.getCode())).findFirst().get();
+    }
+}
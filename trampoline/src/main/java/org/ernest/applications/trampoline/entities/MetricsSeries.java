@@ -0,0 +1,24 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public class MetricsSeries {
+
+    private String id;
+
+    private String resolution;
+
+    private long[] timestamps;
+
+    private Map<String, long[]> avg = new LinkedHashMap<>();
+
+    private Map<String, long[]> min;
+
+    private Map<String, long[]> max;
+}
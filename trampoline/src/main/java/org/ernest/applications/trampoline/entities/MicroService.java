@@ -1,11 +1,15 @@
 package org.ernest.applications.trampoline.entities;
 
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
-@Data
+@Getter
+@ToString
+@EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
-public class MicroService {
+public class MicroService extends Freezable {
 
     private String id;
 
@@ -25,6 +29,70 @@ public class MicroService {
 
     private BuildTools buildTool;
 
+    private ProbeType probeType;
+
+    private String probePath;
+
     private Float version;
 
+    public void setId(String id) {
+        checkNotFrozen();
+        this.id = id;
+    }
+
+    public void setName(String name) {
+        checkNotFrozen();
+        this.name = name;
+    }
+
+    public void setPomLocation(String pomLocation) {
+        checkNotFrozen();
+        this.pomLocation = pomLocation;
+    }
+
+    public void setGitLocation(String gitLocation) {
+        checkNotFrozen();
+        this.gitLocation = gitLocation;
+    }
+
+    public void setDefaultPort(Integer defaultPort) {
+        checkNotFrozen();
+        this.defaultPort = defaultPort;
+    }
+
+    public void setActuatorPrefix(String actuatorPrefix) {
+        checkNotFrozen();
+        this.actuatorPrefix = actuatorPrefix;
+    }
+
+    public void setVmArguments(String vmArguments) {
+        checkNotFrozen();
+        this.vmArguments = vmArguments;
+    }
+
+    public void setAppArguments(String appArguments) {
+        checkNotFrozen();
+        this.appArguments = appArguments;
+    }
+
+    public void setBuildTool(BuildTools buildTool) {
+        checkNotFrozen();
+        this.buildTool = buildTool;
+    }
+
+    public void setProbeType(ProbeType probeType) {
+        checkNotFrozen();
+        this.probeType = probeType;
+    }
+
+    public void setProbePath(String probePath) {
+        checkNotFrozen();
+        this.probePath = probePath;
+    }
+
+    public void setVersion(Float version) {
+        checkNotFrozen();
+        this.version = version;
+    }
+
 }
\ No newline at end of file
@@ -1,20 +1,42 @@
 package org.ernest.applications.trampoline.entities;
 
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-public class MicroservicesGroup {
+public class MicroservicesGroup extends Freezable {
 
     private String id;
     private String name;
     private List<String> microservicesIds;
     private List<Integer> microservicesDelays;
+    private Map<String, List<String>> microservicesDependencies;
+
+    @Override
+    void freeze() {
+        super.freeze();
+        if (microservicesIds != null) {
+            microservicesIds = Collections.unmodifiableList(new ArrayList<>(microservicesIds));
+        }
+        if (microservicesDelays != null) {
+            microservicesDelays = Collections.unmodifiableList(new ArrayList<>(microservicesDelays));
+        }
+        if (microservicesDependencies != null) {
+            Map<String, List<String>> dependencies = new LinkedHashMap<>();
+            microservicesDependencies.forEach((id, prerequisites) -> dependencies.put(id, Collections.unmodifiableList(new ArrayList<>(prerequisites))));
+            microservicesDependencies = Collections.unmodifiableMap(dependencies);
+        }
+    }
 
     public String getId() {
         return id;
     }
 
     public void setId(String id) {
+        checkNotFrozen();
         this.id = id;
     }
 
@@ -23,6 +45,7 @@ public class MicroservicesGroup {
     }
 
     public void setName(String name) {
+        checkNotFrozen();
         this.name = name;
     }
 
@@ -31,6 +54,7 @@ public class MicroservicesGroup {
     }
 
     public void setMicroservicesIds(List<String> microservicesIds) {
+        checkNotFrozen();
         this.microservicesIds = microservicesIds;
     }
 
@@ -39,6 +63,16 @@ public class MicroservicesGroup {
     }
 
     public void setMicroservicesDelays(List<Integer> microservicesDelays) {
+        checkNotFrozen();
         this.microservicesDelays = microservicesDelays;
     }
+
+    public Map<String, List<String>> getMicroservicesDependencies() {
+        return microservicesDependencies;
+    }
+
+    public void setMicroservicesDependencies(Map<String, List<String>> microservicesDependencies) {
+        checkNotFrozen();
+        this.microservicesDependencies = microservicesDependencies;
+    }
 }
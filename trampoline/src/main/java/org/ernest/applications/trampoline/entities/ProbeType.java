@@ -0,0 +1,23 @@
+package org.ernest.applications.trampoline.entities;
+
+import java.util.Arrays;
+
+public enum ProbeType {
+    TCP("tcp"),
+    HEALTH("health"),
+    CUSTOM("custom");
+
+    private String code;
+
+    ProbeType(String code){
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static ProbeType getByCode(String code) {
+        return Arrays.asList(ProbeType.values()).stream().filter(p -> code.equals(p.getCode())).findFirst().get();
+    }
+}
@@ -0,0 +1,16 @@
+package org.ernest.applications.trampoline.entities;
+
+import org.springframework.core.convert.converter.Converter;
+
+public class ProbeTypeEnumConverter implements Converter<String, ProbeType> {
+
+    @Override
+    public ProbeType convert(String from) {
+        try {
+            return ProbeType.valueOf(from.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ProbeType.HEALTH;
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessResources {
+
+    private String instanceId;
+
+    private String name;
+
+    private int pid;
+
+    private long sampledAt;
+
+    private long residentSetKB;
+
+    private long cpuTimeMillis;
+
+    private double cpuPercent;
+
+    private int threadCount;
+
+    private long openFiles;
+}
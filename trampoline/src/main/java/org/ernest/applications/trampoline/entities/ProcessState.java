@@ -0,0 +1,8 @@
+package org.ernest.applications.trampoline.entities;
+
+public enum ProcessState {
+    BUILDING,
+    STARTING,
+    RUNNING,
+    EXITED
+}
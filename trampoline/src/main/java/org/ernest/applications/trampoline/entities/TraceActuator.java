@@ -3,11 +3,20 @@ package org.ernest.applications.trampoline.entities;
 
 public class TraceActuator {
 
+    private long timestamp;
     private String date;
     private String method;
     private String path;
     private String status;
 
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
     public String getDate() {
         return date;
     }
@@ -43,7 +52,8 @@ public class TraceActuator {
     @Override
     public String toString() {
         return "TraceActuator{" +
-                "date='" + date + '\'' +
+                "timestamp=" + timestamp +
+                ", date='" + date + '\'' +
                 ", method='" + method + '\'' +
                 ", path='" + path + '\'' +
                 ", status='" + status + '\'' +
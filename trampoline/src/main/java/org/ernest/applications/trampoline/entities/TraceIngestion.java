@@ -0,0 +1,25 @@
+package org.ernest.applications.trampoline.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TraceIngestion {
+
+    private String instanceId;
+
+    private int buffered;
+
+    private long ingested;
+
+    private long evicted;
+
+    private long overflows;
+
+    private long missed;
+
+    private long pollIntervalMillis;
+}
@@ -0,0 +1,5 @@
+package org.ernest.applications.trampoline.exceptions;
+
+public class StartingGroupException extends RuntimeException {
+
+}
@@ -0,0 +1,50 @@
+package org.ernest.applications.trampoline.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.ernest.applications.trampoline.entities.AlertRuleType;
+import org.ernest.applications.trampoline.entities.AlertScope;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+@Data
+@NoArgsConstructor
+public class CreateAlertRule {
+
+    @NotBlank
+    private String name;
+
+    @NotNull
+    private AlertScope scope;
+
+    @NotBlank
+    private String targetId;
+
+    @NotNull
+    private AlertRuleType type;
+
+    private String metric;
+
+    private String ratioOf;
+
+    private double threshold;
+
+    @Min(0)
+    private long durationSeconds;
+
+    private String status = "not deployed";
+
+    @Min(1)
+    private int count = 1;
+
+    @Min(0)
+    private long windowSeconds;
+
+    @AssertTrue
+    public boolean isMetricConfigured() {
+        return type == AlertRuleType.TRANSITIONS || (metric != null && !metric.trim().isEmpty());
+    }
+}
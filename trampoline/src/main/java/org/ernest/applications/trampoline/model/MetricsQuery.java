@@ -0,0 +1,44 @@
+package org.ernest.applications.trampoline.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.ernest.applications.trampoline.entities.MetricsAggregation;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Min;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class MetricsQuery {
+
+    private List<String> instanceIds = new ArrayList<>();
+
+    private String microserviceId;
+
+    private String groupId;
+
+    private Long from;
+
+    private Long to;
+
+    @Min(0)
+    private long stepSeconds;
+
+    private String resolution;
+
+    private List<String> fields = new ArrayList<>();
+
+    private List<MetricsAggregation> aggregations = new ArrayList<>();
+
+    @AssertTrue
+    public boolean isSelectorConfigured() {
+        return !instanceIds.isEmpty() || (microserviceId != null && !microserviceId.isEmpty()) || (groupId != null && !groupId.isEmpty());
+    }
+
+    @AssertTrue
+    public boolean isRangeValid() {
+        return from == null || to == null || from < to;
+    }
+}
@@ -2,6 +2,7 @@ package org.ernest.applications.trampoline.model;
 
 import lombok.Data;
 import org.ernest.applications.trampoline.entities.BuildTools;
+import org.ernest.applications.trampoline.entities.ProbeType;
 
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
@@ -28,5 +29,9 @@ public class UpdateMicroService {
     private String gitLocation;
 
     private BuildTools buildTool;
+
+    private ProbeType probeType;
+
+    private String probePath;
 }
 
@@ -0,0 +1,172 @@
+package org.ernest.applications.trampoline.services;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.ernest.applications.trampoline.entities.ActuatorVersion;
+import org.ernest.applications.trampoline.entities.Instance;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared HTTP client for actuator endpoints of the instances. Connections are pooled and kept alive with a bounded
+ * number per instance, every call has connect, read and pool wait timeouts, and the capabilities of an instance
+ * (Spring Boot 1.x or 2.x actuators, published metric names, Prometheus endpoint) are detected once and remembered
+ * until they expire, the instance goes away or an endpoint disappears.
+ */
+@Component
+public class ActuatorClient {
+
+    private final Logger log = LoggerFactory.getLogger(ActuatorClient.class);
+
+    private final Map<String, Capabilities> capabilities = new ConcurrentHashMap<>();
+
+    @Value("${actuator.client.max.total:64}")
+    private int maxTotal;
+
+    @Value("${actuator.client.max.per.host:4}")
+    private int maxPerHost;
+
+    @Value("${actuator.client.connect.timeout.millis:1000}")
+    private int connectTimeoutMillis;
+
+    @Value("${actuator.client.read.timeout.millis:3000}")
+    private int readTimeoutMillis;
+
+    @Value("${actuator.client.pool.wait.millis:1000}")
+    private int poolWaitMillis;
+
+    @Value("${actuator.client.idle.evict.seconds:30}")
+    private long idleEvictSeconds;
+
+    @Value("${actuator.client.capabilities.ttl.minutes:10}")
+    private long capabilitiesTtlMinutes;
+
+    private CloseableHttpClient httpClient;
+
+    private RestTemplate restTemplate;
+
+    @PostConstruct
+    public void start() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerHost);
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEvictSeconds, TimeUnit.SECONDS)
+                .build();
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectTimeout(connectTimeoutMillis);
+        requestFactory.setReadTimeout(readTimeoutMillis);
+        requestFactory.setConnectionRequestTimeout(poolWaitMillis);
+        restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        httpClient.close();
+    }
+
+    public ActuatorVersion getVersion(Instance instance) {
+        return getCapabilities(instance).version;
+    }
+
+    public Set<String> getMetricNames(Instance instance) {
+        return getCapabilities(instance).metricNames;
+    }
+
+    public boolean hasPrometheus(Instance instance) {
+        return getCapabilities(instance).prometheus;
+    }
+
+    public String get(Instance instance, String endpoint) {
+        try {
+            return restTemplate.getForObject(URI.create(instance.buildActuatorUrl() + endpoint), String.class);
+        } catch (HttpClientErrorException e) {
+            capabilities.remove(instance.getId());
+            throw e;
+        }
+    }
+
+    public String getIfPresent(Instance instance, String endpoint) {
+        try {
+            return restTemplate.getForObject(URI.create(instance.buildActuatorUrl() + endpoint), String.class);
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    public void retain(Collection<String> instanceIds) {
+        capabilities.keySet().retainAll(instanceIds);
+    }
+
+    private Capabilities getCapabilities(Instance instance) {
+        Capabilities current = capabilities.get(instance.getId());
+        if (current == null || System.currentTimeMillis() - current.detectedAt > TimeUnit.MINUTES.toMillis(capabilitiesTtlMinutes)) {
+            current = detectCapabilities(instance);
+            capabilities.put(instance.getId(), current);
+            log.info("Instance id: [{}] exposes Spring Boot [{}] actuators with [{}] metrics", instance.getId(), current.version.getCode(), current.metricNames.size());
+        }
+        return current;
+    }
+
+    private Capabilities detectCapabilities(Instance instance) {
+        String metrics = restTemplate.getForObject(URI.create(instance.buildActuatorUrl() + "/metrics"), String.class);
+        try {
+            JSONObject metricsJson = new JSONObject(metrics);
+            if (!metricsJson.has("names")) {
+                Set<String> keys = new HashSet<>();
+                metricsJson.keys().forEachRemaining(key -> keys.add(key.toString()));
+                return new Capabilities(ActuatorVersion.V1, keys, false);
+            }
+            Set<String> names = new HashSet<>();
+            JSONArray namesJson = metricsJson.getJSONArray("names");
+            for (int i = 0; i < namesJson.length(); i++) {
+                names.add(namesJson.getString(i));
+            }
+            return new Capabilities(ActuatorVersion.V2, names, getIfPresent(instance, "/prometheus") != null);
+        } catch (JSONException e) {
+            throw new RestClientException("Unexpected metrics response from instance " + instance.getId(), e);
+        }
+    }
+
+    private static class Capabilities {
+
+        private final ActuatorVersion version;
+
+        private final Set<String> metricNames;
+
+        private final boolean prometheus;
+
+        private final long detectedAt = System.currentTimeMillis();
+
+        private Capabilities(ActuatorVersion version, Set<String> metricNames, boolean prometheus) {
+            this.version = version;
+            this.metricNames = Collections.unmodifiableSet(metricNames);
+            this.prometheus = prometheus;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.ernest.applications.trampoline.services;
+
+import com.google.gson.Gson;
+import org.apache.commons.collections4.queue.CircularFifoQueue;
+import org.ernest.applications.trampoline.entities.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Alert rules evaluated as data arrives. Metric samples and health transitions are pushed in by their producers and
+ * only the rules that apply to the instance's microservice, directly or through one of its groups, are looked at.
+ * Rules are indexed once per settings snapshot. Firing and resolved alerts are pushed to the pages and appended to
+ * the alert log.
+ */
+@Component
+public class AlertEngine {
+
+    private final Logger log = LoggerFactory.getLogger(AlertEngine.class);
+
+    private final FileManager fileManager;
+
+    private final HealthChecker healthChecker;
+
+    private final UpdateBroadcaster updateBroadcaster;
+
+    private final Map<String, RuleEvaluation> evaluations = new HashMap<>();
+
+    private Map<String, List<AlertRule>> rulesByMicroservice = Collections.emptyMap();
+
+    private Ecosystem indexedEcosystem;
+
+    private Queue<Alert> alertLog;
+
+    @Value("${alerts.log.size:200}")
+    private int logSize;
+
+    @Value("${alerts.log.file.name:alerts.log}")
+    private String logFileName;
+
+    @Autowired
+    public AlertEngine(FileManager fileManager, HealthChecker healthChecker, UpdateBroadcaster updateBroadcaster) {
+        this.fileManager = fileManager;
+        this.healthChecker = healthChecker;
+        this.updateBroadcaster = updateBroadcaster;
+    }
+
+    @PostConstruct
+    public void start() {
+        alertLog = new CircularFifoQueue<>(logSize);
+        healthChecker.addListener(health -> onTransition(health.getInstanceId(), health.getCheckedAt(), health.getStatus()));
+    }
+
+    public synchronized void onSample(String instanceId, long timestamp, Map<String, Long> sample) {
+        evaluate(instanceId, rule -> rule.getType() != AlertRuleType.TRANSITIONS, evaluation -> evaluation.onSample(timestamp, sample), timestamp);
+    }
+
+    public synchronized void onTransition(String instanceId, long timestamp, String status) {
+        evaluate(instanceId, rule -> rule.getType() == AlertRuleType.TRANSITIONS, evaluation -> evaluation.onTransition(timestamp, status), timestamp);
+    }
+
+    @Scheduled(fixedDelayString = "${alerts.sweep.millis:30000}")
+    public synchronized void sweep() {
+        long now = System.currentTimeMillis();
+        Ecosystem ecosystem = indexRules();
+        for (Iterator<RuleEvaluation> iterator = evaluations.values().iterator(); iterator.hasNext(); ) {
+            RuleEvaluation evaluation = iterator.next();
+            Optional<Instance> instance = ecosystem.findInstance(evaluation.getInstanceId());
+            if (!instance.isPresent() || !appliesTo(evaluation.getRule(), instance.get())) {
+                if (evaluation.getFiring() != null) {
+                    resolve(evaluation, now);
+                }
+                iterator.remove();
+            } else if (evaluation.getRule().getType() == AlertRuleType.TRANSITIONS) {
+                apply(evaluation, instance.get(), evaluation.expire(now), now);
+            }
+        }
+    }
+
+    public synchronized List<Alert> getActiveAlerts() {
+        return evaluations.values().stream().map(RuleEvaluation::getFiring).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    public synchronized List<Alert> getAlertLog() {
+        return new ArrayList<>(alertLog);
+    }
+
+    private void evaluate(String instanceId, Predicate<AlertRule> kind, Predicate<RuleEvaluation> condition, long timestamp) {
+        Ecosystem ecosystem = indexRules();
+        Optional<Instance> instance = ecosystem.findInstance(instanceId);
+        if (!instance.isPresent() || instance.get().getMicroserviceId() == null) {
+            return;
+        }
+        for (AlertRule rule : rulesByMicroservice.getOrDefault(instance.get().getMicroserviceId(), Collections.emptyList())) {
+            if (kind.test(rule)) {
+                RuleEvaluation evaluation = evaluations.computeIfAbsent(rule.getId() + "/" + instanceId, key -> new RuleEvaluation(rule, instanceId));
+                apply(evaluation, instance.get(), condition.test(evaluation), timestamp);
+            }
+        }
+    }
+
+    private void apply(RuleEvaluation evaluation, Instance instance, boolean active, long timestamp) {
+        if (active && evaluation.getFiring() == null) {
+            AlertRule rule = evaluation.getRule();
+            Alert alert = new Alert(UUID.randomUUID().toString(), rule.getId(), rule.getName(), instance.getId(), instance.getName(),
+                    AlertState.FIRING.getCode(), evaluation.getValue(), describe(rule, evaluation.getValue()), timestamp, 0);
+            evaluation.setFiring(alert);
+            log.warn("Alert [{}] firing for instance [{}]: {}", rule.getName(), instance.getId(), alert.getMessage());
+            record(alert);
+        } else if (!active && evaluation.getFiring() != null) {
+            resolve(evaluation, timestamp);
+        }
+    }
+
+    private void resolve(RuleEvaluation evaluation, long timestamp) {
+        Alert firing = evaluation.getFiring();
+        Alert resolved = new Alert(firing.getId(), firing.getRuleId(), firing.getRuleName(), firing.getInstanceId(), firing.getInstanceName(),
+                AlertState.RESOLVED.getCode(), evaluation.getValue(), firing.getMessage(), firing.getFiredAt(), timestamp);
+        evaluation.setFiring(null);
+        log.info("Alert [{}] resolved for instance [{}]", firing.getRuleName(), firing.getInstanceId());
+        record(resolved);
+    }
+
+    private void record(Alert alert) {
+        alertLog.add(alert);
+        updateBroadcaster.publish(UpdateBroadcaster.ALERTS_TOPIC, alert);
+        try {
+            Files.write(new File(fileManager.getSettingsFolder(), logFileName).toPath(), (new Gson().toJson(alert) + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.error("Writing alert log failed [{}]", e.getMessage());
+        }
+    }
+
+    private Ecosystem indexRules() {
+        Ecosystem ecosystem = fileManager.getEcosystem();
+        if (ecosystem == indexedEcosystem) {
+            return ecosystem;
+        }
+        Map<String, List<AlertRule>> rules = new HashMap<>();
+        for (AlertRule rule : ecosystem.getAlertRules()) {
+            targets(ecosystem, rule).forEach(microserviceId -> rules.computeIfAbsent(microserviceId, id -> new ArrayList<>()).add(rule));
+        }
+        rulesByMicroservice = rules;
+        indexedEcosystem = ecosystem;
+        return ecosystem;
+    }
+
+    private boolean appliesTo(AlertRule rule, Instance instance) {
+        return rulesByMicroservice.getOrDefault(instance.getMicroserviceId(), Collections.emptyList()).contains(rule);
+    }
+
+    private static List<String> targets(Ecosystem ecosystem, AlertRule rule) {
+        if (rule.getScope() == AlertScope.GROUP) {
+            return ecosystem.findMicroservicesGroup(rule.getTargetId()).map(MicroservicesGroup::getMicroservicesIds).orElse(Collections.emptyList());
+        }
+        return Collections.singletonList(rule.getTargetId());
+    }
+
+    private static String describe(AlertRule rule, double value) {
+        switch (rule.getType()) {
+            case RATE:
+                return String.format("%s grows %.1f per minute, above %.1f for %ds", rule.getMetric(), value, rule.getThreshold(), rule.getDurationSeconds());
+            case TRANSITIONS:
+                return String.format("went %s %d times in %ds", rule.getStatus(), (long) value, rule.getWindowSeconds());
+            default:
+                String unit = rule.getRatioOf() == null || rule.getRatioOf().isEmpty() ? "" : "% of " + rule.getRatioOf();
+                return String.format("%s is %.1f%s, above %.1f for %ds", rule.getMetric(), value, unit, rule.getThreshold(), rule.getDurationSeconds());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package org.ernest.applications.trampoline.services;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.ernest.applications.trampoline.entities.BuildCacheStats;
+import org.ernest.applications.trampoline.entities.MicroService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Jars built by the launch script, stored under the settings folder and keyed by the state of the sources that
+ * produced them: the git HEAD plus the content of every dirty file when the project is a git checkout, or the
+ * content of the whole source tree otherwise, always together with the build file. Entries are evicted least
+ * recently used first once the cache grows past its size limit.
+ */
+class BuildCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BuildCache.class);
+
+    private static final String JAR_EXTENSION = ".jar";
+
+    private static final Set<String> IGNORED_FOLDERS = new HashSet<>(Arrays.asList(".git", ".idea", "target"));
+
+    private static final Path RUN_DIR = Paths.get("run", "trampoline");
+
+    private final File folder;
+
+    private final long maxSizeBytes;
+
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long sizeBytes;
+
+    private long hits;
+
+    private long misses;
+
+    private long stores;
+
+    private long evictions;
+
+    BuildCache(File folder, long maxSizeBytes) {
+        this.folder = folder;
+        this.maxSizeBytes = maxSizeBytes;
+        folder.mkdirs();
+        File[] jars = folder.listFiles((dir, name) -> name.endsWith(JAR_EXTENSION));
+        if (jars != null) {
+            Arrays.sort(jars, Comparator.comparingLong(File::lastModified));
+            for (File jar : jars) {
+                entries.put(jar.getName().substring(0, jar.getName().length() - JAR_EXTENSION.length()), jar.length());
+                sizeBytes += jar.length();
+            }
+        }
+    }
+
+    String key(MicroService microservice, String buildFile) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, microservice.getId());
+        update(digest, microservice.getName());
+        File sources = new File(microservice.getPomLocation());
+        hashFile(digest, new File(sources, buildFile));
+        if (!hashGitState(digest, microservice, sources)) {
+            hashSourceTree(digest, sources.toPath());
+        }
+        return toHex(digest.digest());
+    }
+
+    synchronized boolean restore(String key, File jar) throws IOException {
+        if (entries.get(key) == null) {
+            misses++;
+            return false;
+        }
+        File cached = new File(folder, key + JAR_EXTENSION);
+        jar.getParentFile().mkdirs();
+        Files.copy(cached.toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        cached.setLastModified(System.currentTimeMillis());
+        hits++;
+        return true;
+    }
+
+    synchronized void store(String key, File jar) throws IOException {
+        if (!jar.exists()) {
+            log.warn("Build did not produce [{}], nothing to cache", jar.getAbsolutePath());
+            return;
+        }
+        Path temporary = new File(folder, key + JAR_EXTENSION + ".tmp").toPath();
+        Files.copy(jar.toPath(), temporary, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(temporary, new File(folder, key + JAR_EXTENSION).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Long previous = entries.put(key, jar.length());
+        sizeBytes += jar.length() - (previous != null ? previous : 0);
+        stores++;
+        evict();
+    }
+
+    synchronized BuildCacheStats getStats() {
+        return new BuildCacheStats(hits, misses, stores, evictions, entries.size(), sizeBytes, maxSizeBytes);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (sizeBytes > maxSizeBytes && entries.size() > 1 && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            new File(folder, entry.getKey() + JAR_EXTENSION).delete();
+            sizeBytes -= entry.getValue();
+            evictions++;
+            eldest.remove();
+            log.info("Evicted build [{}] from the build cache", entry.getKey());
+        }
+    }
+
+    private boolean hashGitState(MessageDigest digest, MicroService microservice, File sources) throws IOException {
+        File gitLocation = microservice.getGitLocation() != null ? new File(microservice.getGitLocation()) : sources;
+        FileRepositoryBuilder builder = new FileRepositoryBuilder().findGitDir(gitLocation);
+        if (builder.getGitDir() == null) {
+            return false;
+        }
+        try (Repository repository = builder.build(); Git git = new Git(repository)) {
+            ObjectId head = repository.resolve("HEAD");
+            if (head == null) {
+                return false;
+            }
+            update(digest, head.getName());
+            Status status = git.status().call();
+            Set<String> dirty = new TreeSet<>();
+            dirty.addAll(status.getAdded());
+            dirty.addAll(status.getChanged());
+            dirty.addAll(status.getModified());
+            dirty.addAll(status.getUntracked());
+            dirty.addAll(status.getMissing());
+            dirty.addAll(status.getRemoved());
+            File workTree = repository.getWorkTree();
+            for (String path : dirty) {
+                if (!isIgnored(Paths.get(path))) {
+                    update(digest, path);
+                    hashFile(digest, new File(workTree, path));
+                }
+            }
+            return true;
+        } catch (GitAPIException e) {
+            log.warn("Not possible to read git status of [{}], hashing the source tree", gitLocation.getAbsolutePath());
+            return false;
+        }
+    }
+
+    private void hashSourceTree(MessageDigest digest, Path sources) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(sources)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(path -> !isIgnored(sources.relativize(path)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            update(digest, sources.relativize(file).toString());
+            hashFile(digest, file.toFile());
+        }
+    }
+
+    private boolean isIgnored(Path relative) {
+        for (int index = 0; index < relative.getNameCount(); index++) {
+            if (IGNORED_FOLDERS.contains(relative.getName(index).toString()) || relative.subpath(index, relative.getNameCount()).startsWith(RUN_DIR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void hashFile(MessageDigest digest, File file) throws IOException {
+        if (!file.isFile()) {
+            update(digest, "<missing>");
+            return;
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    private void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte value : bytes) {
+            hex.append(String.format("%02x", value));
+        }
+        return hex.toString();
+    }
+}
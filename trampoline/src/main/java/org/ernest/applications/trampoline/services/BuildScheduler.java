@@ -0,0 +1,226 @@
+package org.ernest.applications.trampoline.services;
+
+import org.apache.commons.collections4.queue.CircularFifoQueue;
+import org.ernest.applications.trampoline.entities.BuildExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import oshi.SystemInfo;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs builds of different microservices concurrently, but never more at once than the host can take: the limit
+ * defaults to the number of cores, lowered when the available memory cannot hold that many builds. Builds beyond
+ * the limit wait in FIFO order; every build records its queue wait and wall time. Builds are started through
+ * {@link #command} so they run at a lower OS priority than the instances already serving requests. Work on one
+ * project directory goes through {@link #forProject}, so a checkout is never pulled or built twice at the same time.
+ */
+@Component
+public class BuildScheduler {
+
+    private final Logger log = LoggerFactory.getLogger(BuildScheduler.class);
+
+    private final Deque<PendingBuild> queue = new ArrayDeque<>();
+
+    private final List<BuildExecution> active = new ArrayList<>();
+
+    private final Queue<BuildExecution> history = new CircularFifoQueue<>(50);
+
+    private final Map<String, ProjectWork> projects = new HashMap<>();
+
+    @Value("${build.scheduler.max.concurrent:0}")
+    private int maxConcurrent;
+
+    @Value("${build.scheduler.memory.per.build.mb:1024}")
+    private long memoryPerBuildMb;
+
+    @Value("${build.scheduler.nice:10}")
+    private int niceness;
+
+    private int limit;
+
+    private int running;
+
+    private ScheduledExecutorService timer;
+
+    @PostConstruct
+    public void start() {
+        limit = maxConcurrent > 0 ? maxConcurrent : computeLimit();
+        log.info("Running at most [{}] builds concurrently", limit);
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "build-scheduler-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+    }
+
+    public CompletableFuture<Integer> schedule(String instanceId, String name, Supplier<CompletableFuture<Integer>> build) {
+        BuildExecution execution = new BuildExecution();
+        execution.setInstanceId(instanceId);
+        execution.setName(name);
+        execution.setQueuedAt(System.currentTimeMillis());
+        PendingBuild pending = new PendingBuild(execution, build);
+        synchronized (this) {
+            if (running < limit) {
+                running++;
+            } else {
+                log.info("Build of [{}] queued behind [{}] running builds", name, running);
+                queue.add(pending);
+                return pending.result;
+            }
+        }
+        run(pending);
+        return pending.result;
+    }
+
+    /**
+     * Runs the work for a project directory once nothing else runs on it. A request for the microservice whose work
+     * is already in flight joins that work instead of repeating it; another microservice sharing the directory waits
+     * for it to finish, whatever its outcome.
+     */
+    public CompletableFuture<Integer> forProject(String project, String microserviceId, Supplier<CompletableFuture<Integer>> work) {
+        ProjectWork next;
+        CompletableFuture<Integer> previous;
+        synchronized (projects) {
+            ProjectWork current = projects.get(project);
+            if (current != null && current.microserviceId.equals(microserviceId)) {
+                log.info("Joining the pull and build already in flight for [{}]", project);
+                return current.result;
+            }
+            previous = current != null ? current.result : CompletableFuture.completedFuture(0);
+            next = new ProjectWork(microserviceId);
+            projects.put(project, next);
+        }
+        previous.handle((code, error) -> null)
+                .thenCompose(ready -> work.get())
+                .whenComplete((code, error) -> {
+                    synchronized (projects) {
+                        projects.remove(project, next);
+                    }
+                    if (error != null) {
+                        next.result.completeExceptionally(error);
+                    } else {
+                        next.result.complete(code);
+                    }
+                });
+        return next.result;
+    }
+
+    public CompletableFuture<Void> delay(int seconds) {
+        CompletableFuture<Void> delayed = new CompletableFuture<>();
+        if (seconds <= 0) {
+            delayed.complete(null);
+        } else {
+            timer.schedule(() -> delayed.complete(null), seconds, TimeUnit.SECONDS);
+        }
+        return delayed;
+    }
+
+    public List<String> command(String... command) {
+        List<String> niced = new ArrayList<>();
+        if (niceness > 0 && !System.getProperties().getProperty("os.name").contains("Windows")) {
+            niced.addAll(Arrays.asList("nice", "-n", String.valueOf(niceness)));
+        }
+        niced.addAll(Arrays.asList(command));
+        return niced;
+    }
+
+    public synchronized List<BuildExecution> getBuilds() {
+        List<BuildExecution> builds = new ArrayList<>(history);
+        builds.addAll(active);
+        queue.forEach(pending -> builds.add(pending.execution));
+        return builds;
+    }
+
+    private void run(PendingBuild pending) {
+        BuildExecution execution = pending.execution;
+        synchronized (this) {
+            execution.setStartedAt(System.currentTimeMillis());
+            active.add(execution);
+        }
+        CompletableFuture<Integer> build;
+        try {
+            build = pending.build.get();
+        } catch (RuntimeException e) {
+            build = new CompletableFuture<>();
+            build.completeExceptionally(e);
+        }
+        build.whenComplete((code, error) -> {
+            finished(execution, error == null ? code : -1);
+            if (error != null) {
+                pending.result.completeExceptionally(error);
+            } else {
+                pending.result.complete(code);
+            }
+        });
+    }
+
+    private void finished(BuildExecution execution, int code) {
+        PendingBuild next;
+        synchronized (this) {
+            execution.setFinishedAt(System.currentTimeMillis());
+            execution.setExitCode(code);
+            active.remove(execution);
+            history.add(execution);
+            next = queue.poll();
+            if (next == null) {
+                running--;
+            }
+        }
+        log.info("Build of [{}] finished with code [{}] after [{}] ms, queued [{}] ms",
+                execution.getName(), code, execution.getWallMillis(), execution.getQueueWaitMillis());
+        if (next != null) {
+            run(next);
+        }
+    }
+
+    private int computeLimit() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        try {
+            long availableMb = new SystemInfo().getHardware().getMemory().getAvailable() / (1024 * 1024);
+            return (int) Math.max(1, Math.min(cores, availableMb / Math.max(1, memoryPerBuildMb)));
+        } catch (RuntimeException | LinkageError e) {
+            log.warn("Not possible to read the available memory, limiting builds to the number of cores");
+            return cores;
+        }
+    }
+
+    private static class ProjectWork {
+
+        private final String microserviceId;
+
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        private ProjectWork(String microserviceId) {
+            this.microserviceId = microserviceId;
+        }
+    }
+
+    private static class PendingBuild {
+
+        private final BuildExecution execution;
+
+        private final Supplier<CompletableFuture<Integer>> build;
+
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        private PendingBuild(BuildExecution execution, Supplier<CompletableFuture<Integer>> build) {
+            this.execution = execution;
+            this.build = build;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.ernest.applications.trampoline.services;
+
+import com.google.gson.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Append-only log of Ecosystem changes kept next to the settings snapshot.
+ *
+ * Each line is one JSON record: {@code PUT}/{@code REMOVE} of an element (by id) of one of the Ecosystem lists, or
+ * {@code SET} of any other top level property. Records are numbered and the snapshot stores the last sequence it
+ * contains, so replaying after a crash between a compaction and the journal truncation is harmless. Only a torn
+ * last line, one without its newline, is discarded on replay; a corrupt record before it fails the load and the
+ * journal is left untouched, since the records after it were already acknowledged.
+ */
+class EcosystemJournal {
+
+    static final String SEQUENCE_PROPERTY = "journalSequence";
+
+    private static final Logger log = LoggerFactory.getLogger(EcosystemJournal.class);
+
+    private static final String PUT = "PUT";
+    private static final String REMOVE = "REMOVE";
+    private static final String SET = "SET";
+
+    private final File journalFile;
+
+    private long lastSequence;
+
+    private int recordsSinceSnapshot;
+
+    EcosystemJournal(File journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    int getRecordsSinceSnapshot() {
+        return recordsSinceSnapshot;
+    }
+
+    boolean isEmpty() {
+        return journalFile.length() == 0;
+    }
+
+    void resume(long snapshotSequence) {
+        lastSequence = Math.max(lastSequence, snapshotSequence);
+        recordsSinceSnapshot = 0;
+    }
+
+    int replay(JsonObject snapshot) throws IOException {
+        long snapshotSequence = snapshot.has(SEQUENCE_PROPERTY) ? snapshot.get(SEQUENCE_PROPERTY).getAsLong() : 0L;
+        lastSequence = Math.max(lastSequence, snapshotSequence);
+        recordsSinceSnapshot = 0;
+        if (!journalFile.exists()) {
+            return 0;
+        }
+
+        byte[] content = Files.readAllBytes(journalFile.toPath());
+        int replayed = 0;
+        int lineStart = 0;
+        for (int index = 0; index < content.length; index++) {
+            if (content[index] != '\n') {
+                continue;
+            }
+            JsonObject record = parseRecord(new String(content, lineStart, index - lineStart, StandardCharsets.UTF_8));
+            if (record == null) {
+                log.error("Corrupted journal record at byte [{}] of [{}]", lineStart, journalFile.getAbsolutePath());
+                throw new IOException("Corrupted journal record at byte " + lineStart + " of " + journalFile.getAbsolutePath());
+            }
+            long sequence = record.get("seq").getAsLong();
+            if (sequence > snapshotSequence) {
+                apply(snapshot, record);
+                replayed++;
+            }
+            lastSequence = Math.max(lastSequence, sequence);
+            lineStart = index + 1;
+        }
+
+        if (lineStart < content.length) {
+            log.warn("Discarding [{}] bytes of a torn journal record", content.length - lineStart);
+            try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(lineStart);
+                channel.force(true);
+            }
+        }
+        recordsSinceSnapshot = replayed;
+        return replayed;
+    }
+
+    int append(JsonObject previous, JsonObject next) throws IOException {
+        List<JsonObject> records = diff(previous, next);
+        if (records.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder lines = new StringBuilder();
+        long sequence = lastSequence;
+        for (JsonObject record : records) {
+            record.addProperty("seq", ++sequence);
+            lines.append(record.toString()).append('\n');
+        }
+
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        lastSequence = sequence;
+        recordsSinceSnapshot += records.size();
+        return records.size();
+    }
+
+    void truncate() throws IOException {
+        if (journalFile.exists()) {
+            try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(0);
+                channel.force(true);
+            }
+        }
+        recordsSinceSnapshot = 0;
+    }
+
+    static List<JsonObject> diff(JsonObject previous, JsonObject next) {
+        List<JsonObject> records = new ArrayList<>();
+        Set<String> properties = new LinkedHashSet<>(previous.keySet());
+        properties.addAll(next.keySet());
+        properties.remove(SEQUENCE_PROPERTY);
+
+        for (String property : properties) {
+            JsonElement before = previous.get(property);
+            JsonElement after = next.get(property);
+            if (Objects.equals(before, after)) {
+                continue;
+            }
+            if (!isIdentifiedArray(before) || !isIdentifiedArray(after) || !diffArray(property, before.getAsJsonArray(), after.getAsJsonArray(), records)) {
+                records.add(record(SET, property, null, after));
+            }
+        }
+        return records;
+    }
+
+    private static boolean diffArray(String property, JsonArray before, JsonArray after, List<JsonObject> records) {
+        Map<String, JsonObject> beforeById = byId(before);
+        Map<String, JsonObject> afterById = byId(after);
+        if (beforeById.size() != before.size() || afterById.size() != after.size()) {
+            return false;
+        }
+
+        List<String> kept = new ArrayList<>(beforeById.keySet());
+        kept.retainAll(afterById.keySet());
+        List<String> afterIds = new ArrayList<>(afterById.keySet());
+        if (!afterIds.subList(0, kept.size()).equals(kept)) {
+            return false;
+        }
+
+        List<JsonObject> arrayRecords = new ArrayList<>();
+        beforeById.keySet().stream().filter(id -> !afterById.containsKey(id))
+                .forEach(id -> arrayRecords.add(record(REMOVE, property, id, null)));
+        afterById.forEach((id, element) -> {
+            if (!element.equals(beforeById.get(id))) {
+                arrayRecords.add(record(PUT, property, id, element));
+            }
+        });
+        records.addAll(arrayRecords);
+        return true;
+    }
+
+    private static JsonObject parseRecord(String line) {
+        try {
+            JsonObject record = new JsonParser().parse(line).getAsJsonObject();
+            if (!isPrimitive(record, "seq") || !record.getAsJsonPrimitive("seq").isNumber() || !isPrimitive(record, "op") || !isPrimitive(record, "path")) {
+                return null;
+            }
+            String op = record.get("op").getAsString();
+            if (SET.equals(op) || ((PUT.equals(op) || REMOVE.equals(op)) && isPrimitive(record, "id"))) {
+                return record;
+            }
+            return null;
+        } catch (JsonParseException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static boolean isPrimitive(JsonObject record, String property) {
+        return record.has(property) && record.get(property).isJsonPrimitive();
+    }
+
+    private static void apply(JsonObject snapshot, JsonObject record) {
+        String op = record.get("op").getAsString();
+        String property = record.get("path").getAsString();
+        JsonElement value = record.get("value");
+
+        if (SET.equals(op)) {
+            if (value == null || value.isJsonNull()) {
+                snapshot.remove(property);
+            } else {
+                snapshot.add(property, value);
+            }
+            return;
+        }
+
+        if (!snapshot.has(property) || !snapshot.get(property).isJsonArray()) {
+            snapshot.add(property, new JsonArray());
+        }
+        JsonArray array = snapshot.getAsJsonArray(property);
+        String id = record.get("id").getAsString();
+        int index = indexOf(array, id);
+        if (PUT.equals(op)) {
+            if (index >= 0) {
+                array.set(index, value);
+            } else {
+                array.add(value);
+            }
+        } else if (REMOVE.equals(op) && index >= 0) {
+            array.remove(index);
+        }
+    }
+
+    private static JsonObject record(String op, String property, String id, JsonElement value) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", op);
+        record.addProperty("path", property);
+        if (id != null) {
+            record.addProperty("id", id);
+        }
+        if (value != null) {
+            record.add("value", value);
+        }
+        return record;
+    }
+
+    private static boolean isIdentifiedArray(JsonElement element) {
+        if (element == null || !element.isJsonArray()) {
+            return false;
+        }
+        for (JsonElement item : element.getAsJsonArray()) {
+            if (!item.isJsonObject() || !item.getAsJsonObject().has("id") || !item.getAsJsonObject().get("id").isJsonPrimitive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, JsonObject> byId(JsonArray array) {
+        Map<String, JsonObject> map = new LinkedHashMap<>();
+        array.forEach(item -> map.put(item.getAsJsonObject().get("id").getAsString(), item.getAsJsonObject()));
+        return map;
+    }
+
+    private static int indexOf(JsonArray array, String id) {
+        for (int index = 0; index < array.size(); index++) {
+            JsonElement item = array.get(index);
+            if (item.isJsonObject() && item.getAsJsonObject().has("id") && id.equals(item.getAsJsonObject().get("id").getAsString())) {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
@@ -4,19 +4,24 @@ import org.ernest.applications.trampoline.collectors.TraceCollector;
 import org.ernest.applications.trampoline.entities.*;
 import org.ernest.applications.trampoline.entities.GitCredentials.SshSettings;
 import org.ernest.applications.trampoline.exceptions.*;
+import org.ernest.applications.trampoline.model.CreateAlertRule;
 import org.ernest.applications.trampoline.model.CreateMicroService;
 import org.ernest.applications.trampoline.model.UpdateMicroService;
 import org.ernest.applications.trampoline.utils.PortsChecker;
-import org.jboss.resteasy.client.ClientRequest;
+import org.ernest.applications.trampoline.utils.ScriptContentsProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Component
@@ -26,9 +31,40 @@ public class EcosystemManager {
 
     private final FileManager fileManager;
 
+    private final ProcessSupervisor processSupervisor;
+
+    private final HealthChecker healthChecker;
+
+    @Value("${groups.start.ready.poll.millis:1000}")
+    private long readyPollMillis;
+
+    @Value("${groups.start.ready.timeout.seconds:300}")
+    private long readyTimeoutSeconds;
+
+    private ScheduledExecutorService readinessScheduler;
+
+    private GroupLauncher groupLauncher;
+
     @Autowired
-    public EcosystemManager(FileManager fileManager) {
+    public EcosystemManager(FileManager fileManager, ProcessSupervisor processSupervisor, HealthChecker healthChecker) {
         this.fileManager = fileManager;
+        this.processSupervisor = processSupervisor;
+        this.healthChecker = healthChecker;
+    }
+
+    @PostConstruct
+    public void startGroupLauncher() {
+        readinessScheduler = Executors.newScheduledThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "group-readiness");
+            thread.setDaemon(true);
+            return thread;
+        });
+        groupLauncher = new GroupLauncher(healthChecker::isReady, readinessScheduler, readyPollMillis, TimeUnit.SECONDS.toMillis(readyTimeoutSeconds));
+    }
+
+    @PreDestroy
+    public void stopGroupLauncher() {
+        readinessScheduler.shutdownNow();
     }
 
     public Ecosystem getEcosystem() throws CreatingSettingsFolderException, ReadingEcosystemException {
@@ -37,21 +73,15 @@ public class EcosystemManager {
 
     public void setMavenBinaryLocation(String path) throws CreatingSettingsFolderException, ReadingEcosystemException, SavingEcosystemException {
         log.info("Saving Maven Binary Location path [{}]", path);
-        Ecosystem ecosystem = fileManager.getEcosystem();
-        ecosystem.setMavenBinaryLocation(path);
-        fileManager.saveEcosystem(ecosystem);
+        update(ecosystem -> ecosystem.setMavenBinaryLocation(path));
     }
 
     public void setMavenHomeLocation(String path) throws CreatingSettingsFolderException, ReadingEcosystemException, SavingEcosystemException {
         log.info("Saving Maven Home Location path [{}]", path);
-        Ecosystem ecosystem = fileManager.getEcosystem();
-        ecosystem.setMavenHomeLocation(path);
-        fileManager.saveEcosystem(ecosystem);
+        update(ecosystem -> ecosystem.setMavenHomeLocation(path));
     }
 
     public void setNewMicroService(CreateMicroService create) throws CreatingSettingsFolderException, ReadingEcosystemException, CreatingMicroserviceScriptException, SavingEcosystemException {
-        Ecosystem ecosystem = fileManager.getEcosystem();
-
         log.info("Creating new micro-service name: [{}]", create.getName());
         MicroService microservice = new MicroService();
         microservice.setId(UUID.randomUUID().toString());
@@ -59,135 +89,196 @@ public class EcosystemManager {
         fileManager.createScript(microservice);
 
         log.info("Saving micro-service: [{}]", microservice.toString());
-        ecosystem.getMicroservices().add(microservice);
-        fileManager.saveEcosystem(ecosystem);
+        update(ecosystem -> ecosystem.getMicroservices().add(microservice));
     }
 
     public void removeMicroservice(String idToBeDeleted) throws CreatingSettingsFolderException, ReadingEcosystemException, SavingEcosystemException {
         log.info("Removing microservice id: [{}]", idToBeDeleted);
-        Ecosystem ecosystem = fileManager.getEcosystem();
-        ecosystem.setMicroservices(ecosystem.getMicroservices().stream().filter(m -> !m.getId().equals(idToBeDeleted)).collect(Collectors.toList()));
-        ecosystem.getMicroservicesGroups().forEach(g -> g.setMicroservicesIds(g.getMicroservicesIds().stream().filter(id -> !id.equals(idToBeDeleted)).collect(Collectors.toList())));
-        fileManager.saveEcosystem(ecosystem);
+        update(ecosystem -> {
+            ecosystem.getMicroservices().removeIf(m -> m.getId().equals(idToBeDeleted));
+            ecosystem.getMicroservicesGroups().forEach(g -> g.setMicroservicesIds(g.getMicroservicesIds().stream().filter(id -> !id.equals(idToBeDeleted)).collect(Collectors.toList())));
+            ecosystem.getAlertRules().removeIf(r -> r.getScope() == AlertScope.MICROSERVICE && idToBeDeleted.equals(r.getTargetId()));
+        });
     }
 
-    public void setMicroserviceGroup(String name, List<String> idsMicroservicesGroup, List<Integer> delaysMicroservicesGroup) {
+    public void setMicroserviceGroup(String name, List<String> idsMicroservicesGroup, List<Integer> delaysMicroservicesGroup, Map<String, List<String>> dependenciesMicroservicesGroup) {
         log.info("Creating group name: [{}] with microservices [{}]", name, idsMicroservicesGroup.stream().collect(Collectors.joining(",")));
         MicroservicesGroup microservicesGroup = new MicroservicesGroup();
         microservicesGroup.setId(UUID.randomUUID().toString());
         microservicesGroup.setName(name);
         microservicesGroup.setMicroservicesIds(idsMicroservicesGroup);
         microservicesGroup.setMicroservicesDelays(delaysMicroservicesGroup);
+        microservicesGroup.setMicroservicesDependencies(dependenciesMicroservicesGroup);
+        GroupLauncher.topologicalOrder(idsMicroservicesGroup, dependenciesMicroservicesGroup);
 
-        Ecosystem ecosystem = fileManager.getEcosystem();
-        ecosystem.getMicroservicesGroups().add(microservicesGroup);
-        fileManager.saveEcosystem(ecosystem);
+        update(ecosystem -> ecosystem.getMicroservicesGroups().add(microservicesGroup));
     }
 
     public void removeGroup(String id) {
         log.info("Removing group id: [{}]", id);
-        Ecosystem ecosystem = fileManager.getEcosystem();
-        ecosystem.setMicroservicesGroups(ecosystem.getMicroservicesGroups().stream().filter(g -> !g.getId().equals(id)).collect(Collectors.toList()));
-        fileManager.saveEcosystem(ecosystem);
+        update(ecosystem -> {
+            ecosystem.getMicroservicesGroups().removeIf(g -> g.getId().equals(id));
+            ecosystem.getAlertRules().removeIf(r -> r.getScope() == AlertScope.GROUP && id.equals(r.getTargetId()));
+        });
+    }
+
+    public void setNewAlertRule(CreateAlertRule create) {
+        log.info("Creating alert rule name: [{}] for [{}] [{}]", create.getName(), create.getScope().getCode(), create.getTargetId());
+        AlertRule alertRule = new AlertRule();
+        alertRule.setId(UUID.randomUUID().toString());
+        BeanUtils.copyProperties(create, alertRule);
+
+        update(ecosystem -> ecosystem.getAlertRules().add(alertRule));
+    }
+
+    public void removeAlertRule(String id) {
+        log.info("Removing alert rule id: [{}]", id);
+        update(ecosystem -> ecosystem.getAlertRules().removeIf(r -> r.getId().equals(id)));
     }
 
     public void startInstance(String id, String port, String vmArguments, String appArguments, Integer startingDelay) throws CreatingSettingsFolderException, ReadingEcosystemException, RunningMicroserviceScriptException, SavingEcosystemException, InterruptedException {
+        await(launchInstance(id, port, vmArguments, appArguments, startingDelay, false));
+    }
+
+    /**
+     * Starts an instance and records it in the ecosystem. The returned future completes once the instance is recorded
+     * or, when {@code untilLaunched} is set, once its process has also been started after any pull and build.
+     */
+    private CompletableFuture<Instance> launchInstance(String id, String port, String vmArguments, String appArguments, Integer startingDelay, boolean untilLaunched) {
         Ecosystem ecosystem = fileManager.getEcosystem();
 
         log.info("Launching script to start instances id: [{}]", id);
-        MicroService microservice = ecosystem.getMicroservices().stream().filter(m -> m.getId().equals(id)).findAny()
+        MicroService microservice = ecosystem.findMicroservice(id)
                 .orElseThrow(() -> new IllegalArgumentException(String.format("Service with [%s] not found", id)));
-        Thread.sleep(startingDelay * 1000);
-        log.info("Starting instances id: [{}] port: [{}] vmArguments: [{}] startingDelay: [{}]", id, port, vmArguments, startingDelay);
-        fileManager.runScript(microservice, ecosystem.getMavenBinaryLocation(), ecosystem.getMavenHomeLocation(), port, vmArguments, appArguments);
-
         Instance instance = new Instance();
         instance.setId(UUID.randomUUID().toString());
+        log.info("Starting instances id: [{}] port: [{}] vmArguments: [{}] startingDelay: [{}]", id, port, vmArguments, startingDelay);
+        CompletableFuture<Void> launched = fileManager.runScript(instance.getId(), microservice, ecosystem.getMavenBinaryLocation(), ecosystem.getMavenHomeLocation(), port, vmArguments, appArguments, startingDelay);
+
         instance.setIp("127.0.0.1");
         instance.setPort(port);
         instance.setName(microservice.getName());
         instance.setPomLocation(microservice.getPomLocation());
         instance.setActuatorPrefix(microservice.getActuatorPrefix());
+        instance.setProbeType(microservice.getProbeType());
+        instance.setProbePath(microservice.getProbePath());
         instance.setVmArguments(vmArguments);
         instance.setMicroserviceId(id);
-        ecosystem.getInstances().add(instance);
-        fileManager.saveEcosystem(ecosystem);
+        CompletableFuture<Instance> recorded = fileManager.updateEcosystem(current -> current.getInstances().add(instance)).thenApply(updated -> instance);
+        return untilLaunched ? recorded.thenCombine(launched, (recordedInstance, started) -> recordedInstance) : recorded;
     }
 
     public void killInstance(String id, boolean clear) throws CreatingSettingsFolderException, ReadingEcosystemException, SavingEcosystemException, ShuttingDownInstanceException {
         log.info("Removing instance id: [{}]", id);
 
-        Ecosystem ecosystem = fileManager.getEcosystem();
-        Instance instance = ecosystem.getInstances().stream().filter(i -> i.getId().equals(id)).collect(Collectors.toList()).get(0);
+        Instance instance = fileManager.getEcosystem().findInstance(id).get();
         fileManager.stopScript(instance.getMicroserviceId());
-        if (clear)
-            ecosystem.removeInstance(id);
-        fileManager.saveEcosystem(ecosystem);
+        processSupervisor.stop(id);
+        if (clear) {
+            update(ecosystem -> ecosystem.removeInstance(id));
+            processSupervisor.forget(id);
+        }
     }
 
     public String getStatusInstance(String id) throws CreatingSettingsFolderException, ReadingEcosystemException {
-        log.info("Checking status instances id: [{}]", id);
-        Ecosystem ecosystem = fileManager.getEcosystem();
-        List<Instance> instances = ecosystem.getInstances().stream().filter(i -> i.getId().equals(id)).collect(Collectors.toList());
-        if (!instances.isEmpty() && isDeployed(instances.get(0))) {
-            return StatusInstance.DEPLOYED.getCode();
-        }
-        return StatusInstance.NOT_DEPLOYED.getCode();
+        return fileManager.getEcosystem().findInstance(id)
+                .map(healthChecker::getStatus)
+                .orElse(StatusInstance.NOT_DEPLOYED.getCode());
     }
 
-    private boolean isDeployed(Instance instance) {
-        try {
-            new ClientRequest(instance.buildActuatorUrl() + "/env").get(String.class);
-        } catch (Exception e) {
-            return false;
-        }
-        return true;
+    public InstancesHealth getStatusInstances(long since) {
+        return healthChecker.getChangesSince(since);
+    }
+
+    public List<InstanceHealth> getInstanceProbes() {
+        return healthChecker.getProbes();
+    }
+
+    public File getInstanceOutputFile(String id) {
+        Ecosystem ecosystem = fileManager.getEcosystem();
+        Instance instance = ecosystem.findInstance(id)
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Instance with [%s] not found", id)));
+        MicroService microservice = ecosystem.findMicroservice(instance.getMicroserviceId())
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Instance [%s] is not managed by Trampoline", id)));
+        return new File(ScriptContentsProvider.getOutputFile(microservice));
     }
 
     public void startGroup(String id) throws InterruptedException {
         log.info("Starting group id: [{}]", id);
         Ecosystem ecosystem = fileManager.getEcosystem();
-        MicroservicesGroup group = ecosystem.getMicroservicesGroups().stream().filter(g -> g.getId().equals(id)).findFirst().get();
+        MicroservicesGroup group = ecosystem.findMicroservicesGroup(id).get();
 
+        Set<Integer> reservedPorts = new HashSet<>();
+        if (hasDependencies(group)) {
+            startGroupByDependencies(group, ecosystem, reservedPorts);
+            return;
+        }
+        List<CompletableFuture<Instance>> launches = new ArrayList<>();
+        int startingDelay = 0;
         for (int index = 0; index < group.getMicroservicesIds().size(); index++) {
-            int microserviceIndex = index;
-            MicroService microservice = ecosystem.getMicroservices().stream().filter(m -> m.getId().equals(group.getMicroservicesIds().get(microserviceIndex))).findAny().get();
-            prepareMicroService(microservice, group.getMicroservicesDelays().get(microserviceIndex));
+            MicroService microservice = ecosystem.findMicroservice(group.getMicroservicesIds().get(index)).get();
+            startingDelay += group.getMicroservicesDelays().get(index);
+            launches.add(prepareMicroService(microservice, startingDelay, reservedPorts, false));
         }
+        await(CompletableFuture.allOf(launches.toArray(new CompletableFuture[0])));
     }
 
-    private void prepareMicroService(MicroService microservice, Integer startingDelay) throws InterruptedException {
-        int port = microservice.getDefaultPort();
-        boolean instanceStarted = false;
-        List<Instance> instances = fileManager.getEcosystem().getInstances();
-
-        while (!instanceStarted) {
-            final int portToBeLaunched = port;
-            if (PortsChecker.available(portToBeLaunched) && !instances.stream().anyMatch(i -> i.getPort().equals(String.valueOf(portToBeLaunched)))) {
-                startInstance(microservice.getId(), String.valueOf(port), microservice.getVmArguments(), microservice.getAppArguments(), startingDelay);
-                instanceStarted = true;
+    private boolean hasDependencies(MicroservicesGroup group) {
+        return group.getMicroservicesDependencies() != null
+                && group.getMicroservicesDependencies().values().stream().anyMatch(prerequisites -> prerequisites != null && !prerequisites.isEmpty());
+    }
+
+    private void startGroupByDependencies(MicroservicesGroup group, Ecosystem ecosystem, Set<Integer> reservedPorts) {
+        List<MicroService> members = group.getMicroservicesIds().stream()
+                .map(ecosystem::findMicroservice)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toList());
+        long started = System.currentTimeMillis();
+        groupLauncher.start(members, group.getMicroservicesDependencies(), microservice -> prepareMicroService(microservice, 0, reservedPorts, true)).whenComplete((result, error) -> {
+            if (error != null) {
+                log.error("Group [{}] did not start completely after [{}] ms", group.getName(), System.currentTimeMillis() - started);
             } else {
+                log.info("Group [{}] started in [{}] ms", group.getName(), System.currentTimeMillis() - started);
+            }
+        });
+    }
+
+    private CompletableFuture<Instance> prepareMicroService(MicroService microservice, Integer startingDelay, Set<Integer> reservedPorts, boolean untilLaunched) {
+        int port = microservice.getDefaultPort();
+        Ecosystem ecosystem = fileManager.getEcosystem();
+
+        synchronized (reservedPorts) {
+            while (reservedPorts.contains(port) || !PortsChecker.available(port) || !ecosystem.findInstancesByPort(String.valueOf(port)).isEmpty()) {
                 port++;
             }
+            reservedPorts.add(port);
         }
+        return launchInstance(microservice.getId(), String.valueOf(port), microservice.getVmArguments(), microservice.getAppArguments(), startingDelay, untilLaunched);
+    }
+
+    public BuildCacheStats getBuildCacheStats() {
+        return fileManager.getBuildCacheStats();
     }
 
     public void updateMicroService(String id, UpdateMicroService update) {
         log.info("Updating micro-service id: [{}]", id);
-        Ecosystem ecosystem = fileManager.getEcosystem();
 
-        MicroService microservice = ecosystem.getMicroservices().stream().filter(m -> m.getId().equals(id)).findAny().get();
-        BeanUtils.copyProperties(update, microservice);
-        fileManager.createScript(microservice);
+        Ecosystem saved = update(ecosystem -> {
+            MicroService microservice = ecosystem.findMicroservice(id).get();
+            BeanUtils.copyProperties(update, microservice);
+            log.info("Saving microservice: [{}]", microservice.toString());
+        });
 
-        log.info("Saving microservice: [{}]", microservice.toString());
-        fileManager.saveEcosystem(ecosystem);
+        MicroService microservice = new MicroService();
+        BeanUtils.copyProperties(saved.findMicroservice(id).get(), microservice);
+        fileManager.createScript(microservice);
     }
 
     public void restartInstance(String instanceId) throws InterruptedException {
         log.info("Restarting instance id: [{}]", instanceId);
         Ecosystem ecosystem = fileManager.getEcosystem();
-        Optional<Instance> opt = ecosystem.getInstances().stream().filter(i -> i.getId().equals(instanceId)).findFirst();
+        Optional<Instance> opt = ecosystem.findInstance(instanceId);
         if (!opt.isPresent()) {
             log.warn("Instance with [{}] not found", instanceId);
             return;
@@ -199,40 +290,36 @@ public class EcosystemManager {
 
     public void saveGitHttpsCred(String user, String pass) {
         log.info("Saving GIT HTTPS Credentials");
-        Ecosystem ecosystem = fileManager.getEcosystem();
-        GitCredentials gitCredentials = ecosystem.getGitCredentials();
-        if (gitCredentials.getHttpsSettings() != null) {
-            gitCredentials.getHttpsSettings().setUsername(user);
-            gitCredentials.getHttpsSettings().setPass(pass);
-        } else {
-            ecosystem.setGitCredentials(new GitCredentials(new GitCredentials.HttpsSettings(user, pass)));
-        }
-        fileManager.saveEcosystem(ecosystem);
+        update(ecosystem -> {
+            GitCredentials gitCredentials = ecosystem.getGitCredentials();
+            if (gitCredentials.getHttpsSettings() != null) {
+                gitCredentials.getHttpsSettings().setUsername(user);
+                gitCredentials.getHttpsSettings().setPass(pass);
+            } else {
+                ecosystem.setGitCredentials(new GitCredentials(new GitCredentials.HttpsSettings(user, pass)));
+            }
+        });
     }
 
     public void saveGitSshCred(String privateKeyLocation, String sshKeyPassword) {
         log.info("Saving GIT SSH Credentials");
-        Ecosystem ecosystem = fileManager.getEcosystem();
-        GitCredentials gitCredentials = ecosystem.getGitCredentials();
-        if (gitCredentials.getSshSettings() != null) {
-            gitCredentials.getSshSettings().setSshKeyLocation(privateKeyLocation);
-            gitCredentials.getSshSettings().setSshKeyPassword(sshKeyPassword);
-        } else {
-            ecosystem.setGitCredentials(new GitCredentials(new SshSettings(privateKeyLocation, sshKeyPassword)));
-        }
-        fileManager.saveEcosystem(ecosystem);
+        update(ecosystem -> {
+            GitCredentials gitCredentials = ecosystem.getGitCredentials();
+            if (gitCredentials.getSshSettings() != null) {
+                gitCredentials.getSshSettings().setSshKeyLocation(privateKeyLocation);
+                gitCredentials.getSshSettings().setSshKeyPassword(sshKeyPassword);
+            } else {
+                ecosystem.setGitCredentials(new GitCredentials(new SshSettings(privateKeyLocation, sshKeyPassword)));
+            }
+        });
     }
 
     public void cleanGitCred() {
         log.info("Cleaning GIT Credentials");
-        Ecosystem ecosystem = fileManager.getEcosystem();
-        ecosystem.setGitCredentials(new GitCredentials());
-        fileManager.saveEcosystem(ecosystem);
+        update(ecosystem -> ecosystem.setGitCredentials(new GitCredentials()));
     }
 
-    public void setNewExternalInstance(String name, String port, String actuatorPrefix, String ip) {
-        Ecosystem ecosystem = fileManager.getEcosystem();
-
+    public void setNewExternalInstance(String name, String port, String actuatorPrefix, String ip, ProbeType probeType, String probePath) {
         log.info("Creating new external instance: [{}]", name);
         ExternalInstance externalInstance = new ExternalInstance();
         externalInstance.setId(UUID.randomUUID().toString());
@@ -240,33 +327,49 @@ public class EcosystemManager {
         externalInstance.setIp(ip);
         externalInstance.setActuatorPrefix(actuatorPrefix);
         externalInstance.setPort(port);
+        externalInstance.setProbeType(probeType);
+        externalInstance.setProbePath(probePath);
 
         log.info("Saving external instance: [{}]", externalInstance.toString());
-        ecosystem.getExternalInstances().add(externalInstance);
-        fileManager.saveEcosystem(ecosystem);
+        update(ecosystem -> ecosystem.getExternalInstances().add(externalInstance));
     }
 
     public void removeExternalInstance(String idToBeDeleted) {
         log.info("Removing microservice id: [{}]", idToBeDeleted);
-        Ecosystem ecosystem = fileManager.getEcosystem();
-        ecosystem.setExternalInstances(ecosystem.getExternalInstances().stream().filter(i -> !i.getId().equals(idToBeDeleted)).collect(Collectors.toList()));
-        fileManager.saveEcosystem(ecosystem);
+        update(ecosystem -> ecosystem.getExternalInstances().removeIf(i -> i.getId().equals(idToBeDeleted)));
     }
 
     public void addExternalInstance(String id) {
         log.info("Adding external instance id: [{}]", id);
-        Ecosystem ecosystem = fileManager.getEcosystem();
 
-        ExternalInstance externalInstance = ecosystem.getExternalInstances().stream().filter(i -> i.getId().equals(id)).findAny().get();
+        update(ecosystem -> {
+            ExternalInstance externalInstance = ecosystem.findExternalInstance(id).get();
+
+            Instance instance = new Instance();
+            instance.setId(UUID.randomUUID().toString());
+            instance.setIp(externalInstance.getIp());
+            instance.setPort(externalInstance.getPort());
+            instance.setName(externalInstance.getName());
+            instance.setActuatorPrefix(externalInstance.getActuatorPrefix());
+            instance.setProbeType(externalInstance.getProbeType());
+            instance.setProbePath(externalInstance.getProbePath());
+            instance.setMicroserviceId(id);
+            ecosystem.getInstances().add(instance);
+        });
+    }
 
-        Instance instance = new Instance();
-        instance.setId(UUID.randomUUID().toString());
-        instance.setIp(externalInstance.getIp());
-        instance.setPort(externalInstance.getPort());
-        instance.setName(externalInstance.getName());
-        instance.setActuatorPrefix(externalInstance.getActuatorPrefix());
-        instance.setMicroserviceId(id);
-        ecosystem.getInstances().add(instance);
-        fileManager.saveEcosystem(ecosystem);
+    private Ecosystem update(Consumer<Ecosystem> mutation) {
+        return await(fileManager.updateEcosystem(mutation));
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
     }
 }
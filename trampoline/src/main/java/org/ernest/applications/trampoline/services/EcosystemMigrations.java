@@ -0,0 +1,115 @@
+package org.ernest.applications.trampoline.services;
+
+import org.ernest.applications.trampoline.entities.BuildTools;
+import org.ernest.applications.trampoline.entities.Ecosystem;
+import org.ernest.applications.trampoline.entities.MicroService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Ordered schema migrations of the settings file. Every migration upgrades the Ecosystem to its version and only
+ * the ones newer than the stored {@code schemaVersion} are run, so an up to date file costs a single comparison.
+ * Settings written before versioning existed have no {@code schemaVersion} and go through the whole chain.
+ */
+class EcosystemMigrations {
+
+    private static final Logger log = LoggerFactory.getLogger(EcosystemMigrations.class);
+
+    private final List<Migration> migrations = new ArrayList<>();
+
+    private final Consumer<MicroService> scriptCreator;
+
+    private final float currentVersion;
+
+    EcosystemMigrations(Consumer<MicroService> scriptCreator, float currentVersion) {
+        this.scriptCreator = scriptCreator;
+        this.currentVersion = currentVersion;
+
+        register(1, "basic information", this::createBasicInformation);
+        register(2, "build tool", this::createBuildTool);
+        register(3, "script version", this::createVersion);
+        register(4, "instances ip", this::createIp);
+        register(5, "group delays", this::createGroupDelays);
+        register(6, "instance output file", this::regenerateScripts);
+        register(7, "launch script steps", this::regenerateScripts);
+        register(8, "instance output kept per run", this::regenerateScripts);
+    }
+
+    int getLatestVersion() {
+        return migrations.get(migrations.size() - 1).version;
+    }
+
+    boolean migrate(Ecosystem ecosystem) {
+        boolean migrated = false;
+        for (Migration migration : migrations) {
+            if (migration.version > ecosystem.getSchemaVersion()) {
+                log.info("Migrating settings to version [{}]: {}", migration.version, migration.description);
+                migration.step.accept(ecosystem);
+                ecosystem.setSchemaVersion(migration.version);
+                migrated = true;
+            }
+        }
+        return migrated;
+    }
+
+    private void register(int version, String description, Consumer<Ecosystem> step) {
+        if (!migrations.isEmpty() && getLatestVersion() >= version) {
+            throw new IllegalStateException("Settings migrations must be registered in increasing version order");
+        }
+        migrations.add(new Migration(version, description, step));
+    }
+
+    private void createBasicInformation(Ecosystem ecosystem) {
+        ecosystem.getMicroservices().stream().filter(m -> m.getActuatorPrefix() == null || m.getVmArguments() == null).forEach(m -> {
+            m.setVmArguments("");
+            m.setActuatorPrefix("");
+            m.setBuildTool(BuildTools.MAVEN);
+            scriptCreator.accept(m);
+        });
+    }
+
+    private void createBuildTool(Ecosystem ecosystem) {
+        ecosystem.getMicroservices().stream().filter(m -> m.getBuildTool() == null).forEach(m -> m.setBuildTool(BuildTools.MAVEN));
+    }
+
+    private void createVersion(Ecosystem ecosystem) {
+        ecosystem.getMicroservices().stream().filter(m -> m.getVersion() == null).forEach(m -> {
+            m.setVersion(currentVersion);
+            scriptCreator.accept(m);
+        });
+    }
+
+    private void createIp(Ecosystem ecosystem) {
+        ecosystem.getInstances().stream().filter(i -> i.getIp() == null).forEach(i -> i.setIp("127.0.0.1"));
+    }
+
+    private void createGroupDelays(Ecosystem ecosystem) {
+        ecosystem.getMicroservicesGroups().stream().filter(g -> g.getMicroservicesDelays() == null)
+                .forEach(g -> g.setMicroservicesDelays(g.getMicroservicesIds().stream().map(id -> 0).collect(Collectors.toList())));
+    }
+
+    private void regenerateScripts(Ecosystem ecosystem) {
+        ecosystem.getMicroservices().stream().filter(m -> m.getBuildTool() != null).forEach(scriptCreator);
+    }
+
+    private static class Migration {
+
+        private final int version;
+
+        private final String description;
+
+        private final Consumer<Ecosystem> step;
+
+        private Migration(int version, String description, Consumer<Ecosystem> step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+}
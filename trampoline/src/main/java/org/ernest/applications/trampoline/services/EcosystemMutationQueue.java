@@ -0,0 +1,155 @@
+package org.ernest.applications.trampoline.services;
+
+import org.ernest.applications.trampoline.entities.Ecosystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Single writer for the Ecosystem. Mutations are applied in submission order on one thread, every burst queued
+ * while the previous write was in progress (or within the coalescing window) is committed with a single write,
+ * and each caller is notified through its future once the change is durable.
+ */
+class EcosystemMutationQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(EcosystemMutationQueue.class);
+
+    private final BlockingQueue<PendingMutation> pendingMutations = new LinkedBlockingQueue<>();
+
+    private final Supplier<Ecosystem> snapshotSupplier;
+
+    private final Consumer<Ecosystem> committer;
+
+    private final long coalesceMillis;
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    EcosystemMutationQueue(Supplier<Ecosystem> snapshotSupplier, Consumer<Ecosystem> committer, long coalesceMillis) {
+        this.snapshotSupplier = snapshotSupplier;
+        this.committer = committer;
+        this.coalesceMillis = coalesceMillis;
+        this.writer = new Thread(this::run, "ecosystem-writer");
+        this.writer.setDaemon(true);
+    }
+
+    void start() {
+        writer.start();
+    }
+
+    void stop() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    CompletableFuture<Ecosystem> submit(Consumer<Ecosystem> mutation) {
+        PendingMutation pendingMutation = new PendingMutation(mutation);
+        if (!running) {
+            pendingMutation.future.completeExceptionally(new IllegalStateException("Ecosystem writer is stopped"));
+        } else {
+            pendingMutations.add(pendingMutation);
+        }
+        return pendingMutation.future;
+    }
+
+    private void run() {
+        while (running || !pendingMutations.isEmpty()) {
+            try {
+                PendingMutation first = pendingMutations.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                if (coalesceMillis > 0 && running) {
+                    Thread.sleep(coalesceMillis);
+                }
+                List<PendingMutation> batch = new ArrayList<>();
+                batch.add(first);
+                pendingMutations.drainTo(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable e) {
+                log.error("Unexpected error in ecosystem writer", e);
+            }
+        }
+    }
+
+    private void commit(List<PendingMutation> batch) {
+        Ecosystem base;
+        try {
+            base = snapshotSupplier.get();
+        } catch (RuntimeException e) {
+            batch.forEach(m -> m.future.completeExceptionally(e));
+            return;
+        }
+
+        List<PendingMutation> applied = new ArrayList<>();
+        Ecosystem working = base.copy();
+        for (PendingMutation mutation : batch) {
+            try {
+                mutation.mutation.accept(working);
+                applied.add(mutation);
+            } catch (RuntimeException e) {
+                log.warn("Discarding ecosystem change that failed to apply", e);
+                mutation.future.completeExceptionally(e);
+                working = replay(base, applied);
+            }
+        }
+
+        if (applied.isEmpty()) {
+            return;
+        }
+
+        log.info("Committing [{}] ecosystem change(s)", applied.size());
+        try {
+            committer.accept(working);
+        } catch (RuntimeException e) {
+            applied.forEach(m -> m.future.completeExceptionally(e));
+            return;
+        }
+        Ecosystem committed = working;
+        applied.forEach(m -> m.future.complete(committed));
+    }
+
+    private Ecosystem replay(Ecosystem base, List<PendingMutation> applied) {
+        Ecosystem working = base.copy();
+        Iterator<PendingMutation> iterator = applied.iterator();
+        while (iterator.hasNext()) {
+            PendingMutation mutation = iterator.next();
+            try {
+                mutation.mutation.accept(working);
+            } catch (RuntimeException e) {
+                mutation.future.completeExceptionally(e);
+                iterator.remove();
+                return replay(base, applied);
+            }
+        }
+        return working;
+    }
+
+    private static class PendingMutation {
+
+        private final Consumer<Ecosystem> mutation;
+
+        private final CompletableFuture<Ecosystem> future = new CompletableFuture<>();
+
+        private PendingMutation(Consumer<Ecosystem> mutation) {
+            this.mutation = mutation;
+        }
+    }
+}
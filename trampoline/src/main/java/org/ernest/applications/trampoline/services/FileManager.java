@@ -1,28 +1,37 @@
 package org.ernest.applications.trampoline.services;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
+import org.ernest.applications.trampoline.entities.BuildCacheStats;
 import org.ernest.applications.trampoline.entities.BuildTools;
 import org.ernest.applications.trampoline.entities.Ecosystem;
 import org.ernest.applications.trampoline.entities.MicroService;
+import org.ernest.applications.trampoline.entities.ProcessState;
 import org.ernest.applications.trampoline.exceptions.*;
+import org.ernest.applications.trampoline.utils.BinarySnapshots;
 import org.ernest.applications.trampoline.utils.ScriptContentsProvider;
 import org.ernest.applications.trampoline.utils.VMParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Component
 public class FileManager {
@@ -44,93 +53,295 @@ public class FileManager {
     @Value("${trampoline.version}")
     private float currentVersion;
 
-    private final Map<String, Process> processes = new HashMap<>();
+    @Value("${settings.write.coalesce.millis:25}")
+    private long writeCoalesceMillis;
+
+    @Value("${settings.journal.enabled:true}")
+    private boolean journalEnabled;
+
+    @Value("${settings.journal.file.name:settings.journal}")
+    private String journalFileName;
+
+    @Value("${settings.journal.compaction.records:200}")
+    private int journalCompactionRecords;
+
+    @Value("${build.cache.enabled:true}")
+    private boolean buildCacheEnabled;
+
+    @Value("${build.cache.folder.name:build-cache}")
+    private String buildCacheFolderName;
+
+    @Value("${build.cache.max.mb:2048}")
+    private long buildCacheMaxMb;
+
+    @Value("${settings.snapshot.format:json}")
+    private String snapshotFormat;
+
+    @Value("${settings.snapshot.binary.file.name:settings.bin}")
+    private String binarySnapshotFileName;
+
+    @Autowired
+    private ProcessSupervisor processSupervisor;
+
+    @Autowired
+    private BuildScheduler buildScheduler;
+
+    private final Object ecosystemLock = new Object();
+
+    private volatile Ecosystem ecosystem;
+
+    private volatile long ecosystemLastModified;
+
+    private volatile long ecosystemLength;
+
+    private EcosystemJournal journal;
+
+    private EcosystemMigrations migrations;
+
+    private EcosystemMutationQueue mutationQueue;
+
+    private BuildCache buildCache;
+
+    @PostConstruct
+    public void startEcosystemWriter() {
+        journal = new EcosystemJournal(new File(getSettingsFolder() + "/" + journalFileName));
+        migrations = new EcosystemMigrations(this::createScript, currentVersion);
+        mutationQueue = new EcosystemMutationQueue(this::getEcosystem, this::saveEcosystem, writeCoalesceMillis);
+        mutationQueue.start();
+        buildCache = new BuildCache(new File(getSettingsFolder() + "/" + buildCacheFolderName), buildCacheMaxMb * 1024 * 1024);
+        try {
+            getEcosystem();
+        } catch (RuntimeException e) {
+            log.error("Not possible to load the Ecosystem at startup", e);
+        }
+    }
+
+    @PreDestroy
+    public void stopEcosystemWriter() {
+        mutationQueue.stop();
+    }
 
     public Ecosystem getEcosystem() throws CreatingSettingsFolderException, ReadingEcosystemException {
+        File settingsFile = getSettingsFile();
+        if (ecosystem == null || isChangedOnDisk(settingsFile)) {
+            synchronized (ecosystemLock) {
+                if (ecosystem == null || isChangedOnDisk(settingsFile)) {
+                    loadEcosystem(settingsFile);
+                }
+            }
+        }
+        return ecosystem;
+    }
+
+    private boolean isChangedOnDisk(File settingsFile) {
+        return settingsFile.lastModified() != ecosystemLastModified || settingsFile.length() != ecosystemLength;
+    }
+
+    private void loadEcosystem(File settingsFile) throws CreatingSettingsFolderException, ReadingEcosystemException {
         checkIfFileExistsAndCreatedIfNeeded();
-        Ecosystem ecosystem = null;
+        convertSnapshotIfNeeded();
+        log.info("Loading Ecosystem from [{}]", settingsFile.getAbsolutePath());
+        Ecosystem loaded;
 
         try {
-            ecosystem = new Gson().fromJson(FileUtils.readFileToString(new File(getSettingsFolder() + "/" + settingsFileName)), Ecosystem.class);
-        } catch (JsonSyntaxException | IOException e) {
+            if (journal.isEmpty()) {
+                loaded = isBinarySnapshot()
+                        ? BinarySnapshots.read(settingsFile.toPath(), Ecosystem.class)
+                        : new Gson().fromJson(FileUtils.readFileToString(settingsFile), Ecosystem.class);
+                if (loaded == null) {
+                    throw new IllegalStateException("Empty settings snapshot " + settingsFile.getAbsolutePath());
+                }
+                journal.resume(loaded.getJournalSequence());
+            } else {
+                JsonObject snapshot = isBinarySnapshot()
+                        ? BinarySnapshots.readTree(settingsFile.toPath()).getAsJsonObject()
+                        : new JsonParser().parse(FileUtils.readFileToString(settingsFile)).getAsJsonObject();
+                int replayed = journal.replay(snapshot);
+                if (replayed > 0) {
+                    log.info("Replayed [{}] journal records on top of the settings snapshot", replayed);
+                }
+                loaded = new Gson().fromJson(snapshot, Ecosystem.class);
+            }
+        } catch (JsonParseException | IllegalStateException | IOException | BufferUnderflowException e) {
             e.printStackTrace();
             throw new ReadingEcosystemException();
         }
 
-        updateMicroservicesInformationStored(ecosystem);
+        if (migrations.migrate(loaded)) {
+            writeSnapshot(loaded, settingsFile);
+        } else {
+            publishEcosystem(loaded, settingsFile);
+        }
+    }
 
-        return ecosystem;
+    private void convertSnapshotIfNeeded() throws ReadingEcosystemException {
+        File jsonSnapshot = new File(getSettingsFolder() + "/" + settingsFileName);
+        File binarySnapshot = new File(getSettingsFolder() + "/" + binarySnapshotFileName);
+        try {
+            if (isBinarySnapshot() && !binarySnapshot.exists() && jsonSnapshot.exists()) {
+                log.info("Converting settings snapshot [{}] to binary", jsonSnapshot.getAbsolutePath());
+                replaceAtomically(binarySnapshot, out -> BinarySnapshots.importFromJson(jsonSnapshot.toPath(), out));
+            } else if (!isBinarySnapshot() && binarySnapshot.exists() && binarySnapshot.lastModified() > jsonSnapshot.lastModified()) {
+                log.info("Exporting binary settings snapshot [{}] to JSON", binarySnapshot.getAbsolutePath());
+                replaceAtomically(jsonSnapshot, out -> BinarySnapshots.exportToJson(binarySnapshot.toPath(), out));
+            }
+        } catch (JsonParseException | IllegalStateException | IOException | BufferUnderflowException e) {
+            e.printStackTrace();
+            throw new ReadingEcosystemException();
+        }
     }
 
-    private void updateMicroservicesInformationStored(Ecosystem ecosystem) {
-        boolean ecosystemChanged = false;
-        ecosystemChanged = createBasicInformation(ecosystem, ecosystemChanged);
-        ecosystemChanged = createBuildTool(ecosystem, ecosystemChanged);
-        ecosystemChanged = createVersion(ecosystem, ecosystemChanged, currentVersion);
-        ecosystemChanged = createIp(ecosystem, ecosystemChanged);
-        ecosystemChanged = createGroupDelays(ecosystem, ecosystemChanged);
+    private void publishEcosystem(Ecosystem published, File settingsFile) {
+        ecosystemLastModified = settingsFile.lastModified();
+        ecosystemLength = settingsFile.length();
+        ecosystem = published.freeze();
+    }
+
+    public CompletableFuture<Ecosystem> updateEcosystem(Consumer<Ecosystem> mutation) {
+        return mutationQueue.submit(mutation);
+    }
 
-        if (ecosystemChanged) {
-            saveEcosystem(ecosystem);
+    private void saveEcosystem(Ecosystem next) throws SavingEcosystemException {
+        synchronized (ecosystemLock) {
+            File settingsFile = getSettingsFile();
+            Ecosystem previous = ecosystem;
+            if (journalEnabled && previous != null && journal.getRecordsSinceSnapshot() < journalCompactionRecords) {
+                appendToJournal(previous, next, settingsFile);
+            } else {
+                writeSnapshot(next, settingsFile);
+            }
         }
     }
 
-    private boolean createGroupDelays(Ecosystem ecosystem, boolean ecosystemChanged) {
-        if (ecosystem.getMicroservicesGroups().stream().anyMatch(i -> i.getMicroservicesDelays() == null)) {
-            ecosystem.getMicroservicesGroups().stream().filter(i -> i.getMicroservicesDelays() == null).forEach(i -> i.setMicroservicesDelays(i.getMicroservicesIds().stream().map(s -> new Integer(0)).collect(Collectors.toList())));
-            ecosystemChanged = true;
+    private void appendToJournal(Ecosystem previous, Ecosystem next, File settingsFile) throws SavingEcosystemException {
+        try {
+            Gson gson = new Gson();
+            int records = journal.append(gson.toJsonTree(previous).getAsJsonObject(), gson.toJsonTree(next).getAsJsonObject());
+            log.info("Saving Ecosystem as [{}] journal records", records);
+            next.setJournalSequence(journal.getLastSequence());
+            publishEcosystem(next, settingsFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new SavingEcosystemException();
         }
-        return ecosystemChanged;
     }
 
-    private boolean createIp(Ecosystem ecosystem, boolean ecosystemChanged) {
-        if (ecosystem.getInstances().stream().anyMatch(i -> i.getIp() == null)) {
-            ecosystem.getInstances().stream().filter(i -> i.getIp() == null).forEach(i -> i.setIp("127.0.0.1"));
-            ecosystemChanged = true;
+    private void writeSnapshot(Ecosystem next, File settingsFile) throws SavingEcosystemException {
+        log.info("Saving Ecosystem");
+        try {
+            next.setJournalSequence(journal.getLastSequence());
+            if (isBinarySnapshot()) {
+                replaceAtomically(settingsFile, out -> BinarySnapshots.write(next, out));
+            } else {
+                replaceAtomically(settingsFile, out -> out.write(new Gson().toJson(next).getBytes(StandardCharsets.UTF_8)));
+            }
+            journal.truncate();
+            publishEcosystem(next, settingsFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new SavingEcosystemException();
         }
-        return ecosystemChanged;
     }
 
-    private boolean createVersion(Ecosystem ecosystem, boolean ecosystemChanged, float currentVersion) {
-        if (ecosystem.getMicroservices().stream().anyMatch(m -> m.getVersion() == null)) {
-            ecosystem.getMicroservices().stream().filter(m -> m.getVersion() == null).forEach(m -> {
-                m.setVersion(currentVersion);
-                createScript(m);
-            });
-            ecosystemChanged = true;
+    private void replaceAtomically(File file, SnapshotWriter writer) throws IOException {
+        Path target = file.toPath();
+        Path temporary = target.resolveSibling(file.getName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            writer.write(out);
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
         }
-        return ecosystemChanged;
     }
 
-    private boolean createBuildTool(Ecosystem ecosystem, boolean ecosystemChanged) {
-        if (ecosystem.getMicroservices().stream().anyMatch(m -> m.getBuildTool() == null)) {
-            ecosystem.getMicroservices().stream().filter(m -> m.getBuildTool() == null).forEach(m -> m.setBuildTool(BuildTools.MAVEN));
-            ecosystemChanged = true;
+    private CompletableFuture<Void> launchMavenInstance(String instanceId, MicroService microservice, String scriptPath, String port, String vmArguments, String appArguments, int startingDelay) {
+        File jar = new File(ScriptContentsProvider.getJarFile(microservice));
+        CompletableFuture<Integer> prepared;
+        if (new File(ScriptContentsProvider.getPidFile(microservice)).exists()) {
+            log.info("[{}] is already running, skipping pull and build", microservice.getName());
+            prepared = CompletableFuture.completedFuture(0);
+        } else {
+            prepared = buildScheduler.forProject(new File(microservice.getPomLocation()).getAbsolutePath(), microservice.getId(),
+                    () -> pullAndBuild(instanceId, microservice, scriptPath, jar));
         }
-        return ecosystemChanged;
+        return prepared.thenCombine(buildScheduler.delay(startingDelay), (built, delayed) -> built).thenAccept(built -> {
+            if (built != 0) {
+                throw new IllegalStateException("Build of [" + microservice.getName() + "] finished with code [" + built + "]");
+            }
+            try {
+                ProcessBuilder builder = new ProcessBuilder("bash", scriptPath, "run", port, vmArguments, appArguments);
+                processSupervisor.supervise(instanceId, builder.start(), ProcessState.STARTING, ProcessState.STARTING).thenAccept(code -> {
+                    if (code == 0) {
+                        processSupervisor.follow(instanceId, new File(ScriptContentsProvider.getPidFile(microservice)));
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((launched, e) -> {
+            if (e != null) {
+                log.error("Not possible to launch instance [{}]", instanceId, e);
+            }
+        });
     }
 
-    private boolean createBasicInformation(Ecosystem ecosystem, boolean ecosystemChanged) {
-        if (ecosystem.getMicroservices().stream().anyMatch(m -> m.getActuatorPrefix() == null || m.getVmArguments() == null)) {
-            ecosystem.getMicroservices().stream().filter(m -> m.getActuatorPrefix() == null || m.getVmArguments() == null).forEach(m -> {
-                m.setVmArguments("");
-                m.setActuatorPrefix("");
-                m.setBuildTool(BuildTools.MAVEN);
-                createScript(m);
-            });
-            ecosystemChanged = true;
+    private CompletableFuture<Integer> pullAndBuild(String instanceId, MicroService microservice, String scriptPath, File jar) {
+        try {
+            return processSupervisor.supervise(instanceId, new ProcessBuilder("bash", scriptPath, "pull").start(), ProcessState.BUILDING, ProcessState.BUILDING)
+                    .thenCompose(pulled -> pulled != 0 ? CompletableFuture.completedFuture(pulled) : buildIfNeeded(instanceId, microservice, scriptPath, jar));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return ecosystemChanged;
     }
 
-    public void saveEcosystem(Ecosystem ecosystem) throws SavingEcosystemException {
-        log.info("Saving Ecosystem");
+    private CompletableFuture<Integer> buildIfNeeded(String instanceId, MicroService microservice, String scriptPath, File jar) {
+        String key = null;
         try {
-            FileUtils.writeStringToFile(new File(getSettingsFolder() + "/" + settingsFileName), new Gson().toJson(ecosystem));
+            if (!buildCacheEnabled) {
+                return scheduleBuild(instanceId, microservice, "bash", scriptPath, "build");
+            }
+            key = buildCache.key(microservice, "pom.xml");
+            if (buildCache.restore(key, jar)) {
+                log.info("Build cache hit for [{}], launching cached jar [{}]", microservice.getName(), key);
+                return CompletableFuture.completedFuture(0);
+            }
+            log.info("Build cache miss for [{}] [{}]", microservice.getName(), key);
         } catch (IOException e) {
-            e.printStackTrace();
-            throw new SavingEcosystemException();
+            log.warn("Not possible to use the build cache for [{}]: {}", microservice.getName(), e.getMessage());
         }
+
+        String cacheKey = key;
+        return scheduleBuild(instanceId, microservice, "bash", scriptPath, "build")
+                .thenApply(code -> {
+                    if (code == 0 && cacheKey != null) {
+                        try {
+                            buildCache.store(cacheKey, jar);
+                        } catch (IOException e) {
+                            log.warn("Not possible to store [{}] in the build cache: {}", jar.getAbsolutePath(), e.getMessage());
+                        }
+                    }
+                    return code;
+                });
+    }
+
+    private CompletableFuture<Integer> scheduleBuild(String instanceId, MicroService microservice, String... command) {
+        return buildScheduler.schedule(instanceId, microservice.getName(), () -> {
+            try {
+                Process build = new ProcessBuilder(buildScheduler.command(command)).start();
+                return processSupervisor.supervise(instanceId, build, ProcessState.BUILDING, ProcessState.BUILDING);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public BuildCacheStats getBuildCacheStats() {
+        return buildCache.getStats();
     }
 
     public void stopScript(String microServiceId) throws ShuttingDownInstanceException {
@@ -140,13 +351,18 @@ public class FileManager {
                 new ProcessBuilder("bash", getSettingsFolder() + "/" + microServiceId + ".sh", "stop").start();
             else
                 log.warn("sh file [{}] does not exists", shFile.getAbsolutePath());
-            processes.remove(microServiceId);
         } catch (IOException e) {
             throw new ShuttingDownInstanceException();
         }
     }
 
-    public void runScript(MicroService microservice, String mavenBinaryLocation, String mavenHomeLocation, String port, String vmArguments, String appArguments) throws RunningMicroserviceScriptException {
+    /**
+     * Launches an instance, holding it back for the starting delay. A Maven service on Unix is pulled and built right
+     * away and only its run step waits for the delay; the other flavours build as part of running, so the delay
+     * holds back the whole command. The returned future completes once the process serving the instance has been
+     * started, and fails when its pull, build or launch fails.
+     */
+    public CompletableFuture<Void> runScript(String instanceId, MicroService microservice, String mavenBinaryLocation, String mavenHomeLocation, String port, String vmArguments, String appArguments, int startingDelay) throws RunningMicroserviceScriptException {
         try {
             String binaryLocation = (mavenBinaryLocation != null && mavenBinaryLocation.trim().length() > 0) ? mavenBinaryLocation : mavenHomeLocation + "/bin";
             if (System.getProperties().getProperty("os.name").contains("Windows")) {
@@ -161,41 +377,46 @@ public class FileManager {
                     commands = commands.replace("#vmArguments", VMParser.toWindowsEnviromentVariables(vmArguments));
                 }
                 log.info("Starting [" + microservice.getId() + "] with following command [" + commands + "]");
-                Runtime.getRuntime().exec("cmd /c start cmd.exe /K \"" + commands + "\"");
+                String command = "cmd /c start cmd.exe /K \"" + commands + "\"";
+                return afterDelay(instanceId, startingDelay, () -> processSupervisor.supervise(instanceId, Runtime.getRuntime().exec(command), ProcessState.STARTING, ProcessState.STARTING));
             } else {
                 String scriptPath = getSettingsFolder() + "/" + microservice.getId() + ".sh";
                 if (microservice.getBuildTool().equals(BuildTools.MAVEN)) {
-                    Optional.ofNullable(processes.get(microservice.getId()))
-                            .ifPresent(process -> {
-                                process.destroy();
-                                log.warn("Destroy previous process for [{}]", microservice.getId());
-                            });
                     log.info("Script path: [{}]", scriptPath);
                     log.info("Port: [{}]", port);
                     log.info("VM Arguments: [{}]", vmArguments);
                     log.info("App Arguments: [{}]", appArguments);
-                    ProcessBuilder builder = new ProcessBuilder("bash", scriptPath, "start", port, vmArguments, appArguments);
-                    Process process = builder.start();
-                    try {
-                        log.info("Output: \r\n[{}]", IOUtils.toString(process.getInputStream()));
-                    } catch (Exception e) {
-                        log.warn("Failed [{}]", e);
-                    }
-                    processes.put(microservice.getId(), process);
+                    return launchMavenInstance(instanceId, microservice, scriptPath, port, vmArguments, appArguments, startingDelay);
                 } else {
                     Runtime.getRuntime().exec("chmod 777 " + microservice.getPomLocation() + "//gradlew");
-                    new ProcessBuilder("bash", scriptPath, port, VMParser.toUnixEnviromentVariables(vmArguments)).start();
+                    ProcessBuilder builder = new ProcessBuilder("bash", scriptPath, port, VMParser.toUnixEnviromentVariables(vmArguments));
+                    return afterDelay(instanceId, startingDelay, () -> processSupervisor.supervise(instanceId, builder.start(), ProcessState.BUILDING, ProcessState.EXITED));
                 }
             }
-
         } catch (IOException e) {
             e.printStackTrace();
             throw new RunningMicroserviceScriptException();
         }
     }
 
+    private CompletableFuture<Void> afterDelay(String instanceId, int seconds, Launch launch) throws IOException {
+        if (seconds <= 0) {
+            launch.start();
+            return CompletableFuture.completedFuture(null);
+        }
+        return buildScheduler.delay(seconds).thenRun(() -> {
+            try {
+                launch.start();
+            } catch (IOException e) {
+                log.error("Not possible to start delayed instance [{}]", instanceId, e);
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     public void createScript(MicroService microservice) throws CreatingMicroserviceScriptException {
         log.info("Creating deployment script for microservice [{}]", microservice.getId());
+        microservice.setVersion(currentVersion);
         try {
             boolean isWin = System.getProperties().getProperty("os.name").contains("Windows");
             String ext = isWin ? ".txt" : ".sh";
@@ -220,7 +441,7 @@ public class FileManager {
                 if (microservice.getBuildTool().equals(BuildTools.MAVEN)) {
                     template = ScriptContentsProvider.getMavenUnix(microservice);
                 } else {
-                    template = ScriptContentsProvider.getGradleUnix(microservice.getPomLocation());
+                    template = ScriptContentsProvider.getGradleUnix(microservice);
                 }
             }
             Path path = Paths.get(getSettingsFolder(), microservice.getId() + ext);
@@ -241,12 +462,22 @@ public class FileManager {
         }
     }
 
+    private File getSettingsFile() {
+        return new File(getSettingsFolder() + "/" + (isBinarySnapshot() ? binarySnapshotFileName : settingsFileName));
+    }
+
+    private boolean isBinarySnapshot() {
+        return "binary".equalsIgnoreCase(snapshotFormat);
+    }
+
     private void checkIfFileExistsAndCreatedIfNeeded() throws CreatingSettingsFolderException {
         try {
             File file = new File(getSettingsFolder());
             if (!file.exists()) {
                 file.mkdirs();
-                FileUtils.writeStringToFile(new File(getSettingsFolder() + "/" + settingsFileName), new Gson().toJson(new Ecosystem()));
+                Ecosystem empty = new Ecosystem();
+                empty.setSchemaVersion(migrations.getLatestVersion());
+                FileUtils.writeStringToFile(new File(getSettingsFolder() + "/" + settingsFileName), new Gson().toJson(empty));
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -254,5 +485,11 @@ public class FileManager {
         }
     }
 
+    private interface SnapshotWriter {
+        void write(OutputStream out) throws IOException;
+    }
 
+    private interface Launch {
+        void start() throws IOException;
+    }
 }
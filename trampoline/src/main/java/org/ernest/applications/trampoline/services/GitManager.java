@@ -47,7 +47,7 @@ public class GitManager {
         MicroserviceGitInfo microserviceGitInfo = new MicroserviceGitInfo();
 
         Ecosystem ecosystem = ecosystemManager.getEcosystem();
-        MicroService microservice = ecosystem.getMicroservices().stream().filter(m -> m.getId().equals(microserviceId)).findAny().get();
+        MicroService microservice = ecosystem.findMicroservice(microserviceId).get();
 
         Git git = Git.open(new java.io.File(microservice.getGitLocation()));
         if (ecosystem.getGitCredentials().getHttpsSettings() != null) {
@@ -71,7 +71,7 @@ public class GitManager {
     public void checkoutAndPull(String microserviceId, String branchName) throws IOException, GitAPIException {
         log.info("Checkout and Pulling code for microservice id: [{}] branchName: [{}]", microserviceId, branchName);
         Ecosystem ecosystem = ecosystemManager.getEcosystem();
-        MicroService microservice = ecosystem.getMicroservices().stream().filter(m -> m.getId().equals(microserviceId)).findAny().get();
+        MicroService microservice = ecosystem.findMicroservice(microserviceId).get();
 
         branchName = branchName.replaceAll("refs/remotes/origin/", "");
         branchName = branchName.replaceAll("refs/heads/", "");
@@ -0,0 +1,119 @@
+package org.ernest.applications.trampoline.services;
+
+import org.ernest.applications.trampoline.entities.Instance;
+import org.ernest.applications.trampoline.entities.MicroService;
+import org.ernest.applications.trampoline.exceptions.StartingGroupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Starts the members of a group following their dependency edges: every member is launched as soon as all of its
+ * prerequisites report themselves ready, so independent branches start in parallel and the whole group takes
+ * about as long as its slowest chain of dependencies. The launcher future of a member completes once its process has
+ * been started, so the readiness timeout only covers its startup, not its pull, build queue or compile.
+ */
+class GroupLauncher {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupLauncher.class);
+
+    private final Predicate<Instance> readiness;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final long pollMillis;
+
+    private final long timeoutMillis;
+
+    GroupLauncher(Predicate<Instance> readiness, ScheduledExecutorService scheduler, long pollMillis, long timeoutMillis) {
+        this.readiness = readiness;
+        this.scheduler = scheduler;
+        this.pollMillis = pollMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    CompletableFuture<Void> start(List<MicroService> members, Map<String, List<String>> dependencies, Function<MicroService, CompletableFuture<Instance>> launcher) {
+        Map<String, MicroService> byId = new LinkedHashMap<>();
+        members.forEach(member -> byId.put(member.getId(), member));
+
+        Map<String, CompletableFuture<Instance>> ready = new HashMap<>();
+        for (String id : topologicalOrder(new ArrayList<>(byId.keySet()), dependencies)) {
+            MicroService member = byId.get(id);
+            CompletableFuture<?>[] prerequisites = prerequisites(id, dependencies, byId.keySet()).stream()
+                    .map(ready::get)
+                    .toArray(CompletableFuture[]::new);
+            ready.put(id, CompletableFuture.allOf(prerequisites)
+                    .thenCompose(started -> {
+                        log.info("Prerequisites of [{}] are ready, launching it", member.getName());
+                        return launcher.apply(member);
+                    })
+                    .thenCompose(instance -> awaitReady(member, instance)));
+        }
+        return CompletableFuture.allOf(ready.values().toArray(new CompletableFuture[0]));
+    }
+
+    static List<String> topologicalOrder(List<String> members, Map<String, List<String>> dependencies) {
+        Set<String> memberIds = new HashSet<>(members);
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (String id : members) {
+            List<String> prerequisites = prerequisites(id, dependencies, memberIds);
+            pending.put(id, prerequisites.size());
+            prerequisites.forEach(prerequisite -> dependents.computeIfAbsent(prerequisite, key -> new ArrayList<>()).add(id));
+        }
+
+        Deque<String> available = new ArrayDeque<>();
+        members.stream().filter(id -> pending.get(id) == 0).forEach(available::add);
+        List<String> order = new ArrayList<>();
+        while (!available.isEmpty()) {
+            String id = available.poll();
+            order.add(id);
+            for (String dependent : dependents.getOrDefault(id, Collections.emptyList())) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    available.add(dependent);
+                }
+            }
+        }
+        if (order.size() != members.size()) {
+            throw new IllegalArgumentException("Group dependencies contain a cycle");
+        }
+        return order;
+    }
+
+    private static List<String> prerequisites(String id, Map<String, List<String>> dependencies, Set<String> memberIds) {
+        List<String> prerequisites = new ArrayList<>();
+        for (String prerequisite : dependencies.getOrDefault(id, Collections.emptyList())) {
+            if (memberIds.contains(prerequisite) && !prerequisite.equals(id) && !prerequisites.contains(prerequisite)) {
+                prerequisites.add(prerequisite);
+            } else {
+                log.warn("Ignoring dependency of [{}] on [{}]", id, prerequisite);
+            }
+        }
+        return prerequisites;
+    }
+
+    private CompletableFuture<Instance> awaitReady(MicroService member, Instance instance) {
+        CompletableFuture<Instance> ready = new CompletableFuture<>();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        scheduler.schedule(() -> checkReady(member, instance, ready, deadline), pollMillis, TimeUnit.MILLISECONDS);
+        return ready;
+    }
+
+    private void checkReady(MicroService member, Instance instance, CompletableFuture<Instance> ready, long deadline) {
+        if (readiness.test(instance)) {
+            log.info("[{}] is ready on port [{}]", member.getName(), instance.getPort());
+            ready.complete(instance);
+        } else if (System.currentTimeMillis() > deadline) {
+            log.error("[{}] was not ready after [{}] ms, its dependents will not be started", member.getName(), timeoutMillis);
+            ready.completeExceptionally(new StartingGroupException());
+        } else {
+            scheduler.schedule(() -> checkReady(member, instance, ready, deadline), pollMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
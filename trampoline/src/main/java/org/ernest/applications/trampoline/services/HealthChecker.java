@@ -0,0 +1,264 @@
+package org.ernest.applications.trampoline.services;
+
+import org.ernest.applications.trampoline.entities.Instance;
+import org.ernest.applications.trampoline.entities.InstanceHealth;
+import org.ernest.applications.trampoline.entities.InstancesHealth;
+import org.ernest.applications.trampoline.entities.ProbeType;
+import org.ernest.applications.trampoline.entities.ProcessState;
+import org.ernest.applications.trampoline.entities.StatusInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Single poller for the status of every instance. All instances are probed concurrently on one schedule with
+ * short timeouts and the results are cached, each stamped with the version at which its status last changed, so
+ * clients can ask for the changes since the version they already have instead of probing instances themselves.
+ * Each instance is probed with the strategy configured for its microservice, and instances that keep failing are
+ * backed off by a per instance circuit breaker unless they are still starting.
+ */
+@Component
+public class HealthChecker {
+
+    private final Logger log = LoggerFactory.getLogger(HealthChecker.class);
+
+    private final FileManager fileManager;
+
+    private final ProcessSupervisor processSupervisor;
+
+    private final UpdateBroadcaster updateBroadcaster;
+
+    private final Map<String, InstanceHealth> statuses = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> removed = new ConcurrentHashMap<>();
+
+    private final Map<String, ProbeCircuit> circuits = new ConcurrentHashMap<>();
+
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    private final Map<ProbeType, LivenessProbe> livenessProbes = new EnumMap<>(ProbeType.class);
+
+    private final Map<ProbeType, LivenessProbe> readinessProbes = new EnumMap<>(ProbeType.class);
+
+    private final List<Consumer<InstanceHealth>> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong version = new AtomicLong();
+
+    private long publishedVersion;
+
+    @Value("${health.probe.threads:8}")
+    private int probeThreads;
+
+    @Value("${health.probe.connect.timeout.millis:1000}")
+    private int connectTimeoutMillis;
+
+    @Value("${health.probe.read.timeout.millis:2000}")
+    private int readTimeoutMillis;
+
+    @Value("${health.probe.latency.window:20}")
+    private int latencyWindow;
+
+    @Value("${health.breaker.failures:3}")
+    private int breakerFailures;
+
+    @Value("${health.breaker.backoff.initial.millis:10000}")
+    private long breakerInitialBackoffMillis;
+
+    @Value("${health.breaker.backoff.max.millis:300000}")
+    private long breakerMaxBackoffMillis;
+
+    private ExecutorService probes;
+
+    @Autowired
+    public HealthChecker(FileManager fileManager, ProcessSupervisor processSupervisor, UpdateBroadcaster updateBroadcaster) {
+        this.fileManager = fileManager;
+        this.processSupervisor = processSupervisor;
+        this.updateBroadcaster = updateBroadcaster;
+    }
+
+    @PostConstruct
+    public void start() {
+        probes = Executors.newFixedThreadPool(probeThreads, runnable -> {
+            Thread thread = new Thread(runnable, "health-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        livenessProbes.put(ProbeType.TCP, new TcpProbe(connectTimeoutMillis));
+        livenessProbes.put(ProbeType.HEALTH, new HttpProbe(HealthChecker::buildHealthUrl, false, connectTimeoutMillis, readTimeoutMillis));
+        livenessProbes.put(ProbeType.CUSTOM, new HttpProbe(HealthChecker::buildCustomProbeUrl, true, connectTimeoutMillis, readTimeoutMillis));
+        readinessProbes.put(ProbeType.TCP, livenessProbes.get(ProbeType.TCP));
+        readinessProbes.put(ProbeType.HEALTH, new HttpReadinessProbe(HealthChecker::buildHealthUrl, true, connectTimeoutMillis, readTimeoutMillis));
+        readinessProbes.put(ProbeType.CUSTOM, new HttpReadinessProbe(HealthChecker::buildCustomProbeUrl, false, connectTimeoutMillis, readTimeoutMillis));
+    }
+
+    @PreDestroy
+    public void stop() {
+        probes.shutdownNow();
+    }
+
+    public void checkInstances() {
+        processSupervisor.reconcile();
+        List<Instance> instances = fileManager.getEcosystem().getInstances();
+        List<CompletableFuture<Void>> checks = instances.stream()
+                .map(instance -> CompletableFuture.runAsync(() -> poll(instance), probes))
+                .collect(Collectors.toList());
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture[0])).join();
+
+        forgetRemoved(instances.stream().map(Instance::getId).collect(Collectors.toSet()));
+        publishChanges();
+    }
+
+    public String getStatus(Instance instance) {
+        InstanceHealth health = statuses.get(instance.getId());
+        if (health == null) {
+            probe(instance);
+            return statuses.get(instance.getId()).getStatus();
+        }
+        return health.getStatus();
+    }
+
+    public synchronized InstancesHealth getChangesSince(long since) {
+        long snapshot = version.get();
+        List<InstanceHealth> changed = statuses.values().stream()
+                .filter(health -> health.getVersion() > since && health.getVersion() <= snapshot)
+                .collect(Collectors.toList());
+        List<String> gone = removed.entrySet().stream()
+                .filter(entry -> entry.getValue() > since && entry.getValue() <= snapshot)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        return new InstancesHealth(snapshot, changed, gone);
+    }
+
+    public List<InstanceHealth> getProbes() {
+        return new ArrayList<>(statuses.values());
+    }
+
+    public void addListener(Consumer<InstanceHealth> listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isDeployed(Instance instance) {
+        return probe(instance);
+    }
+
+    /**
+     * Whether the instance is ready to serve its dependents. Unlike the liveness probe an actuator health endpoint
+     * only counts when it answers 2xx with status UP, and a custom probe only when it answers 2xx. The result is not
+     * cached nor fed to the circuit breaker.
+     */
+    public boolean isReady(Instance instance) {
+        ProbeType probeType = instance.getProbeType() == null ? ProbeType.HEALTH : instance.getProbeType();
+        try {
+            return readinessProbes.get(probeType).isAlive(instance);
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void poll(Instance instance) {
+        ProbeCircuit circuit = circuits.get(instance.getId());
+        if (circuit != null && !circuit.allowsProbe(System.currentTimeMillis()) && !isStarting(instance.getId())) {
+            log.debug("Skipping probe for instance [{}] while its circuit is open", instance.getId());
+            return;
+        }
+        probe(instance);
+    }
+
+    private boolean probe(Instance instance) {
+        ProbeCircuit circuit = circuits.computeIfAbsent(instance.getId(), id -> new ProbeCircuit(breakerFailures, breakerInitialBackoffMillis, breakerMaxBackoffMillis));
+        ProbeType probeType = instance.getProbeType() == null ? ProbeType.HEALTH : instance.getProbeType();
+        long started = System.nanoTime();
+        boolean alive;
+        try {
+            alive = livenessProbes.get(probeType).isAlive(instance);
+        } catch (IOException | IllegalArgumentException e) {
+            alive = false;
+        }
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        LatencyWindow window = latencies.computeIfAbsent(instance.getId(), id -> new LatencyWindow(latencyWindow));
+        window.record(latencyMillis);
+        long now = System.currentTimeMillis();
+        if (alive) {
+            circuit.success();
+        } else {
+            circuit.failure(now);
+        }
+        record(instance.getId(), alive, latencyMillis, window, circuit.getFailures(), circuit.isOpen(now));
+        return alive;
+    }
+
+    private boolean isStarting(String instanceId) {
+        return processSupervisor.getProcess(instanceId)
+                .map(process -> process.getState() == ProcessState.BUILDING || process.getState() == ProcessState.STARTING)
+                .orElse(false);
+    }
+
+    private static String buildHealthUrl(Instance instance) {
+        String actuatorUrl = instance.buildActuatorUrl();
+        return (actuatorUrl.endsWith("/") ? actuatorUrl.substring(0, actuatorUrl.length() - 1) : actuatorUrl) + "/health";
+    }
+
+    private static String buildCustomProbeUrl(Instance instance) {
+        String path = instance.getProbePath() == null ? "" : instance.getProbePath().trim();
+        return "http://" + instance.getIp() + ":" + instance.getPort() + (path.startsWith("/") ? path : "/" + path);
+    }
+
+    private synchronized void publishChanges() {
+        InstancesHealth changes = getChangesSince(publishedVersion);
+        publishedVersion = changes.getVersion();
+        if (!changes.getInstances().isEmpty() || !changes.getRemoved().isEmpty()) {
+            updateBroadcaster.publish(UpdateBroadcaster.STATUS_TOPIC, changes);
+        }
+    }
+
+    private synchronized void forgetRemoved(Set<String> current) {
+        statuses.keySet().stream().filter(id -> !current.contains(id)).collect(Collectors.toList()).forEach(id -> {
+            statuses.remove(id);
+            removed.put(id, version.incrementAndGet());
+        });
+        circuits.keySet().retainAll(current);
+        latencies.keySet().retainAll(current);
+    }
+
+    private synchronized void record(String instanceId, boolean deployed, long latencyMillis, LatencyWindow window, int failures, boolean circuitOpen) {
+        String status = deployed ? StatusInstance.DEPLOYED.getCode() : StatusInstance.NOT_DEPLOYED.getCode();
+        InstanceHealth previous = statuses.get(instanceId);
+        if (deployed) {
+            processSupervisor.markRunning(instanceId);
+        }
+        if (previous != null && previous.getStatus().equals(status)) {
+            statuses.put(instanceId, new InstanceHealth(instanceId, status, previous.getVersion(), System.currentTimeMillis(), latencyMillis,
+                    window.min(), window.average(), window.max(), failures, circuitOpen));
+            return;
+        }
+        log.info("Instance [{}] is now [{}]", instanceId, status);
+        InstanceHealth health = new InstanceHealth(instanceId, status, version.incrementAndGet(), System.currentTimeMillis(), latencyMillis,
+                window.min(), window.average(), window.max(), failures, circuitOpen);
+        statuses.put(instanceId, health);
+        removed.remove(instanceId);
+        if (previous != null) {
+            notifyListeners(health);
+        }
+    }
+
+    private void notifyListeners(InstanceHealth health) {
+        listeners.forEach(listener -> {
+            try {
+                listener.accept(health);
+            } catch (RuntimeException e) {
+                log.warn("Health listener failed [{}]", e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package org.ernest.applications.trampoline.services;
+
+import org.ernest.applications.trampoline.entities.Instance;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.function.Function;
+
+/**
+ * Probes an HTTP endpoint of the instance. With {@code requireSuccess} only a 2xx or 3xx answer counts as alive.
+ * Without it a 503 is accepted as well, which suits actuator health endpoints that answer 503 while a dependency is
+ * down but the JVM is serving; any other 4xx or 5xx, such as the 404 of a wrong actuator prefix, counts as down.
+ */
+class HttpProbe implements LivenessProbe {
+
+    private final Function<Instance, String> url;
+
+    private final boolean requireSuccess;
+
+    private final int connectTimeoutMillis;
+
+    private final int readTimeoutMillis;
+
+    HttpProbe(Function<Instance, String> url, boolean requireSuccess, int connectTimeoutMillis, int readTimeoutMillis) {
+        this.url = url;
+        this.requireSuccess = requireSuccess;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public boolean isAlive(Instance instance) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url.apply(instance)).openConnection();
+        try {
+            connection.setConnectTimeout(connectTimeoutMillis);
+            connection.setReadTimeout(readTimeoutMillis);
+            connection.setUseCaches(false);
+            int code = connection.getResponseCode();
+            return (code >= 200 && code < 400) || (!requireSuccess && code == HttpURLConnection.HTTP_UNAVAILABLE);
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.ernest.applications.trampoline.services;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.ernest.applications.trampoline.entities.Instance;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * Stricter counterpart of {@link HttpProbe} used to decide whether an instance can serve its dependents: only a 2xx
+ * answer counts, and when {@code requireUpStatus} is set the body must also be an actuator health document whose
+ * {@code status} is {@code UP}.
+ */
+class HttpReadinessProbe implements LivenessProbe {
+
+    private final Function<Instance, String> url;
+
+    private final boolean requireUpStatus;
+
+    private final int connectTimeoutMillis;
+
+    private final int readTimeoutMillis;
+
+    HttpReadinessProbe(Function<Instance, String> url, boolean requireUpStatus, int connectTimeoutMillis, int readTimeoutMillis) {
+        this.url = url;
+        this.requireUpStatus = requireUpStatus;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public boolean isAlive(Instance instance) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url.apply(instance)).openConnection();
+        try {
+            connection.setConnectTimeout(connectTimeoutMillis);
+            connection.setReadTimeout(readTimeoutMillis);
+            connection.setUseCaches(false);
+            int code = connection.getResponseCode();
+            if (code < 200 || code >= 300) {
+                return false;
+            }
+            if (!requireUpStatus) {
+                return true;
+            }
+            try (Reader body = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+                return isUp(new JsonParser().parse(body));
+            } catch (JsonParseException e) {
+                return false;
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    static boolean isUp(JsonElement health) {
+        if (health == null || !health.isJsonObject()) {
+            return false;
+        }
+        JsonElement status = health.getAsJsonObject().get("status");
+        return status != null && status.isJsonPrimitive() && "UP".equalsIgnoreCase(status.getAsString());
+    }
+}
@@ -0,0 +1,100 @@
+package org.ernest.applications.trampoline.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class InstanceLogStreamer {
+
+    private final Logger log = LoggerFactory.getLogger(InstanceLogStreamer.class);
+
+    private final Map<String, LogTail> tails = new ConcurrentHashMap<>();
+
+    @Value("${logs.stream.poll.millis:250}")
+    private long pollMillis;
+
+    @Value("${logs.stream.replay.kb:64}")
+    private int replayKb;
+
+    @Value("${logs.stream.max.line.kb:16}")
+    private int maxLineKb;
+
+    @Value("${logs.stream.queue.chunks:256}")
+    private int queueChunks;
+
+    @Value("${logs.stream.timeout.millis:1800000}")
+    private long timeoutMillis;
+
+    private ScheduledExecutorService tailer;
+
+    private ExecutorService senders;
+
+    @PostConstruct
+    public void start() {
+        tailer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "instance-log-tailer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        senders = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "instance-log-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tailer.scheduleWithFixedDelay(this::pollTails, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        tailer.shutdownNow();
+        senders.shutdownNow();
+        tails.values().forEach(LogTail::close);
+    }
+
+    public SseEmitter subscribe(File file) {
+        log.info("Streaming output file [{}]", file.getAbsolutePath());
+        String path = file.getAbsolutePath();
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        LogSubscriber subscriber = new LogSubscriber(emitter, queueChunks, senders, failed -> unsubscribe(path, failed));
+        emitter.onCompletion(() -> unsubscribe(path, subscriber));
+        emitter.onTimeout(() -> unsubscribe(path, subscriber));
+        emitter.onError(error -> unsubscribe(path, subscriber));
+        tails.compute(path, (key, tail) -> {
+            LogTail subscribed = tail != null ? tail : new LogTail(file, replayKb * 1024, maxLineKb * 1024);
+            subscribed.subscribe(subscriber);
+            return subscribed;
+        });
+        return emitter;
+    }
+
+    private void unsubscribe(String path, LogSubscriber subscriber) {
+        tails.computeIfPresent(path, (key, tail) -> {
+            tail.unsubscribe(subscriber);
+            return tail;
+        });
+    }
+
+    private void pollTails() {
+        tails.keySet().forEach(path -> tails.computeIfPresent(path, (key, tail) -> {
+            if (tail.hasSubscribers()) {
+                tail.poll();
+                return tail;
+            }
+            tail.close();
+            return null;
+        }));
+    }
+}
@@ -0,0 +1,51 @@
+package org.ernest.applications.trampoline.services;
+
+/**
+ * Fixed size ring of the most recent probe latencies of one instance, so a single slow or fast probe does not hide
+ * the trend the way a last value alone would.
+ */
+class LatencyWindow {
+
+    private final long[] samples;
+
+    private int next;
+
+    private int size;
+
+    LatencyWindow(int capacity) {
+        this.samples = new long[Math.max(1, capacity)];
+    }
+
+    synchronized void record(long latencyMillis) {
+        samples[next] = latencyMillis;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+    }
+
+    synchronized long min() {
+        long min = size == 0 ? 0 : Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, samples[i]);
+        }
+        return min;
+    }
+
+    synchronized long max() {
+        long max = 0;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max;
+    }
+
+    synchronized long average() {
+        if (size == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += samples[i];
+        }
+        return total / size;
+    }
+}
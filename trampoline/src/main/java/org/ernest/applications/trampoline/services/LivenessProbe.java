@@ -0,0 +1,14 @@
+package org.ernest.applications.trampoline.services;
+
+import org.ernest.applications.trampoline.entities.Instance;
+
+import java.io.IOException;
+
+/**
+ * Strategy used by the {@link HealthChecker} to decide whether an instance is alive. Implementations must honour
+ * their own connect and read timeouts so a hung host can never stall the poller.
+ */
+interface LivenessProbe {
+
+    boolean isAlive(Instance instance) throws IOException;
+}
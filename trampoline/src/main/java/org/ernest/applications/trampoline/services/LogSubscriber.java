@@ -0,0 +1,51 @@
+package org.ernest.applications.trampoline.services;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * One browser connection to a log stream. When the queue is full new chunks are dropped and the number of lost
+ * lines is reported to the client ahead of the chunks that follow.
+ */
+class LogSubscriber extends SseSubscriber<List<String>> {
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Consumer<LogSubscriber> onFailure;
+
+    LogSubscriber(SseEmitter emitter, int capacity, Executor executor, Consumer<LogSubscriber> onFailure) {
+        super(emitter, capacity, executor);
+        this.onFailure = onFailure;
+    }
+
+    @Override
+    void overflowed(List<String> rejected, Queue<List<String>> queue) {
+        dropped.addAndGet(rejected.size());
+    }
+
+    @Override
+    boolean hasNotice() {
+        return dropped.get() > 0;
+    }
+
+    @Override
+    SseEmitter.SseEventBuilder takeNotice() {
+        return SseEmitter.event().name("dropped").data(dropped.getAndSet(0));
+    }
+
+    @Override
+    SseEmitter.SseEventBuilder toEvent(List<String> lines) {
+        return SseEmitter.event().name("log").data(lines, MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    void failed() {
+        onFailure.accept(this);
+    }
+}
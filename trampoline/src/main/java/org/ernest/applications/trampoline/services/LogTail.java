@@ -0,0 +1,161 @@
+package org.ernest.applications.trampoline.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Incremental reader of one output file shared by all its subscribers. Only the bytes written since the last poll
+ * are read, through positional reads on a single open channel; incomplete trailing lines are kept until their
+ * newline arrives, or flushed as a line of their own once they reach the maximum line length. A file that shrinks is assumed to have been recreated and is read again from the start.
+ */
+class LogTail {
+
+    private static final Logger log = LoggerFactory.getLogger(LogTail.class);
+
+    private final File file;
+
+    private final int replayBytes;
+
+    private final int maxLineBytes;
+
+    private final List<LogSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    private FileChannel channel;
+
+    private long position;
+
+    LogTail(File file, int replayBytes, int maxLineBytes) {
+        this.file = file;
+        this.replayBytes = replayBytes;
+        this.maxLineBytes = maxLineBytes;
+    }
+
+    synchronized void subscribe(LogSubscriber subscriber) {
+        try {
+            if (open(true)) {
+                List<String> replay = readLines(Math.max(0, position - replayBytes), position);
+                if (!replay.isEmpty()) {
+                    subscriber.offer(replay);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Not possible to replay [{}]: {}", file.getAbsolutePath(), e.getMessage());
+        }
+        subscribers.add(subscriber);
+    }
+
+    void unsubscribe(LogSubscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    synchronized void poll() {
+        try {
+            if (!open(false)) {
+                return;
+            }
+            long size = channel.size();
+            if (size < position) {
+                position = 0;
+                pending.reset();
+            }
+            List<String> lines = new ArrayList<>();
+            while (position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                position += read;
+                buffer.flip();
+                collectLines(lines);
+            }
+            if (!lines.isEmpty()) {
+                List<String> chunk = Collections.unmodifiableList(lines);
+                subscribers.forEach(subscriber -> subscriber.offer(chunk));
+            }
+        } catch (IOException e) {
+            log.warn("Not possible to tail [{}]: {}", file.getAbsolutePath(), e.getMessage());
+            close();
+        }
+    }
+
+    synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Not possible to close [{}]", file.getAbsolutePath());
+            }
+            channel = null;
+        }
+    }
+
+    private boolean open(boolean fromEnd) throws IOException {
+        if (channel != null) {
+            return true;
+        }
+        if (!file.exists()) {
+            return false;
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        position = fromEnd ? channel.size() : 0;
+        pending.reset();
+        return true;
+    }
+
+    private List<String> readLines(long from, long to) throws IOException {
+        ByteBuffer replay = ByteBuffer.allocate((int) (to - from));
+        while (replay.hasRemaining() && channel.read(replay, from + replay.position()) > 0) {
+        }
+        String text = new String(replay.array(), 0, replay.position(), StandardCharsets.UTF_8);
+        if (from > 0 && text.indexOf('\n') >= 0) {
+            text = text.substring(text.indexOf('\n') + 1);
+        }
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int end = text.indexOf('\n'); end >= 0; end = text.indexOf('\n', start)) {
+            lines.add(text.substring(start, end));
+            start = end + 1;
+        }
+        return lines;
+    }
+
+    private void collectLines(List<String> lines) {
+        while (buffer.hasRemaining()) {
+            byte current = buffer.get();
+            if (current == '\n') {
+                flushPending(lines);
+            } else if (current != '\r') {
+                pending.write(current);
+                if (pending.size() >= maxLineBytes) {
+                    flushPending(lines);
+                }
+            }
+        }
+    }
+
+    private void flushPending(List<String> lines) {
+        lines.add(new String(pending.toByteArray(), StandardCharsets.UTF_8));
+        pending.reset();
+    }
+}
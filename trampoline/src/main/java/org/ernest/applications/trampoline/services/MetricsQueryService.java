@@ -0,0 +1,81 @@
+package org.ernest.applications.trampoline.services;
+
+import org.ernest.applications.trampoline.collectors.MetricsCollector;
+import org.ernest.applications.trampoline.entities.*;
+import org.ernest.applications.trampoline.model.MetricsQuery;
+import org.ernest.applications.trampoline.utils.SeriesAggregator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers metric queries over instances picked by id, microservice or group. The stored series of every selected
+ * instance is folded into the same steps on the server, so every column lines up with a single timestamps array and
+ * the response grows with the number of steps, not with the number of samples in the range.
+ */
+@Component
+public class MetricsQueryService {
+
+    private final FileManager fileManager;
+
+    private final MetricsCollector metricsCollector;
+
+    @Value("${metrics.query.default.range.minutes:10}")
+    private long defaultRangeMinutes;
+
+    @Value("${metrics.query.max.steps:500}")
+    private int maxSteps;
+
+    @Autowired
+    public MetricsQueryService(FileManager fileManager, MetricsCollector metricsCollector) {
+        this.fileManager = fileManager;
+        this.metricsCollector = metricsCollector;
+    }
+
+    public MetricsQueryResult query(MetricsQuery query) {
+        long to = query.getTo() != null ? query.getTo() : System.currentTimeMillis();
+        long from = query.getFrom() != null ? query.getFrom() : to - TimeUnit.MINUTES.toMillis(defaultRangeMinutes);
+        long span = Math.max(0, to - from);
+        long stepMillis = Math.max(1, Math.max(TimeUnit.SECONDS.toMillis(query.getStepSeconds()), (span + maxSteps - 1) / maxSteps));
+        int steps = (int) ((span + stepMillis - 1) / stepMillis);
+        List<MetricsAggregation> aggregations = query.getAggregations().isEmpty() ? Collections.singletonList(MetricsAggregation.AVG) : query.getAggregations();
+        MetricsResolution resolution = query.getResolution() == null || query.getResolution().isEmpty() ? null : MetricsResolution.getByCode(query.getResolution());
+
+        MetricsQueryResult result = new MetricsQueryResult();
+        result.setFrom(from);
+        result.setTo(to);
+        result.setStepMillis(stepMillis);
+        result.setTimestamps(new long[steps]);
+        for (int step = 0; step < steps; step++) {
+            result.getTimestamps()[step] = from + step * stepMillis;
+        }
+        for (Instance instance : select(fileManager.getEcosystem(), query)) {
+            MetricsSeries series = metricsCollector.getInstanceMetrics(instance.getId(), from, to, resolution);
+            if (series == null) {
+                continue;
+            }
+            Collection<String> fields = query.getFields().isEmpty() ? series.getAvg().keySet() : query.getFields();
+            result.getSeries().add(new MetricsQuerySeries(instance.getId(), instance.getName(), series.getResolution(),
+                    SeriesAggregator.aggregate(series, from, stepMillis, steps, fields, aggregations)));
+        }
+        return result;
+    }
+
+    private static Collection<Instance> select(Ecosystem ecosystem, MetricsQuery query) {
+        Set<String> microservicesIds = new LinkedHashSet<>();
+        if (query.getMicroserviceId() != null && !query.getMicroserviceId().isEmpty()) {
+            microservicesIds.add(query.getMicroserviceId());
+        }
+        if (query.getGroupId() != null && !query.getGroupId().isEmpty()) {
+            ecosystem.findMicroservicesGroup(query.getGroupId()).ifPresent(group -> microservicesIds.addAll(group.getMicroservicesIds()));
+        }
+
+        Map<String, Instance> instances = new LinkedHashMap<>();
+        query.getInstanceIds().forEach(id -> ecosystem.findInstance(id).ifPresent(instance -> instances.put(instance.getId(), instance)));
+        microservicesIds.forEach(id -> ecosystem.findInstancesByMicroserviceId(id).forEach(instance -> instances.put(instance.getId(), instance)));
+        return instances.values();
+    }
+}
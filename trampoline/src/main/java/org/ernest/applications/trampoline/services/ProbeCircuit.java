@@ -0,0 +1,53 @@
+package org.ernest.applications.trampoline.services;
+
+/**
+ * Per instance circuit breaker for liveness probes. After a number of consecutive failures the circuit opens and
+ * probing is suspended for a backoff period that doubles on every further failure up to a maximum; the first
+ * successful probe closes it again.
+ */
+class ProbeCircuit {
+
+    private final int failureThreshold;
+
+    private final long initialBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private int failures;
+
+    private long backoffMillis;
+
+    private long openUntil;
+
+    ProbeCircuit(int failureThreshold, long initialBackoffMillis, long maxBackoffMillis) {
+        this.failureThreshold = failureThreshold;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    synchronized boolean allowsProbe(long now) {
+        return now >= openUntil;
+    }
+
+    synchronized void success() {
+        failures = 0;
+        backoffMillis = 0;
+        openUntil = 0;
+    }
+
+    synchronized void failure(long now) {
+        failures++;
+        if (failures >= failureThreshold) {
+            backoffMillis = backoffMillis == 0 ? initialBackoffMillis : Math.min(backoffMillis * 2, maxBackoffMillis);
+            openUntil = now + backoffMillis;
+        }
+    }
+
+    synchronized int getFailures() {
+        return failures;
+    }
+
+    synchronized boolean isOpen(long now) {
+        return now < openUntil;
+    }
+}
@@ -0,0 +1,191 @@
+package org.ernest.applications.trampoline.services;
+
+import org.ernest.applications.trampoline.entities.InstanceProcess;
+import org.ernest.applications.trampoline.entities.ProcessState;
+import org.ernest.applications.trampoline.utils.ScriptContentsProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks instance processes without blocking the launching thread. Each process gets its stdout and stderr drained by
+ * dedicated pumps into bounded buffers and a waiter that moves it to {@link ProcessState#EXITED} once it finishes.
+ * Steps that hand over to something else when they succeed (a build followed by the launch, a script that
+ * daemonizes the application with {@code nohup java}) give the state to move to on a zero exit code instead;
+ * {@link #markRunning} is called once the instance answers its health check. The application such a script leaves
+ * behind is not a child of Trampoline, so its pid is {@link #follow followed} and {@link #reconcile} moves the instance
+ * to {@link ProcessState#EXITED} once that pid is gone, removing the pid file it left so the next start is not taken
+ * for one that is already running.
+ */
+@Component
+public class ProcessSupervisor {
+
+    private final Logger log = LoggerFactory.getLogger(ProcessSupervisor.class);
+
+    private final Map<String, SupervisedProcess> processes = new ConcurrentHashMap<>();
+
+    private final List<Consumer<InstanceProcess>> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "process-supervisor-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${processes.output.lines:200}")
+    private int outputLines;
+
+    public CompletableFuture<Integer> supervise(String instanceId, Process started, ProcessState initialState, ProcessState successState) {
+        Optional.ofNullable(processes.get(instanceId))
+                .filter(SupervisedProcess::isAlive)
+                .ifPresent(previous -> {
+                    previous.destroy();
+                    log.warn("Destroy previous process for [{}]", instanceId);
+                });
+
+        SupervisedProcess process = new SupervisedProcess(instanceId, started, initialState, outputLines);
+        processes.put(instanceId, process);
+        executor.execute(process.stdoutPump());
+        executor.execute(process.stderrPump());
+        executor.execute(process.waiter());
+        process.onExit().thenAccept(code -> {
+            log.info("Process for instance [{}] exited with code [{}]", instanceId, code);
+            if (code == 0 && successState != ProcessState.EXITED) {
+                process.transition(initialState, successState);
+            } else {
+                process.exited(code);
+            }
+            notifyListeners(process);
+        });
+        notifyListeners(process);
+        return process.onExit();
+    }
+
+    public void markRunning(String instanceId) {
+        SupervisedProcess process = processes.get(instanceId);
+        if (process != null && (process.transition(ProcessState.STARTING, ProcessState.RUNNING) || process.transition(ProcessState.BUILDING, ProcessState.RUNNING))) {
+            log.info("Instance [{}] is running", instanceId);
+            notifyListeners(process);
+        }
+    }
+
+    public void follow(String instanceId, File pidFile) {
+        SupervisedProcess process = processes.get(instanceId);
+        if (process == null) {
+            return;
+        }
+        try {
+            Integer pid = ScriptContentsProvider.readPid(pidFile);
+            if (pid != null) {
+                log.info("Following process [{}] of instance [{}]", pid, instanceId);
+                process.follow(pid, pidFile);
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Reading pid file [{}] failed [{}]", pidFile, e.getMessage());
+        }
+    }
+
+    public void reconcile() {
+        processes.forEach((instanceId, process) -> {
+            Integer pid = process.getDaemonPid();
+            if (pid != null && !isAlive(pid) && process.lost()) {
+                log.warn("Process [{}] of instance [{}] is gone", pid, instanceId);
+                removeStalePidFile(process.getPidFile(), pid);
+                notifyListeners(process);
+            }
+        });
+    }
+
+    public void stop(String instanceId) {
+        Optional.ofNullable(processes.get(instanceId))
+                .filter(SupervisedProcess::isAlive)
+                .ifPresent(SupervisedProcess::destroy);
+    }
+
+    public void forget(String instanceId) {
+        stop(instanceId);
+        processes.remove(instanceId);
+    }
+
+    public Optional<InstanceProcess> getProcess(String instanceId) {
+        return Optional.ofNullable(processes.get(instanceId)).map(SupervisedProcess::toInstanceProcess);
+    }
+
+    public List<InstanceProcess> getProcesses() {
+        return processes.values().stream().map(SupervisedProcess::toInstanceProcess).collect(Collectors.toList());
+    }
+
+    public void addListener(Consumer<InstanceProcess> listener) {
+        listeners.add(listener);
+    }
+
+    private void notifyListeners(SupervisedProcess process) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        InstanceProcess snapshot = process.toInstanceProcess();
+        listeners.forEach(listener -> {
+            try {
+                listener.accept(snapshot);
+            } catch (RuntimeException e) {
+                log.warn("Process listener failed [{}]", e.getMessage());
+            }
+        });
+    }
+
+    private void removeStalePidFile(File pidFile, int pid) {
+        try {
+            if (Integer.valueOf(pid).equals(ScriptContentsProvider.readPid(pidFile))) {
+                Files.delete(pidFile.toPath());
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Removing pid file [{}] failed [{}]", pidFile, e.getMessage());
+        }
+    }
+
+    private static boolean isAlive(int pid) {
+        File proc = new File("/proc");
+        if (proc.isDirectory()) {
+            try {
+                String stat = new String(Files.readAllBytes(new File(proc, pid + "/stat").toPath()), StandardCharsets.UTF_8);
+                int command = stat.lastIndexOf(')');
+                return command < 0 || command + 2 >= stat.length() || stat.charAt(command + 2) != 'Z';
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        try {
+            return new ProcessBuilder("kill", "-0", String.valueOf(pid)).redirectErrorStream(true).start().waitFor() == 0;
+        } catch (IOException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,110 @@
+package org.ernest.applications.trampoline.services;
+
+import org.ernest.applications.trampoline.entities.Alert;
+import org.ernest.applications.trampoline.entities.AlertRule;
+import org.ernest.applications.trampoline.entities.AlertRuleType;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * State of one alert rule for one instance. Only what the rule needs to decide on the next event is kept: when the
+ * threshold was first breached, the previous sample for rates and the timestamps of the transitions still inside the
+ * window, so each sample or transition is evaluated in constant time without looking back at history.
+ */
+class RuleEvaluation {
+
+    private final AlertRule rule;
+
+    private final String instanceId;
+
+    private final ArrayDeque<Long> transitions = new ArrayDeque<>();
+
+    private long breachedSince = -1;
+
+    private long previousTimestamp = -1;
+
+    private long previousValue;
+
+    private double value;
+
+    private Alert firing;
+
+    RuleEvaluation(AlertRule rule, String instanceId) {
+        this.rule = rule;
+        this.instanceId = instanceId;
+    }
+
+    boolean onSample(long timestamp, Map<String, Long> sample) {
+        Long current = sample.get(rule.getMetric());
+        if (current == null) {
+            return firing != null;
+        }
+        Double observed = observe(timestamp, current, sample);
+        previousTimestamp = timestamp;
+        previousValue = current;
+        if (observed == null) {
+            return firing != null;
+        }
+        value = observed;
+        if (observed <= rule.getThreshold()) {
+            breachedSince = -1;
+            return false;
+        }
+        if (breachedSince < 0) {
+            breachedSince = timestamp;
+        }
+        return timestamp - breachedSince >= TimeUnit.SECONDS.toMillis(rule.getDurationSeconds());
+    }
+
+    boolean onTransition(long timestamp, String status) {
+        if (status.equals(rule.getStatus())) {
+            transitions.addLast(timestamp);
+        }
+        return expire(timestamp);
+    }
+
+    boolean expire(long now) {
+        long windowStart = now - TimeUnit.SECONDS.toMillis(rule.getWindowSeconds());
+        while (!transitions.isEmpty() && (transitions.peekFirst() < windowStart || transitions.size() > rule.getCount())) {
+            transitions.pollFirst();
+        }
+        value = transitions.size();
+        return transitions.size() >= rule.getCount();
+    }
+
+    AlertRule getRule() {
+        return rule;
+    }
+
+    String getInstanceId() {
+        return instanceId;
+    }
+
+    double getValue() {
+        return value;
+    }
+
+    Alert getFiring() {
+        return firing;
+    }
+
+    void setFiring(Alert firing) {
+        this.firing = firing;
+    }
+
+    private Double observe(long timestamp, long current, Map<String, Long> sample) {
+        if (rule.getType() == AlertRuleType.RATE) {
+            if (previousTimestamp < 0 || timestamp <= previousTimestamp || current < previousValue) {
+                return null;
+            }
+            return (current - previousValue) * (double) TimeUnit.MINUTES.toMillis(1) / (timestamp - previousTimestamp);
+        }
+        if (rule.getRatioOf() == null || rule.getRatioOf().isEmpty()) {
+            return (double) current;
+        }
+        Long total = sample.get(rule.getRatioOf());
+        return total == null || total <= 0 ? null : current * 100.0 / total;
+    }
+}
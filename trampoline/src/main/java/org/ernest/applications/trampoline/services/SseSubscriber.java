@@ -0,0 +1,83 @@
+package org.ernest.applications.trampoline.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One browser connection fed through a bounded queue. Events are written to the emitter by a single drain task at a
+ * time on the given executor, so a slow client never blocks the producer. Subclasses decide what happens when the
+ * queue overflows and may report it through a notice sent ahead of the next queued event.
+ */
+abstract class SseSubscriber<E> {
+
+    private final SseEmitter emitter;
+
+    private final BlockingQueue<E> queue;
+
+    private final Executor executor;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    SseSubscriber(SseEmitter emitter, int capacity, Executor executor) {
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.executor = executor;
+    }
+
+    void offer(E event) {
+        if (!queue.offer(event)) {
+            overflowed(event, queue);
+        }
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    void heartbeat() {
+        try {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        } catch (IOException | IllegalStateException e) {
+            failed();
+        }
+    }
+
+    abstract void overflowed(E rejected, Queue<E> queue);
+
+    abstract boolean hasNotice();
+
+    abstract SseEmitter.SseEventBuilder takeNotice();
+
+    abstract SseEmitter.SseEventBuilder toEvent(E event);
+
+    abstract void failed();
+
+    private void drain() {
+        try {
+            E event;
+            do {
+                if (hasNotice()) {
+                    emitter.send(takeNotice());
+                }
+                event = queue.poll();
+                if (event != null) {
+                    emitter.send(toEvent(event));
+                }
+            } while (event != null);
+        } catch (IOException | IllegalStateException e) {
+            queue.clear();
+            failed();
+            return;
+        } finally {
+            draining.set(false);
+        }
+        if ((!queue.isEmpty() || hasNotice()) && draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.ernest.applications.trampoline.services;
+
+import org.apache.commons.collections4.queue.CircularFifoQueue;
+import org.ernest.applications.trampoline.entities.InstanceProcess;
+import org.ernest.applications.trampoline.entities.ProcessState;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class SupervisedProcess {
+
+    private static final long DRAIN_TIMEOUT_MILLIS = 1000;
+
+    private final String instanceId;
+
+    private final Process process;
+
+    private final Queue<String> stdout;
+
+    private final Queue<String> stderr;
+
+    private final CompletableFuture<Integer> exit = new CompletableFuture<>();
+
+    private final CountDownLatch drained = new CountDownLatch(2);
+
+    private volatile ProcessState state;
+
+    private volatile Integer exitCode;
+
+    private volatile long since = System.currentTimeMillis();
+
+    private volatile Integer daemonPid;
+
+    private volatile File pidFile;
+
+    SupervisedProcess(String instanceId, Process process, ProcessState state, int outputLines) {
+        this.instanceId = instanceId;
+        this.process = process;
+        this.state = state;
+        this.stdout = new CircularFifoQueue<>(outputLines);
+        this.stderr = new CircularFifoQueue<>(outputLines);
+    }
+
+    Runnable stdoutPump() {
+        return () -> pump(process.getInputStream(), stdout);
+    }
+
+    Runnable stderrPump() {
+        return () -> pump(process.getErrorStream(), stderr);
+    }
+
+    Runnable waiter() {
+        return () -> {
+            try {
+                int code = process.waitFor();
+                drained.await(DRAIN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                exit.complete(code);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exit.completeExceptionally(e);
+            }
+        };
+    }
+
+    private void pump(InputStream stream, Queue<String> buffer) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                synchronized (buffer) {
+                    buffer.add(line);
+                }
+            }
+        } catch (IOException e) {
+            synchronized (buffer) {
+                buffer.add("[output closed: " + e.getMessage() + "]");
+            }
+        } finally {
+            drained.countDown();
+        }
+    }
+
+    CompletableFuture<Integer> onExit() {
+        return exit;
+    }
+
+    synchronized boolean transition(ProcessState from, ProcessState to) {
+        if (state != from) {
+            return false;
+        }
+        if (from == to) {
+            return true;
+        }
+        state = to;
+        since = System.currentTimeMillis();
+        return true;
+    }
+
+    synchronized void exited(int code) {
+        state = ProcessState.EXITED;
+        exitCode = code;
+        since = System.currentTimeMillis();
+    }
+
+    synchronized boolean lost() {
+        if (state != ProcessState.STARTING && state != ProcessState.RUNNING) {
+            return false;
+        }
+        state = ProcessState.EXITED;
+        since = System.currentTimeMillis();
+        synchronized (stderr) {
+            stderr.add("[process " + daemonPid + " is gone]");
+        }
+        return true;
+    }
+
+    void follow(int pid, File pidFile) {
+        this.pidFile = pidFile;
+        daemonPid = pid;
+    }
+
+    Integer getDaemonPid() {
+        return daemonPid;
+    }
+
+    File getPidFile() {
+        return pidFile;
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    void destroy() {
+        process.destroy();
+    }
+
+    ProcessState getState() {
+        return state;
+    }
+
+    synchronized InstanceProcess toInstanceProcess() {
+        InstanceProcess snapshot = new InstanceProcess();
+        snapshot.setInstanceId(instanceId);
+        snapshot.setState(state);
+        snapshot.setExitCode(exitCode);
+        snapshot.setSince(since);
+        synchronized (stdout) {
+            snapshot.setStdout(new ArrayList<>(stdout));
+        }
+        synchronized (stderr) {
+            snapshot.setStderr(new ArrayList<>(stderr));
+        }
+        return snapshot;
+    }
+}
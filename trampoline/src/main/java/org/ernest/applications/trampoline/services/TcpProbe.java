@@ -0,0 +1,24 @@
+package org.ernest.applications.trampoline.services;
+
+import org.ernest.applications.trampoline.entities.Instance;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+class TcpProbe implements LivenessProbe {
+
+    private final int connectTimeoutMillis;
+
+    TcpProbe(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    @Override
+    public boolean isAlive(Instance instance) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(instance.getIp(), Integer.parseInt(instance.getPort())), connectTimeoutMillis);
+            return true;
+        }
+    }
+}
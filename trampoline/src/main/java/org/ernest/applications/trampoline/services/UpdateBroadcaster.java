@@ -0,0 +1,87 @@
+package org.ernest.applications.trampoline.services;
+
+import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server push channel shared by every open page. Producers publish to a topic once and the payload is serialized a
+ * single time for all subscribed tabs; when nobody is subscribed to a topic publishing costs nothing.
+ */
+@Component
+public class UpdateBroadcaster {
+
+    public static final String STATUS_TOPIC = "status";
+
+    public static final String METRICS_TOPIC = "metrics";
+
+    public static final String HOST_TOPIC = "host";
+
+    public static final String ALERTS_TOPIC = "alerts";
+
+    private final Logger log = LoggerFactory.getLogger(UpdateBroadcaster.class);
+
+    private final CopyOnWriteArrayList<UpdateSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    @Value("${updates.stream.queue.events:128}")
+    private int queueEvents;
+
+    @Value("${updates.stream.timeout.millis:1800000}")
+    private long timeoutMillis;
+
+    private ExecutorService senders;
+
+    @PostConstruct
+    public void start() {
+        senders = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "update-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        senders.shutdownNow();
+        subscribers.clear();
+    }
+
+    public SseEmitter subscribe(Set<String> topics) {
+        log.info("Streaming updates for topics {}", topics);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        UpdateSubscriber subscriber = new UpdateSubscriber(emitter, topics, queueEvents, senders, subscribers::remove);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public boolean hasSubscribers(String topic) {
+        return subscribers.stream().anyMatch(subscriber -> subscriber.isSubscribed(topic));
+    }
+
+    public void publish(String topic, Object payload) {
+        if (!hasSubscribers(topic)) {
+            return;
+        }
+        String json = new Gson().toJson(payload);
+        subscribers.stream().filter(subscriber -> subscriber.isSubscribed(topic)).forEach(subscriber -> subscriber.offer(topic, json));
+    }
+
+    @Scheduled(fixedDelayString = "${updates.stream.heartbeat.millis:30000}")
+    public void heartbeat() {
+        subscribers.forEach(UpdateSubscriber::heartbeat);
+    }
+}
@@ -0,0 +1,67 @@
+package org.ernest.applications.trampoline.services;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * One browser connection to the update stream. Events arrive already serialized; when a slow client overflows its
+ * queue the pending events are discarded and a single resync event is sent instead, telling the page to reload its
+ * state with a regular request.
+ */
+class UpdateSubscriber extends SseSubscriber<String[]> {
+
+    static final String RESYNC_EVENT = "resync";
+
+    private final Set<String> topics;
+
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    private final Consumer<UpdateSubscriber> onFailure;
+
+    UpdateSubscriber(SseEmitter emitter, Set<String> topics, int capacity, Executor executor, Consumer<UpdateSubscriber> onFailure) {
+        super(emitter, capacity, executor);
+        this.topics = topics;
+        this.onFailure = onFailure;
+    }
+
+    boolean isSubscribed(String topic) {
+        return topics.contains(topic);
+    }
+
+    void offer(String topic, String json) {
+        offer(new String[]{topic, json});
+    }
+
+    @Override
+    void overflowed(String[] rejected, Queue<String[]> queue) {
+        queue.clear();
+        overflowed.set(true);
+    }
+
+    @Override
+    boolean hasNotice() {
+        return overflowed.get();
+    }
+
+    @Override
+    SseEmitter.SseEventBuilder takeNotice() {
+        overflowed.set(false);
+        return SseEmitter.event().name(RESYNC_EVENT).data("");
+    }
+
+    @Override
+    SseEmitter.SseEventBuilder toEvent(String[] event) {
+        return SseEmitter.event().name(event[0]).data(event[1], MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    void failed() {
+        onFailure.accept(this);
+    }
+}
@@ -0,0 +1,306 @@
+package org.ernest.applications.trampoline.utils;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.ernest.applications.trampoline.utils.BinaryJsonTokens.*;
+
+/**
+ * Streaming {@link JsonReader} over a buffer (typically memory mapped) written by {@link BinaryJsonWriter}. Tokens
+ * are decoded on demand straight from the buffer, so Gson can bind the snapshot without an intermediate string or
+ * tree.
+ */
+public class BinaryJsonReader extends JsonReader {
+
+    private final ByteBuffer buffer;
+
+    private final List<String> names = new ArrayList<>();
+
+    private byte[] scratch = new byte[256];
+
+    public BinaryJsonReader(ByteBuffer buffer) throws IOException {
+        super(new UnsupportedReader());
+        this.buffer = buffer;
+        for (byte expected : MAGIC) {
+            if (!buffer.hasRemaining() || buffer.get() != expected) {
+                throw new IOException("Not a Trampoline binary snapshot");
+            }
+        }
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        byte tag = peekTag();
+        switch (tag) {
+            case END_DOCUMENT:
+                return JsonToken.END_DOCUMENT;
+            case BEGIN_OBJECT:
+                return JsonToken.BEGIN_OBJECT;
+            case END_OBJECT:
+                return JsonToken.END_OBJECT;
+            case BEGIN_ARRAY:
+                return JsonToken.BEGIN_ARRAY;
+            case END_ARRAY:
+                return JsonToken.END_ARRAY;
+            case NAME_DEFINITION:
+            case NAME_REFERENCE:
+                return JsonToken.NAME;
+            case STRING:
+                return JsonToken.STRING;
+            case TRUE:
+            case FALSE:
+                return JsonToken.BOOLEAN;
+            case NULL:
+                return JsonToken.NULL;
+            case LONG:
+            case DOUBLE:
+            case NUMBER:
+                return JsonToken.NUMBER;
+            default:
+                throw syntaxError("Unknown tag " + tag);
+        }
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(BEGIN_ARRAY);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(END_ARRAY);
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(BEGIN_OBJECT);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(END_OBJECT);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        byte tag = peekTag();
+        return tag != END_OBJECT && tag != END_ARRAY && tag != END_DOCUMENT;
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        byte tag = buffer.get();
+        if (tag == NAME_REFERENCE) {
+            return names.get((int) readVarLong());
+        }
+        if (tag == NAME_DEFINITION) {
+            String name = readUtf();
+            names.add(name);
+            return name;
+        }
+        throw syntaxError("Expected a name but was tag " + tag);
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        byte tag = buffer.get();
+        switch (tag) {
+            case STRING:
+            case NUMBER:
+                return readUtf();
+            case LONG:
+                return String.valueOf(readZigZag());
+            case DOUBLE:
+                return String.valueOf(buffer.getDouble());
+            default:
+                throw syntaxError("Expected a string but was tag " + tag);
+        }
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        byte tag = buffer.get();
+        if (tag == TRUE) {
+            return true;
+        }
+        if (tag == FALSE) {
+            return false;
+        }
+        throw syntaxError("Expected a boolean but was tag " + tag);
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        expect(NULL);
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        byte tag = peekTag();
+        double value;
+        if (tag == DOUBLE) {
+            buffer.get();
+            value = buffer.getDouble();
+        } else if (tag == LONG) {
+            buffer.get();
+            value = readZigZag();
+        } else if (tag == NUMBER || tag == STRING) {
+            String text = nextString();
+            try {
+                value = Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException("Expected a double but was " + text);
+            }
+        } else {
+            throw syntaxError("Expected a double but was tag " + tag);
+        }
+        if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+            throw new NumberFormatException("JSON forbids NaN and infinities: " + value);
+        }
+        return value;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        byte tag = peekTag();
+        if (tag == LONG) {
+            buffer.get();
+            return readZigZag();
+        }
+        double value = nextDouble();
+        long result = (long) value;
+        if (result != value) {
+            throw new NumberFormatException("Expected a long but was " + value);
+        }
+        return result;
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        int result = (int) value;
+        if (result != value) {
+            throw new NumberFormatException("Expected an int but was " + value);
+        }
+        return result;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            byte tag = buffer.get();
+            switch (tag) {
+                case BEGIN_OBJECT:
+                case BEGIN_ARRAY:
+                    depth++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    break;
+                case NAME_DEFINITION:
+                    names.add(readUtf());
+                    break;
+                case NAME_REFERENCE:
+                    readVarLong();
+                    break;
+                case STRING:
+                case NUMBER:
+                    skipBytes((int) readVarLong());
+                    break;
+                case LONG:
+                    readVarLong();
+                    break;
+                case DOUBLE:
+                    skipBytes(Double.BYTES);
+                    break;
+                case TRUE:
+                case FALSE:
+                case NULL:
+                    break;
+                default:
+                    throw syntaxError("Unknown tag " + tag);
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String getPath() {
+        return "$ (offset " + buffer.position() + ")";
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " at offset " + buffer.position();
+    }
+
+    private byte peekTag() {
+        return buffer.hasRemaining() ? buffer.get(buffer.position()) : END_DOCUMENT;
+    }
+
+    private void expect(byte expected) throws IOException {
+        byte tag = buffer.get();
+        if (tag != expected) {
+            throw syntaxError("Expected tag " + expected + " but was " + tag);
+        }
+    }
+
+    private String readUtf() {
+        int length = (int) readVarLong();
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private long readZigZag() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+    private void skipBytes(int length) {
+        buffer.position(buffer.position() + length);
+    }
+
+    private JsonSyntaxException syntaxError(String message) {
+        return new JsonSyntaxException(message + " " + getPath());
+    }
+
+    private static class UnsupportedReader extends Reader {
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            throw new UnsupportedOperationException("Binary snapshots are not read as text");
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
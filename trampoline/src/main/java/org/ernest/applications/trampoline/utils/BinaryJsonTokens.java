@@ -0,0 +1,24 @@
+package org.ernest.applications.trampoline.utils;
+
+final class BinaryJsonTokens {
+
+    static final byte[] MAGIC = {'T', 'R', 'M', 'P', 'B', 'I', 'N', 1};
+
+    static final byte END_DOCUMENT = 0;
+    static final byte BEGIN_OBJECT = 1;
+    static final byte END_OBJECT = 2;
+    static final byte BEGIN_ARRAY = 3;
+    static final byte END_ARRAY = 4;
+    static final byte NAME_DEFINITION = 5;
+    static final byte NAME_REFERENCE = 6;
+    static final byte STRING = 7;
+    static final byte TRUE = 8;
+    static final byte FALSE = 9;
+    static final byte NULL = 10;
+    static final byte LONG = 11;
+    static final byte DOUBLE = 12;
+    static final byte NUMBER = 13;
+
+    private BinaryJsonTokens() {
+    }
+}
@@ -0,0 +1,222 @@
+package org.ernest.applications.trampoline.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.internal.Streams;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.ernest.applications.trampoline.utils.BinaryJsonTokens.*;
+
+/**
+ * {@link JsonWriter} producing the compact binary snapshot format read by {@link BinaryJsonReader}: one tag byte per
+ * token, varint lengths, integers as zig-zag varints and every property name written once and then referenced by
+ * index. Other numbers keep their textual form so a JSON export is lossless.
+ */
+public class BinaryJsonWriter extends JsonWriter {
+
+    private static final Pattern INTEGRAL = Pattern.compile("-?(0|[1-9][0-9]{0,17})");
+
+    private final DataOutputStream out;
+
+    private final Map<String, Integer> names = new HashMap<>();
+
+    private String deferredName;
+
+    public BinaryJsonWriter(OutputStream out) throws IOException {
+        super(new UnsupportedWriter());
+        this.out = new DataOutputStream(out);
+        this.out.write(MAGIC);
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        writeDeferredName();
+        out.writeByte(BEGIN_ARRAY);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        out.writeByte(END_ARRAY);
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        writeDeferredName();
+        out.writeByte(BEGIN_OBJECT);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        deferredName = null;
+        out.writeByte(END_OBJECT);
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        if (name == null) {
+            throw new NullPointerException("name == null");
+        }
+        if (deferredName != null) {
+            throw new IllegalStateException("Name [" + name + "] written after name [" + deferredName + "]");
+        }
+        deferredName = name;
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        out.writeByte(STRING);
+        writeUtf(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (INTEGRAL.matcher(value).matches()) {
+            return value(Long.parseLong(value));
+        }
+        JsonElement element = new JsonParser().parse(value);
+        Streams.write(element, this);
+        return this;
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (deferredName != null && !getSerializeNulls()) {
+            deferredName = null;
+            return this;
+        }
+        writeDeferredName();
+        out.writeByte(NULL);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        writeDeferredName();
+        out.writeByte(value ? TRUE : FALSE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) throws IOException {
+        return value == null ? nullValue() : value(value.booleanValue());
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        writeDeferredName();
+        out.writeByte(DOUBLE);
+        out.writeDouble(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        writeDeferredName();
+        out.writeByte(LONG);
+        writeVarLong((value << 1) ^ (value >> 63));
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return value(value.longValue());
+        }
+        String text = value.toString();
+        if (INTEGRAL.matcher(text).matches()) {
+            return value(Long.parseLong(text));
+        }
+        if (!isLenient() && (text.equals("-Infinity") || text.equals("Infinity") || text.equals("NaN"))) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        writeDeferredName();
+        out.writeByte(NUMBER);
+        writeUtf(text);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.writeByte(END_DOCUMENT);
+        out.close();
+    }
+
+    private void writeDeferredName() throws IOException {
+        if (deferredName == null) {
+            return;
+        }
+        Integer index = names.get(deferredName);
+        if (index != null) {
+            out.writeByte(NAME_REFERENCE);
+            writeVarLong(index);
+        } else {
+            names.put(deferredName, names.size());
+            out.writeByte(NAME_DEFINITION);
+            writeUtf(deferredName);
+        }
+        deferredName = null;
+    }
+
+    private void writeUtf(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static class UnsupportedWriter extends Writer {
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            throw new UnsupportedOperationException("Binary snapshots are not written as text");
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
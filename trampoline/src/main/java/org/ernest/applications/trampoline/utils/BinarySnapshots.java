@@ -0,0 +1,108 @@
+package org.ernest.applications.trampoline.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes settings snapshots in the binary encoding of {@link BinaryJsonReader} and {@link BinaryJsonWriter}.
+ * Snapshots are copied into a heap buffer rather than mapped, so no mapping outlives the read and the file can be
+ * replaced right after it, which Windows refuses while a mapping is open.
+ */
+public class BinarySnapshots {
+
+    private BinarySnapshots() {
+    }
+
+    public static JsonElement readTree(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            return new JsonParser().parse(new BinaryJsonReader(load(channel)));
+        }
+    }
+
+    public static <T> T read(Path snapshot, Type type) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            return new Gson().fromJson(new BinaryJsonReader(load(channel)), type);
+        }
+    }
+
+    public static void write(Object value, OutputStream out) throws IOException {
+        try (JsonWriter writer = new BinaryJsonWriter(new BufferedOutputStream(out))) {
+            new Gson().toJson(value, value.getClass(), writer);
+        }
+    }
+
+    public static void exportToJson(Path snapshot, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ);
+             JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)))) {
+            transfer(new BinaryJsonReader(load(channel)), writer);
+        }
+    }
+
+    public static void importFromJson(Path json, OutputStream out) throws IOException {
+        try (JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(new FileInputStream(json.toFile()), StandardCharsets.UTF_8)));
+             JsonWriter writer = new BinaryJsonWriter(new BufferedOutputStream(out))) {
+            transfer(reader, writer);
+        }
+    }
+
+    public static void transfer(JsonReader in, JsonWriter out) throws IOException {
+        switch (in.peek()) {
+            case BEGIN_OBJECT:
+                in.beginObject();
+                out.beginObject();
+                while (in.hasNext()) {
+                    out.name(in.nextName());
+                    transfer(in, out);
+                }
+                in.endObject();
+                out.endObject();
+                break;
+            case BEGIN_ARRAY:
+                in.beginArray();
+                out.beginArray();
+                while (in.hasNext()) {
+                    transfer(in, out);
+                }
+                in.endArray();
+                out.endArray();
+                break;
+            case STRING:
+                out.value(in.nextString());
+                break;
+            case NUMBER:
+                out.jsonValue(in.nextString());
+                break;
+            case BOOLEAN:
+                out.value(in.nextBoolean());
+                break;
+            case NULL:
+                in.nextNull();
+                out.nullValue();
+                break;
+            default:
+                throw new IOException("Unexpected token " + in.peek() + " at " + in.getPath());
+        }
+    }
+
+    private static ByteBuffer load(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Snapshot shrank while it was being read");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
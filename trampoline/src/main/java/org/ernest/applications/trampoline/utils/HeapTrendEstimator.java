@@ -0,0 +1,101 @@
+package org.ernest.applications.trampoline.utils;
+
+/**
+ * Online trend of the heap left after garbage collection for one instance. Used heap is reduced to its minimum per
+ * bucket, which is what survives a collection, and those minima feed an exponentially weighted least squares fit, so
+ * the estimator keeps a handful of sums whatever the age of the instance and old behaviour fades out with the
+ * configured half life. Sums are kept relative to the latest point, which is also where the projection starts.
+ * Samples without any used heap are missing reads, not a collection, and are ignored so they cannot pose as a floor.
+ */
+public class HeapTrendEstimator {
+
+    private static final double MINUTE_MILLIS = 60_000d;
+
+    private final long bucketMillis;
+
+    private final double halfLifeMinutes;
+
+    private long bucketStart = -1;
+
+    private long bucketMinAt;
+
+    private long bucketMin;
+
+    private long lastAt;
+
+    private double weight;
+
+    private double sumX;
+
+    private double sumY;
+
+    private double sumXX;
+
+    private double sumXY;
+
+    private int points;
+
+    public HeapTrendEstimator(long bucketMillis, double halfLifeMinutes) {
+        this.bucketMillis = bucketMillis;
+        this.halfLifeMinutes = halfLifeMinutes;
+    }
+
+    public void add(long timestamp, long usedHeapKB) {
+        if (usedHeapKB <= 0) {
+            return;
+        }
+        if (bucketStart < 0) {
+            startBucket(timestamp, usedHeapKB);
+            return;
+        }
+        if (timestamp - bucketStart >= bucketMillis) {
+            fold(bucketMinAt, bucketMin);
+            startBucket(timestamp, usedHeapKB);
+        } else if (usedHeapKB <= bucketMin) {
+            bucketMin = usedHeapKB;
+            bucketMinAt = timestamp;
+        }
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public double getSlopeKBPerMinute() {
+        double denominator = weight * sumXX - sumX * sumX;
+        return points < 2 || denominator <= 0 ? 0 : (weight * sumXY - sumX * sumY) / denominator;
+    }
+
+    public double getProjectedKB() {
+        if (points == 0) {
+            return 0;
+        }
+        return (sumY - getSlopeKBPerMinute() * sumX) / weight;
+    }
+
+    public double getMinutesToReach(long limitKB) {
+        double slope = getSlopeKBPerMinute();
+        if (limitKB <= 0 || slope <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.max(0, (limitKB - getProjectedKB()) / slope);
+    }
+
+    private void startBucket(long timestamp, long usedHeapKB) {
+        bucketStart = timestamp;
+        bucketMin = usedHeapKB;
+        bucketMinAt = timestamp;
+    }
+
+    private void fold(long timestamp, double y) {
+        double shift = points == 0 ? 0 : (timestamp - lastAt) / MINUTE_MILLIS;
+        double decay = Math.pow(0.5, shift / halfLifeMinutes);
+        sumXX = (sumXX - 2 * shift * sumX + shift * shift * weight) * decay;
+        sumXY = (sumXY - shift * sumY) * decay;
+        sumX = (sumX - shift * weight) * decay;
+        sumY = sumY * decay + y;
+        weight = weight * decay + 1;
+        lastAt = timestamp;
+        points++;
+    }
+}
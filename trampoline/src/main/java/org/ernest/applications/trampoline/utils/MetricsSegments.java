@@ -0,0 +1,177 @@
+package org.ernest.applications.trampoline.utils;
+
+import org.ernest.applications.trampoline.entities.MetricsResolution;
+import org.ernest.applications.trampoline.entities.MetricsSeries;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Append only metrics history on disk. Samples go to fixed size memory mapped segment files named after the time
+ * of their first sample; a new segment is started when the current one is full or older than the rollover period,
+ * and whole segments are deleted once they fall out of the retention period. Each record is written before its
+ * timestamp, so readers see either a complete record or the zeroed end of the segment.
+ */
+public class MetricsSegments {
+
+    private static final int MAGIC = 0x54524d53;
+
+    private static final String SUFFIX = ".seg";
+
+    private final File folder;
+
+    private final String[] fields;
+
+    private final int segmentBytes;
+
+    private final long rolloverMillis;
+
+    private final long retentionMillis;
+
+    private final TreeMap<Long, File> segments = new TreeMap<>();
+
+    private MappedByteBuffer active;
+
+    private long activeStart;
+
+    public MetricsSegments(File folder, String[] fields, int segmentBytes, long rolloverMillis, long retentionMillis) {
+        this.folder = folder;
+        this.fields = fields.clone();
+        this.segmentBytes = segmentBytes;
+        this.rolloverMillis = rolloverMillis;
+        this.retentionMillis = retentionMillis;
+        folder.mkdirs();
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        for (File file : files == null ? new File[0] : files) {
+            try {
+                segments.put(Long.parseLong(file.getName().substring(0, file.getName().length() - SUFFIX.length())), file);
+            } catch (NumberFormatException e) {
+                // not one of ours
+            }
+        }
+    }
+
+    public synchronized void append(String id, long timestamp, long[] values) throws IOException {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        int recordBytes = Long.BYTES + Short.BYTES + idBytes.length + values.length * Long.BYTES;
+        if (active == null || timestamp - activeStart >= rolloverMillis || active.remaining() < recordBytes + Long.BYTES) {
+            rollover(timestamp);
+        }
+        int start = active.position();
+        active.position(start + Long.BYTES);
+        active.putShort((short) idBytes.length);
+        active.put(idBytes);
+        for (long value : values) {
+            active.putLong(value);
+        }
+        active.putLong(start, timestamp);
+    }
+
+    public synchronized MetricsSeries query(String id, long from, long to, MetricsResolution resolution) throws IOException {
+        List<Long> timestamps = new ArrayList<>();
+        List<long[]> values = new ArrayList<>();
+        for (File segment : overlapping(from, to)) {
+            read(segment, id, from, to, timestamps, values);
+        }
+        if (timestamps.isEmpty()) {
+            return null;
+        }
+        SeriesRing ring = new SeriesRing(resolution, timestamps.size(), fields.length);
+        for (int i = 0; i < timestamps.size(); i++) {
+            ring.add(timestamps.get(i), values.get(i));
+        }
+        return ring.slice(id, fields, from, to);
+    }
+
+    public synchronized void deleteExpired(long now) {
+        Long next;
+        while (segments.size() > 1 && (next = segments.higherKey(segments.firstKey())) != null && next < now - retentionMillis) {
+            File expired = segments.pollFirstEntry().getValue();
+            if (!expired.delete()) {
+                expired.deleteOnExit();
+            }
+        }
+    }
+
+    public synchronized void close() {
+        if (active != null) {
+            active.force();
+            active = null;
+        }
+    }
+
+    private List<File> overlapping(long from, long to) {
+        Long first = segments.floorKey(from);
+        return new ArrayList<>(segments.subMap(first == null ? Long.MIN_VALUE : first, true, to, true).values());
+    }
+
+    private void rollover(long timestamp) throws IOException {
+        close();
+        File file = new File(folder, timestamp + SUFFIX);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(segmentBytes);
+            active = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        active.putInt(MAGIC);
+        active.putShort((short) fields.length);
+        for (String field : fields) {
+            byte[] name = field.getBytes(StandardCharsets.UTF_8);
+            active.putShort((short) name.length);
+            active.put(name);
+        }
+        activeStart = timestamp;
+        segments.put(timestamp, file);
+    }
+
+    private void read(File segment, String id, long from, long to, List<Long> timestamps, List<long[]> values) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment.toPath())) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < Integer.BYTES || buffer.getInt() != MAGIC) {
+            return;
+        }
+        int[] columns = readColumns(buffer);
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        while (buffer.remaining() >= Long.BYTES) {
+            long timestamp = buffer.getLong();
+            if (timestamp == 0) {
+                return;
+            }
+            byte[] recordId = new byte[buffer.getShort()];
+            buffer.get(recordId);
+            boolean matches = timestamp >= from && timestamp <= to && Arrays.equals(idBytes, recordId);
+            long[] record = new long[fields.length];
+            for (int column : columns) {
+                long value = buffer.getLong();
+                if (column >= 0) {
+                    record[column] = value;
+                }
+            }
+            if (matches) {
+                timestamps.add(timestamp);
+                values.add(record);
+            }
+        }
+    }
+
+    private int[] readColumns(ByteBuffer buffer) {
+        List<String> current = Arrays.asList(fields);
+        int[] columns = new int[buffer.getShort()];
+        for (int i = 0; i < columns.length; i++) {
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            columns[i] = current.indexOf(new String(name, StandardCharsets.UTF_8));
+        }
+        return columns;
+    }
+}
@@ -1,13 +1,20 @@
 package org.ernest.applications.trampoline.utils;
 
 import org.apache.commons.io.IOUtils;
+import org.ernest.applications.trampoline.entities.Instance;
 import org.ernest.applications.trampoline.entities.MicroService;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.stream.Collectors;
 
 public class ScriptContentsProvider {
 
+    private static final String RUN_DIR = "run/trampoline";
+
     public static String getMavenWindows(String pomLocation) {
         return "SET M2_HOME=#mavenHomeLocation&& SET PATH=%PATH%;#mavenBinaryLocation&& cd " + pomLocation + " && mvn spring-boot:run -Dserver.port=#port "
                 + "-Dendpoints.shutdown.enabled=true -Dmanagement.security.enabled=false -Dmanagement.info.git.mode=full -Dmanagement.endpoints.web.exposure.include=* -Dmanagement.endpoint.shutdown.enabled=true #vmArguments";
@@ -31,7 +38,34 @@ public class ScriptContentsProvider {
         //" mvn spring-boot:run -Dmaven.test.skip=true -Dserver.port=$3 -Dendpoints.shutdown.enabled=true -Dmanagement.security.enabled=false -Dmanagement.info.git.mode=full -Dmanagement.endpoints.web.exposure.include=* -Dmanagement.endpoint.shutdown.enabled=true $4";
     }
 
-    public static String getGradleUnix(String pomLocation) {
-        return "export SERVER_PORT=$1; export ENDPOINTS_SHUTDOWN_ENABLED=true; export MANAGEMENT_SECURITY_ENABLED=false; export MANAGEMENT_INFO_GIT_MODE=full; export MANAGEMENT_ENDPOINTS_WEB_EXPOSURE_INCLUDE=*; export MANAGEMENT_ENDPOINT_SHUTDOWN_ENABLED=true $2; cd " + pomLocation + "; ./gradlew bootRun";
+    public static String getGradleUnix(MicroService microservice) {
+        return "export SERVER_PORT=$1; export ENDPOINTS_SHUTDOWN_ENABLED=true; export MANAGEMENT_SECURITY_ENABLED=false; export MANAGEMENT_INFO_GIT_MODE=full; export MANAGEMENT_ENDPOINTS_WEB_EXPOSURE_INCLUDE=*; export MANAGEMENT_ENDPOINT_SHUTDOWN_ENABLED=true $2; cd " + microservice.getPomLocation() + "; "
+                + "mkdir -p " + RUN_DIR + "; if [ -f " + getOutputFile(microservice) + " ]; then cp -f " + getOutputFile(microservice) + " " + getOutputFile(microservice) + ".1; fi; "
+                + "./gradlew bootRun 2>&1 | tee " + getOutputFile(microservice);
+    }
+
+    public static String getJarFile(MicroService microservice) {
+        return microservice.getPomLocation() + "/" + RUN_DIR + "/" + microservice.getName() + ".jar";
+    }
+
+    public static String getOutputFile(MicroService microservice) {
+        return microservice.getPomLocation() + "/" + RUN_DIR + "/" + microservice.getName() + ".out";
+    }
+
+    public static String getPidFile(Instance instance) {
+        return instance.getPomLocation() + "/" + RUN_DIR + "/" + instance.getName() + ".pid";
+    }
+
+    public static String getPidFile(MicroService microservice) {
+        return microservice.getPomLocation() + "/" + RUN_DIR + "/" + microservice.getName() + ".pid";
+    }
+
+    public static Integer readPid(File pidFile) throws IOException {
+        if (!pidFile.isFile()) {
+            return null;
+        }
+        String pid = Files.readAllLines(pidFile.toPath(), StandardCharsets.UTF_8).stream().map(String::trim).filter(line -> !line.isEmpty())
+                .collect(Collectors.joining());
+        return pid.isEmpty() ? null : Integer.valueOf(pid);
     }
 }
@@ -0,0 +1,70 @@
+package org.ernest.applications.trampoline.utils;
+
+import org.ernest.applications.trampoline.entities.MetricsAggregation;
+import org.ernest.applications.trampoline.entities.MetricsSeries;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Folds a stored series into fixed steps starting at the query origin. Each step keeps one column per field and
+ * aggregation, with null where no point fell in the step. Rollup points contribute their own min and max; averages,
+ * last values and percentiles are taken over the point averages.
+ */
+public class SeriesAggregator {
+
+    private SeriesAggregator() {
+    }
+
+    public static Map<String, Map<String, Long[]>> aggregate(MetricsSeries series, long from, long stepMillis, int steps,
+                                                             Collection<String> fields, Collection<MetricsAggregation> aggregations) {
+        Map<String, Map<String, Long[]>> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            long[] avg = series.getAvg().get(field);
+            if (avg == null) {
+                continue;
+            }
+            long[] min = series.getMin() == null ? avg : series.getMin().get(field);
+            long[] max = series.getMax() == null ? avg : series.getMax().get(field);
+
+            Map<String, Long[]> columns = new LinkedHashMap<>();
+            aggregations.forEach(aggregation -> columns.put(aggregation.getCode(), new Long[steps]));
+            long[] timestamps = series.getTimestamps();
+            int start = 0;
+            while (start < timestamps.length) {
+                long step = Math.floorDiv(timestamps[start] - from, stepMillis);
+                int end = start + 1;
+                while (end < timestamps.length && Math.floorDiv(timestamps[end] - from, stepMillis) == step) {
+                    end++;
+                }
+                if (step >= 0 && step < steps) {
+                    for (MetricsAggregation aggregation : aggregations) {
+                        columns.get(aggregation.getCode())[(int) step] = fold(aggregation, avg, min, max, start, end);
+                    }
+                }
+                start = end;
+            }
+            values.put(field, columns);
+        }
+        return values;
+    }
+
+    private static long fold(MetricsAggregation aggregation, long[] avg, long[] min, long[] max, int start, int end) {
+        switch (aggregation) {
+            case MIN:
+                return Arrays.stream(min, start, end).min().getAsLong();
+            case MAX:
+                return Arrays.stream(max, start, end).max().getAsLong();
+            case LAST:
+                return avg[end - 1];
+            case P95:
+                long[] sorted = Arrays.copyOfRange(avg, start, end);
+                Arrays.sort(sorted);
+                return sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+            default:
+                return Math.round(Arrays.stream(avg, start, end).average().getAsDouble());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.ernest.applications.trampoline.utils;
+
+import org.ernest.applications.trampoline.entities.MetricsResolution;
+import org.ernest.applications.trampoline.entities.MetricsSeries;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Fixed capacity ring of samples at one resolution, stored column by column in primitive arrays. Raw rings keep
+ * every sample; rollup rings fold samples into buckets aligned to the step and keep min, max and sum per bucket.
+ */
+class SeriesRing {
+
+    private final MetricsResolution resolution;
+
+    private final int capacity;
+
+    private final long[] timestamps;
+
+    private final long[] counts;
+
+    private final long[][] min;
+
+    private final long[][] max;
+
+    private final long[][] sum;
+
+    private int last = -1;
+
+    private int size;
+
+    SeriesRing(MetricsResolution resolution, int capacity, int fields) {
+        this.resolution = resolution;
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.counts = new long[capacity];
+        this.min = new long[fields][capacity];
+        this.max = new long[fields][capacity];
+        this.sum = new long[fields][capacity];
+    }
+
+    void add(long timestamp, long[] values) {
+        long step = resolution.getStepMillis();
+        long bucket = step == 0 ? timestamp : timestamp - Math.floorMod(timestamp, step);
+        if (step > 0 && size > 0 && bucket <= timestamps[last]) {
+            counts[last]++;
+            for (int field = 0; field < values.length; field++) {
+                min[field][last] = Math.min(min[field][last], values[field]);
+                max[field][last] = Math.max(max[field][last], values[field]);
+                sum[field][last] += values[field];
+            }
+            return;
+        }
+        last = (last + 1) % capacity;
+        size = Math.min(size + 1, capacity);
+        timestamps[last] = bucket;
+        counts[last] = 1;
+        for (int field = 0; field < values.length; field++) {
+            min[field][last] = values[field];
+            max[field][last] = values[field];
+            sum[field][last] = values[field];
+        }
+    }
+
+    long oldest() {
+        return size == 0 ? Long.MAX_VALUE : timestamps[index(0)];
+    }
+
+    MetricsSeries slice(String id, String[] fields, long from, long to) {
+        int first = 0;
+        while (first < size && timestamps[index(first)] < from) {
+            first++;
+        }
+        int end = first;
+        while (end < size && timestamps[index(end)] <= to) {
+            end++;
+        }
+
+        int points = end - first;
+        MetricsSeries series = new MetricsSeries();
+        series.setId(id);
+        series.setResolution(resolution.getCode());
+        series.setTimestamps(new long[points]);
+        boolean rollup = resolution.getStepMillis() > 0;
+        if (rollup) {
+            series.setMin(new LinkedHashMap<>());
+            series.setMax(new LinkedHashMap<>());
+        }
+        for (int field = 0; field < fields.length; field++) {
+            long[] avgColumn = new long[points];
+            long[] minColumn = new long[points];
+            long[] maxColumn = new long[points];
+            for (int point = 0; point < points; point++) {
+                int i = index(first + point);
+                series.getTimestamps()[point] = timestamps[i];
+                avgColumn[point] = sum[field][i] / counts[i];
+                minColumn[point] = min[field][i];
+                maxColumn[point] = max[field][i];
+            }
+            series.getAvg().put(fields[field], avgColumn);
+            if (rollup) {
+                series.getMin().put(fields[field], minColumn);
+                series.getMax().put(fields[field], maxColumn);
+            }
+        }
+        return series;
+    }
+
+    private int index(int offset) {
+        return (last - size + 1 + offset + capacity) % capacity;
+    }
+}
@@ -0,0 +1,90 @@
+package org.ernest.applications.trampoline.utils;
+
+import org.ernest.applications.trampoline.entities.MetricsResolution;
+import org.ernest.applications.trampoline.entities.MetricsSeries;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In memory time series keyed by id, each holding a fixed set of long fields. Every sample is written to a raw ring
+ * and folded into 1m, 10m and 1h rollups, so memory per id is fixed by the configured capacities while history
+ * reaches as far back as the coarsest ring.
+ */
+public class TimeSeriesStore {
+
+    private final String[] fields;
+
+    private final Map<MetricsResolution, Integer> capacities;
+
+    private final Map<String, Map<MetricsResolution, SeriesRing>> series = new ConcurrentHashMap<>();
+
+    public TimeSeriesStore(String[] fields, Map<MetricsResolution, Integer> capacities) {
+        this.fields = fields.clone();
+        this.capacities = new EnumMap<>(capacities);
+    }
+
+    public String[] getFields() {
+        return fields.clone();
+    }
+
+    public void add(String id, long timestamp, long[] values) {
+        if (values.length != fields.length) {
+            throw new IllegalArgumentException("Expected " + fields.length + " values but got " + values.length);
+        }
+        Map<MetricsResolution, SeriesRing> rings = series.computeIfAbsent(id, key -> createRings());
+        synchronized (rings) {
+            rings.values().forEach(ring -> ring.add(timestamp, values));
+        }
+    }
+
+    public MetricsSeries query(String id, long from, long to, MetricsResolution resolution) {
+        Map<MetricsResolution, SeriesRing> rings = series.get(id);
+        if (rings == null) {
+            return null;
+        }
+        synchronized (rings) {
+            SeriesRing ring = rings.get(resolution != null ? resolution : pickResolution(rings, from));
+            return ring == null ? null : ring.slice(id, fields, from, to);
+        }
+    }
+
+    public void retain(Collection<String> ids) {
+        series.keySet().retainAll(ids);
+    }
+
+    public boolean contains(String id) {
+        return series.containsKey(id);
+    }
+
+    public long getOldest(String id) {
+        Map<MetricsResolution, SeriesRing> rings = series.get(id);
+        if (rings == null) {
+            return Long.MAX_VALUE;
+        }
+        synchronized (rings) {
+            return rings.values().stream().mapToLong(SeriesRing::oldest).min().orElse(Long.MAX_VALUE);
+        }
+    }
+
+    private MetricsResolution pickResolution(Map<MetricsResolution, SeriesRing> rings, long from) {
+        MetricsResolution earliest = null;
+        for (Map.Entry<MetricsResolution, SeriesRing> ring : rings.entrySet()) {
+            if (ring.getValue().oldest() <= from) {
+                return ring.getKey();
+            }
+            if (earliest == null || ring.getValue().oldest() < rings.get(earliest).oldest()) {
+                earliest = ring.getKey();
+            }
+        }
+        return earliest;
+    }
+
+    private Map<MetricsResolution, SeriesRing> createRings() {
+        Map<MetricsResolution, SeriesRing> rings = new EnumMap<>(MetricsResolution.class);
+        capacities.forEach((resolution, capacity) -> rings.put(resolution, new SeriesRing(resolution, capacity, fields.length)));
+        return rings;
+    }
+}
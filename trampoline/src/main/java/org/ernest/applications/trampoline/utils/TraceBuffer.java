@@ -0,0 +1,126 @@
+package org.ernest.applications.trampoline.utils;
+
+import org.ernest.applications.trampoline.entities.TraceActuator;
+
+import java.util.*;
+
+/**
+ * Exchanges ingested from one instance's trace endpoint. Each poll returns the actuator's whole window, so only
+ * entries after the last seen timestamp are kept, plus the ones on that same millisecond not seen yet; identical
+ * exchanges on that millisecond are told apart by how many of them were already kept. When a full
+ * window comes back without reaching what was already seen, exchanges were lost between polls: the overflow is
+ * counted, the loss is estimated from the rate of the window and the poll interval is halved. Quiet windows double it.
+ */
+public class TraceBuffer {
+
+    private final int capacity;
+
+    private final long minIntervalMillis;
+
+    private final long maxIntervalMillis;
+
+    private final ArrayDeque<TraceActuator> traces = new ArrayDeque<>();
+
+    private final Map<String, Integer> lastSeenCounts = new HashMap<>();
+
+    private long lastSeen = -1;
+
+    private long intervalMillis;
+
+    private int window;
+
+    private long ingested;
+
+    private long evicted;
+
+    private long overflows;
+
+    private long missed;
+
+    public TraceBuffer(int capacity, long minIntervalMillis, long maxIntervalMillis) {
+        this.capacity = capacity;
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+        this.intervalMillis = minIntervalMillis;
+    }
+
+    public synchronized int offer(List<TraceActuator> batch) {
+        List<TraceActuator> sorted = new ArrayList<>(batch);
+        sorted.sort(Comparator.comparingLong(TraceActuator::getTimestamp));
+        window = Math.max(window, sorted.size());
+
+        long previous = lastSeen;
+        boolean overflow = previous >= 0 && !sorted.isEmpty() && sorted.size() >= window && sorted.get(0).getTimestamp() > previous;
+        if (overflow) {
+            overflows++;
+            long span = sorted.get(sorted.size() - 1).getTimestamp() - sorted.get(0).getTimestamp();
+            missed += span > 0 ? Math.max(1, Math.round(sorted.size() * (double) (sorted.get(0).getTimestamp() - previous) / span)) : 1;
+        }
+
+        int fresh = 0;
+        Map<String, Integer> batchCounts = new HashMap<>();
+        for (TraceActuator trace : sorted) {
+            if (trace.getTimestamp() < lastSeen) {
+                continue;
+            }
+            if (trace.getTimestamp() > lastSeen) {
+                lastSeen = trace.getTimestamp();
+                lastSeenCounts.clear();
+                batchCounts.clear();
+            }
+            int occurrence = batchCounts.merge(key(trace), 1, Integer::sum);
+            if (occurrence <= lastSeenCounts.getOrDefault(key(trace), 0)) {
+                continue;
+            }
+            lastSeenCounts.put(key(trace), occurrence);
+            if (traces.size() >= capacity) {
+                traces.pollFirst();
+                evicted++;
+            }
+            traces.addLast(trace);
+            fresh++;
+        }
+        ingested += fresh;
+
+        if (overflow || fresh * 2 > window) {
+            intervalMillis = Math.max(minIntervalMillis, intervalMillis / 2);
+        } else if (fresh * 10 <= window) {
+            intervalMillis = Math.min(maxIntervalMillis, intervalMillis * 2);
+        }
+        return fresh;
+    }
+
+    public synchronized List<TraceActuator> getTraces() {
+        List<TraceActuator> newestFirst = new ArrayList<>(traces);
+        Collections.reverse(newestFirst);
+        return newestFirst;
+    }
+
+    public synchronized int getSize() {
+        return traces.size();
+    }
+
+    public synchronized long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public synchronized long getIngested() {
+        return ingested;
+    }
+
+    public synchronized long getEvicted() {
+        return evicted;
+    }
+
+    public synchronized long getOverflows() {
+        return overflows;
+    }
+
+    public synchronized long getMissed() {
+        return missed;
+    }
+
+    private static String key(TraceActuator trace) {
+        return trace.getMethod() + " " + trace.getPath() + " " + trace.getStatus();
+    }
+}
@@ -0,0 +1,26 @@
+function showAlert(alert) {
+    var firing = alert.state === "firing";
+    $.notify({
+        icon: firing ? "ti-alert" : "ti-check",
+        message: "<b>" + $("<div>").text(alert.ruleName).html() + "</b> " + (firing ? "firing" : "resolved") + " on "
+            + $("<div>").text(alert.instanceName || alert.instanceId).html() + ": " + $("<div>").text(alert.message).html()
+
+    }, {
+        type: firing ? "danger" : "success",
+        delay: firing ? 0 : 5000,
+        placement: {
+            from: 'top',
+            align: 'right'
+        }
+    });
+}
+
+$( document ).ready(function() {
+    if (typeof EventSource === "undefined") {
+        return;
+    }
+    var alertsSource = new EventSource("/updates?topics=alerts");
+    alertsSource.addEventListener("alerts", function (event) {
+        showAlert(JSON.parse(event.data));
+    });
+});
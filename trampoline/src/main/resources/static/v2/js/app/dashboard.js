@@ -1,51 +1,115 @@
 var pieChart;
 var lineChart;
+var cpuChart;
+var maxPoints = 360;
 
-function updateMemoryCharts(){
+function formatTime(timestamp){
+    return new Date(timestamp).toTimeString().substring(0, 8);
+}
+
+function updateHostCharts(){
         $.ajax({
-    	    url : "/dashboard/memory",
+    	    url : "/dashboard/host/series",
     	    type: "GET",
-    	    success: function(dataRetrieved, textStatus, jqXHR) {
-    	        updatePieChart(dataRetrieved);
-    	        updateLineChart(dataRetrieved);
-
+    	    success: function(series, textStatus, jqXHR) {
+    	        if (series) {
+    	            updateLineCharts(series);
+    	        }
+    	    }
+    	});
+        $.ajax({
+    	    url : "/dashboard/overview",
+    	    type: "GET",
+    	    success: function(overview, textStatus, jqXHR) {
+    	        if (overview) {
+    	            updateOverview(overview);
+    	        }
     	    }
     	});
 }
 
-function updatePieChart(dataRetrieved){
-    pieChart.config.data.datasets = [{
-                                      data: [parseFloat(dataRetrieved[dataRetrieved.length-1].totalMemoryMB) - parseFloat(dataRetrieved[dataRetrieved.length-1].freeMemoryMB),
-                                            parseFloat(dataRetrieved[dataRetrieved.length-1].totalMemoryMB),
-                                            parseFloat(dataRetrieved[dataRetrieved.length-1].freeMemoryMB)],
-                                      backgroundColor: ['rgba(255, 99, 132, 0.8)', 'rgba(54, 162, 235, 0.8)','rgba(255, 206, 86, 0.8)']
-                                    }];
-    pieChart.update();
+function updateLineCharts(series){
+    var labels = $.map(series.timestamps, formatTime);
+    maxPoints = Math.max(maxPoints, labels.length);
+    lineChart.config.data.labels = labels;
+    lineChart.config.data.datasets[0].data = $.map(series.avg.memoryUsedKB, function (value) { return value / 1024; });
+    lineChart.config.data.datasets[1].data = $.map(series.avg.instancesResidentSetKB, function (value) { return value / 1024; });
+    cpuChart.config.data.labels = labels.slice();
+    cpuChart.config.data.datasets[0].data = $.map(series.avg.cpuPermille, function (value) { return value / 10; });
+    cpuChart.config.data.datasets[1].data = $.map(series.avg.instancesCpuPermille, function (value) { return value / 10; });
+    lineChart.update();
+    cpuChart.update();
 }
 
-function updateLineChart(dataRetrieved){
-    dataMemoryFree = [];
-     dates = [];
-    $.each(dataRetrieved, function (index, value) {
-        dates.push(value.date);
-        dataMemoryFree.push(parseFloat(dataRetrieved[dataRetrieved.length-1].freeMemoryMB));
-    });
-    lineChart.config.data = {
-                                  labels: dates,
-                                  datasets: [{
-                                      label: "Free Memory [MB]",
-                                      backgroundColor: 'rgba(255, 99, 132, 0.2)',
-                                      borderColor: 'rgba(255, 99, 132, 1)',
-                                      data: dataMemoryFree,
-                                  }]
-                              }
+function appendHostSample(overview){
+    appendPoint(lineChart, formatTime(overview.host.sampledAt), [(overview.host.memoryTotalKB - overview.host.memoryAvailableKB) / 1024, overview.instancesResidentSetKB / 1024]);
+    appendPoint(cpuChart, formatTime(overview.host.sampledAt), [overview.host.cpuLoadPercent, overview.instancesCpuPercent]);
+    updateOverview(overview);
+}
 
-  lineChart.update();
+function appendPoint(chart, label, values){
+    chart.config.data.labels.push(label);
+    $.each(values, function (index, value) {
+        chart.config.data.datasets[index].data.push(value);
+    });
+    if (chart.config.data.labels.length > maxPoints) {
+        chart.config.data.labels.shift();
+        $.each(chart.config.data.datasets, function (index, dataset) {
+            dataset.data.shift();
+        });
+    }
+    chart.update();
 }
 
+function updateOverview(overview){
+    var instancesMB = overview.instancesResidentSetKB / 1024;
+    var usedMB = (overview.host.memoryTotalKB - overview.host.memoryAvailableKB) / 1024;
+    pieChart.config.data.datasets[0].data = [instancesMB.toFixed(2), Math.max(0, usedMB - instancesMB).toFixed(2), (overview.host.memoryAvailableKB / 1024).toFixed(2)];
+    pieChart.update();
+
+    var rows = "";
+    $.each(overview.topConsumers, function (index, process) {
+        rows += "<tr><td>" + $("<div>").text(process.name).html() + "</td><td>" + process.pid + "</td><td>" + (process.residentSetKB / 1024).toFixed(2)
+            + "</td><td>" + process.cpuPercent.toFixed(1) + "</td><td>" + process.threadCount + "</td></tr>";
+    });
+    $("#top-consumers").html(rows);
+}
 
-setInterval(updateMemoryCharts, 20000);
+function subscribeHostUpdates(){
+    if (typeof EventSource === "undefined") {
+        updateHostCharts();
+        setInterval(updateHostCharts, 10000);
+        return;
+    }
+    var updatesSource = new EventSource("/updates?topics=host");
+    updatesSource.addEventListener("open", updateHostCharts);
+    updatesSource.addEventListener("resync", updateHostCharts);
+    updatesSource.addEventListener("host", function (event) {
+        appendHostSample(JSON.parse(event.data));
+    });
+}
 
+function buildLineChart(elementId, firstLabel, secondLabel){
+    return new Chart(document.getElementById(elementId).getContext('2d'), {
+        type: 'line',
+        data: {
+            labels: [],
+            datasets: [{
+                label: firstLabel,
+                backgroundColor: 'rgba(255, 99, 132, 0.2)',
+                borderColor: 'rgba(255, 99, 132, 1)',
+                data: [],
+            },
+            {
+                label: secondLabel,
+                backgroundColor: 'rgba(54, 162, 235, 0.2)',
+                borderColor: 'rgba(54, 162, 235, 1)',
+                data: [],
+            }]
+        },
+        options: {}
+    });
+}
 
 $( document ).ready(function() {
 	var ctx = document.getElementById('memory-pie').getContext('2d');
@@ -57,48 +121,12 @@ $( document ).ready(function() {
                                                               'rgba(54, 162, 235, 0.8)',
                                                               'rgba(255, 206, 86, 0.8)']
                   }],
-               labels: ['Used [MB]', 'Total [MB]','Free [MB]']},
+               labels: ['Managed Instances [MB]', 'Other Used [MB]', 'Available [MB]']},
         options: {}
     });
 
-    var ctx2 = document.getElementById('memory-line').getContext('2d');
-    	lineChart = new Chart(ctx2, {
-                               type: 'line',
-                               data: {
-                                   labels: [],
-                                   datasets: [{
-                                       label: "Memory Free MB",
-                                       backgroundColor: 'rgba(255, 99, 132, 0.2)',
-                                       borderColor: 'rgba(255, 99, 132, 1)',
-                                       data: [],
-                                   }]
-                               },
-                               options: {}
-                           });
-
-
-    updateMemoryCharts()
+    lineChart = buildLineChart('memory-line', "Host Used [MB]", "Instances Resident [MB]");
+    cpuChart = buildLineChart('cpu-line', "Host CPU [%]", "Instances CPU [%]");
 
-	/*var ctx = document.getElementById('metrics-chart').getContext('2d');
-        metricsCharts = new Chart(ctx, {
-            type: 'line',
-            data: {
-                labels: [],
-                datasets: [{
-                    label: "Memory Free KB",
-                    backgroundColor: 'rgba(255, 99, 132, 0.2)',
-                    borderColor: 'rgba(255, 99, 132, 1)',
-                    data: [],
-                },
-                {
-                    label: "Heap Used KB",
-                    backgroundColor: 'rgba(54, 162, 235, 0.2)',
-                    borderColor: 'rgba(54, 162, 235, 1)',
-                    data: [],
-                }]
-            },
-            options: {}
-        });*/
+    subscribeHostUpdates();
 });
-
-
@@ -1,4 +1,7 @@
 var metricsCharts;
+var metricsInstanceId;
+var logsSource;
+var updatesSource;
 
 function startGroup() {
     if ($("#input-start-group").val() == "-1") {
@@ -171,68 +174,119 @@ function checkEachNewMicroserviceFromField() {
 }
 
 
+var statusVersion = 0;
+
 function updateStatusInstances() {
-    $("span[id^='label-status-']").each(function (i, item) {
-        $.ajax({
-            url: "/instances/health",
-            type: "POST",
-            data: {id: item.id.replace("label-status-", "")},
-            success: function (data, textStatus, jqXHR) {
-                $("#" + item.id).removeClass("label-warning");
-                if (data == "deployed") {
+    $.ajax({
+        url: "/instances/health/all",
+        type: "GET",
+        data: {since: statusVersion},
+        success: function (data, textStatus, jqXHR) {
+            applyStatusChanges(data);
+        }
+    });
+}
 
-                    if ($("#" + item.id).text() != "Deployed") {
-                        if ($("#" + item.id).text() == "Not Deployed") {
-                            showNotification('success', "Microservice has been <b>successfully</b> deployed");
-                        }
-                        $("#" + item.id).removeClass("label-success");
-                        $("#" + item.id).removeClass("label-danger");
+function applyStatusChanges(data) {
+    if (data.version <= statusVersion) {
+        return;
+    }
+    statusVersion = data.version;
+    $.each(data.instances, function (index, health) {
+        updateStatusLabel($("#label-status-" + health.instanceId), health.status);
+    });
+}
 
-                        $("#" + item.id).addClass("label-success");
-                        $("#" + item.id).text("Deployed");
-                    }
+function subscribeUpdates() {
+    if (typeof EventSource === "undefined") {
+        setInterval(updateStatusInstances, 5000);
+        return;
+    }
+    updatesSource = new EventSource("/updates?topics=status,metrics");
+    updatesSource.addEventListener("open", updateStatusInstances);
+    updatesSource.addEventListener("resync", updateStatusInstances);
+    updatesSource.addEventListener("status", function (event) {
+        applyStatusChanges(JSON.parse(event.data));
+    });
+    updatesSource.addEventListener("metrics", function (event) {
+        appendMetrics(JSON.parse(event.data));
+    });
+}
 
+function appendMetrics(sample) {
+    if (sample.instanceId != metricsInstanceId) {
+        return;
+    }
+    var data = metricsCharts.config.data;
+    data.labels.push(new Date(sample.metrics.timestamp).toTimeString().substring(0, 8));
+    data.datasets[0].data.push(sample.metrics.freeMemoryKB);
+    data.datasets[1].data.push(sample.metrics.usedHeapKB);
+    if (data.labels.length > 20) {
+        data.labels.shift();
+        data.datasets[0].data.shift();
+        data.datasets[1].data.shift();
+    }
+    metricsCharts.update();
+}
 
-                } else {
+function updateStatusLabel(label, status) {
+    if (label.length == 0) {
+        return;
+    }
+    label.removeClass("label-warning");
+    if (status == "deployed") {
 
-                    if ($("#" + item.id).text() != "Not Deployed") {
-                        if ($("#" + item.id).text() == "Deployed") {
-                            showNotification('danger', "Microservice has been <b>stopped</b>");
-                        }
-                        $("#" + item.id).removeClass("label-success");
-                        $("#" + item.id).removeClass("label-danger");
+        if (label.text() != "Deployed") {
+            if (label.text() == "Not Deployed") {
+                showNotification('success', "Microservice has been <b>successfully</b> deployed");
+            }
+            label.removeClass("label-success");
+            label.removeClass("label-danger");
 
-                        $("#" + item.id).addClass("label-danger");
-                        $("#" + item.id).text("Not Deployed")
-                    }
+            label.addClass("label-success");
+            label.text("Deployed");
+        }
 
 
-                }
+    } else {
+
+        if (label.text() != "Not Deployed") {
+            if (label.text() == "Deployed") {
+                showNotification('danger', "Microservice has been <b>stopped</b>");
             }
-        });
-    });
-}
+            label.removeClass("label-success");
+            label.removeClass("label-danger");
 
-setInterval(updateStatusInstances, 15000);
+            label.addClass("label-danger");
+            label.text("Not Deployed")
+        }
+
+
+    }
+}
 
 
 function showMetrics(instanceId, name, port) {
+    metricsInstanceId = instanceId;
     $("#metrics-title").html(name + " : " + port);
     $("#modal-metrics").modal("show");
     $.ajax({
-        url: "/instances/metrics",
-        type: "POST",
-        data: {id: instanceId},
+        url: "/instances/metrics/query",
+        type: "GET",
+        traditional: true,
+        data: {instanceIds: instanceId, fields: ["freeMemoryKB", "usedHeapKB"], aggregations: "avg"},
         success: function (data, textStatus, jqXHR) {
             dates = [];
             dataMemoryFree = [];
             usedHeapKB = [];
-            $.each(data, function (index, value) {
-
-                dates.push(value.date);
-                dataMemoryFree.push(value.freeMemoryKB);
-                usedHeapKB.push(value.usedHeapKB)
-            });
+            if (data && data.series.length > 0) {
+                var values = data.series[0].values;
+                $.each(data.timestamps, function (index, timestamp) {
+                    dates.push(new Date(timestamp).toTimeString().substring(0, 8));
+                    dataMemoryFree.push(values.freeMemoryKB.avg[index]);
+                    usedHeapKB.push(values.usedHeapKB.avg[index]);
+                });
+            }
             metricsCharts.config.data = {
                 labels: dates,
                 datasets: [{
@@ -286,6 +340,33 @@ function showTraces(instanceId, name, port) {
     });
 }
 
+function showLogs(instanceId, name, port) {
+    $("#logs-title").html(name + " : " + port);
+    $("#logs-content").text("");
+    $("#modal-logs").modal("show");
+    closeLogs();
+    logsSource = new EventSource("/instances/logs?id=" + encodeURIComponent(instanceId));
+    logsSource.addEventListener("log", function (event) {
+        appendLogLines(JSON.parse(event.data));
+    });
+    logsSource.addEventListener("dropped", function (event) {
+        appendLogLines(["... " + event.data + " lines skipped ..."]);
+    });
+}
+
+function appendLogLines(lines) {
+    var content = $("#logs-content");
+    content.append(document.createTextNode(lines.join("\n") + "\n"));
+    content.scrollTop(content[0].scrollHeight);
+}
+
+function closeLogs() {
+    if (logsSource) {
+        logsSource.close();
+        logsSource = null;
+    }
+}
+
 function showInfo(instanceId, name, port) {
     $('.front-loading').show();
     $("#info-title").html(name + " : " + port);
@@ -312,6 +393,11 @@ function showInfo(instanceId, name, port) {
 
 $(document).ready(function () {
     updateStatusInstances();
+    subscribeUpdates();
+    $("#modal-logs").on("hidden.bs.modal", closeLogs);
+    $("#modal-metrics").on("hidden.bs.modal", function () {
+        metricsInstanceId = null;
+    });
     var ctx = document.getElementById('metrics-chart').getContext('2d');
     metricsCharts = new Chart(ctx, {
         type: 'line',
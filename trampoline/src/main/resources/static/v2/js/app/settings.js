@@ -13,10 +13,12 @@ function changeSelectedClass(element) {
 function createGroup() {
     idsMicroservicesGroup = [];
     delaysMicroservicesGroup = [];
+    dependenciesMicroservicesGroup = [];
 
     $(".group-definition-ms").each(function (index) {
         idsMicroservicesGroup.push($(this).data("id"));
         delaysMicroservicesGroup.push($(this).val());
+        dependenciesMicroservicesGroup.push(($(this).closest("tr").find(".group-definition-ms-dependencies").val() || []).join(" "));
     });
 
     $.ajax({
@@ -25,7 +27,8 @@ function createGroup() {
         data: {
             name: $("#input-groupname").val(),
             idsMicroservicesGroup: idsMicroservicesGroup,
-            delaysMicroservicesGroup: delaysMicroservicesGroup
+            delaysMicroservicesGroup: delaysMicroservicesGroup,
+            dependenciesMicroservicesGroup: dependenciesMicroservicesGroup
         },
         success: function (data, textStatus, jqXHR) {
             location.reload();
@@ -52,8 +55,17 @@ function defineGroup() {
         $("#title-group-definition").html($("#input-groupname").val());
         $("#table-group-definition > tbody").html("");
 
-        $(".microservice-group-form.btn-success").each(function (index) {
-            $('#table-group-definition > tbody').append('<tr class="even gradeA"><td>' + $(this).data("name") + '</td><td><input class="group-definition-ms" data-id="' + $(this).data("id") + '" type="text" class="form-control border-input" value="0"/></td>' +
+        var members = $(".microservice-group-form.btn-success");
+        members.each(function (index) {
+            var memberId = $(this).data("id");
+            var prerequisites = '';
+            members.each(function () {
+                if ($(this).data("id") != memberId) {
+                    prerequisites += '<option value="' + $(this).data("id") + '">' + $(this).data("name") + '</option>';
+                }
+            });
+            $('#table-group-definition > tbody').append('<tr class="even gradeA"><td>' + $(this).data("name") + '</td><td><input class="group-definition-ms" data-id="' + memberId + '" type="text" class="form-control border-input" value="0"/></td>' +
+                '<td><select multiple class="group-definition-ms-dependencies form-control border-input">' + prerequisites + '</select></td>' +
                 '<td>' +
                 '<input id="group-item-' + index + '" class="group-definition-ms-order" value="' + (index + 1) + '" onchange="sortGroupRows()"/>' +
                 '</td></tr>');
@@ -115,7 +127,9 @@ function setExternalInstance() {
                 name: $("#input-external-instance-name").val(),
                 port: $("#input-external-instance-port").val(),
                 actuatorPrefix: $("#input-external-instance-actuator-prefix").val(),
-                ip: $("#input-external-instance-ip").val()
+                ip: $("#input-external-instance-ip").val(),
+                probeType: $("#input-external-instance-probe-type").val(),
+                probePath: $("#input-external-instance-probe-path").val()
             },
             success: function (data, textStatus, jqXHR) {
                 location.reload();
@@ -213,6 +227,8 @@ function showMicroserviceInformation(microserviceId) {
             $("#input-update-pomLocation").val(data.pomLocation);
             $("#input-update-default-port").val(data.defaultPort);
             $("#input-update-actuator-prefix").val(data.actuatorPrefix);
+            $("#input-update-probe-type").val(data.probeType ? data.probeType.toLowerCase() : "health");
+            $("#input-update-probe-path").val(data.probePath);
             $("#input-update-vm-arguments").val(data.vmArguments);
             $("#input-update-app-arguments").val(data.appArguments);
             $("#input-update-gitLocation").val(data.gitLocation);
@@ -333,6 +349,8 @@ function updateMicroService() {
                 defaultPort: $("#input-update-default-port").val(),
                 buildTool: $("#modal-microservice-buildTool").text(),
                 actuatorPrefix: $("#input-update-actuator-prefix").val(),
+                probeType: $("#input-update-probe-type").val(),
+                probePath: $("#input-update-probe-path").val(),
                 vmArguments: $("#input-update-vm-arguments").val(),
                 appArguments: $("#input-update-app-arguments").val(),
                 pomLocation: $("#input-update-pomLocation").val(),
@@ -0,0 +1,94 @@
+package org.ernest;
+
+import com.sun.net.httpserver.HttpServer;
+import org.ernest.applications.trampoline.entities.ActuatorVersion;
+import org.ernest.applications.trampoline.entities.Instance;
+import org.ernest.applications.trampoline.services.ActuatorClient;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ActuatorClientTest {
+
+    private final AtomicInteger metricsRequests = new AtomicInteger();
+
+    private HttpServer server;
+
+    private ActuatorClient actuatorClient;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/actuator/metrics", exchange -> {
+            metricsRequests.incrementAndGet();
+            byte[] body = "{\"names\":[\"jvm.memory.used\"]}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/actuator/trace", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+
+        actuatorClient = new ActuatorClient();
+        ReflectionTestUtils.setField(actuatorClient, "maxTotal", 4);
+        ReflectionTestUtils.setField(actuatorClient, "maxPerHost", 2);
+        ReflectionTestUtils.setField(actuatorClient, "connectTimeoutMillis", 500);
+        ReflectionTestUtils.setField(actuatorClient, "readTimeoutMillis", 500);
+        ReflectionTestUtils.setField(actuatorClient, "poolWaitMillis", 500);
+        ReflectionTestUtils.setField(actuatorClient, "idleEvictSeconds", 30L);
+        ReflectionTestUtils.setField(actuatorClient, "capabilitiesTtlMinutes", 10L);
+        actuatorClient.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        actuatorClient.stop();
+        server.stop(0);
+    }
+
+    @Test
+    public void givenBoot2InstanceWhenAskingVersionTwiceThenItIsDetectedOnce() {
+        Instance instance = buildInstance();
+
+        Assert.assertEquals(ActuatorVersion.V2, actuatorClient.getVersion(instance));
+        Assert.assertEquals(ActuatorVersion.V2, actuatorClient.getVersion(instance));
+        Assert.assertEquals(1, metricsRequests.get());
+    }
+
+    @Test
+    public void givenMissingEndpointWhenCallingThenVersionIsDetectedAgain() {
+        Instance instance = buildInstance();
+        actuatorClient.getVersion(instance);
+
+        try {
+            actuatorClient.get(instance, "/trace");
+            Assert.fail();
+        } catch (HttpClientErrorException e) {
+            Assert.assertEquals(404, e.getRawStatusCode());
+        }
+
+        actuatorClient.getVersion(instance);
+        Assert.assertEquals(2, metricsRequests.get());
+    }
+
+    private Instance buildInstance() {
+        Instance instance = new Instance();
+        instance.setId("instance");
+        instance.setIp("127.0.0.1");
+        instance.setPort(String.valueOf(server.getAddress().getPort()));
+        instance.setActuatorPrefix("actuator");
+        return instance;
+    }
+}
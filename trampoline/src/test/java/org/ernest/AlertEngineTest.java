@@ -0,0 +1,122 @@
+package org.ernest;
+
+import org.ernest.applications.trampoline.entities.*;
+import org.ernest.applications.trampoline.services.AlertEngine;
+import org.ernest.applications.trampoline.services.FileManager;
+import org.ernest.applications.trampoline.services.HealthChecker;
+import org.ernest.applications.trampoline.services.UpdateBroadcaster;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class AlertEngineTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Ecosystem ecosystem;
+
+    private UpdateBroadcaster updateBroadcaster;
+
+    private AlertEngine alertEngine;
+
+    @Before
+    public void setUp() throws Exception {
+        MicroservicesGroup group = new MicroservicesGroup();
+        group.setId("group");
+        group.setMicroservicesIds(Collections.singletonList("service"));
+        Instance instance = new Instance();
+        instance.setId("instance");
+        instance.setName("service");
+        instance.setMicroserviceId("service");
+
+        ecosystem = new Ecosystem();
+        ecosystem.getMicroservicesGroups().add(group);
+        ecosystem.getInstances().add(instance);
+
+        FileManager fileManager = Mockito.mock(FileManager.class);
+        Mockito.when(fileManager.getEcosystem()).thenReturn(ecosystem);
+        Mockito.when(fileManager.getSettingsFolder()).thenReturn(temporaryFolder.getRoot().getAbsolutePath());
+        updateBroadcaster = Mockito.mock(UpdateBroadcaster.class);
+        alertEngine = new AlertEngine(fileManager, Mockito.mock(HealthChecker.class), updateBroadcaster);
+        ReflectionTestUtils.setField(alertEngine, "logSize", 10);
+        ReflectionTestUtils.setField(alertEngine, "logFileName", "alerts.log");
+        alertEngine.start();
+    }
+
+    @Test
+    public void givenHeapAboveThresholdWhenItHoldsForTheDurationThenAlertFiresAndResolves() throws Exception {
+        ecosystem.getAlertRules().add(buildRule(AlertScope.MICROSERVICE, "service", AlertRuleType.THRESHOLD, rule -> {
+            rule.setMetric("usedHeapKB");
+            rule.setRatioOf("heapKB");
+            rule.setThreshold(90);
+            rule.setDurationSeconds(120);
+        }));
+
+        alertEngine.onSample("instance", 0, sample(95, 100));
+        alertEngine.onSample("instance", 60000, sample(96, 100));
+        Assert.assertTrue(alertEngine.getActiveAlerts().isEmpty());
+
+        alertEngine.onSample("instance", 120000, sample(97, 100));
+        Assert.assertEquals(1, alertEngine.getActiveAlerts().size());
+        Assert.assertEquals(97.0, alertEngine.getActiveAlerts().get(0).getValue(), 0.001);
+        Mockito.verify(updateBroadcaster).publish(Mockito.eq(UpdateBroadcaster.ALERTS_TOPIC), Mockito.any(Alert.class));
+
+        alertEngine.onSample("instance", 180000, sample(50, 100));
+        Assert.assertTrue(alertEngine.getActiveAlerts().isEmpty());
+        Assert.assertEquals("firing", alertEngine.getAlertLog().get(0).getState());
+        Assert.assertEquals("resolved", alertEngine.getAlertLog().get(1).getState());
+        Assert.assertEquals(180000, alertEngine.getAlertLog().get(1).getResolvedAt());
+        Assert.assertEquals(2, Files.readAllLines(new File(temporaryFolder.getRoot(), "alerts.log").toPath()).size());
+    }
+
+    @Test
+    public void givenGroupRuleWhenInstanceGoesDownRepeatedlyThenAlertFiresUntilTheWindowPasses() {
+        ecosystem.getAlertRules().add(buildRule(AlertScope.GROUP, "group", AlertRuleType.TRANSITIONS, rule -> {
+            rule.setStatus("not deployed");
+            rule.setCount(3);
+            rule.setWindowSeconds(600);
+        }));
+
+        alertEngine.onTransition("instance", 1000, "not deployed");
+        alertEngine.onTransition("instance", 2000, "deployed");
+        alertEngine.onTransition("instance", 3000, "not deployed");
+        Assert.assertTrue(alertEngine.getActiveAlerts().isEmpty());
+
+        alertEngine.onTransition("instance", 5000, "not deployed");
+        Assert.assertEquals(1, alertEngine.getActiveAlerts().size());
+        Assert.assertEquals("instance", alertEngine.getActiveAlerts().get(0).getInstanceId());
+
+        alertEngine.sweep();
+        Assert.assertTrue(alertEngine.getActiveAlerts().isEmpty());
+    }
+
+    private AlertRule buildRule(AlertScope scope, String targetId, AlertRuleType type, Consumer<AlertRule> settings) {
+        AlertRule rule = new AlertRule();
+        rule.setId(type.getCode());
+        rule.setName(type.getCode());
+        rule.setScope(scope);
+        rule.setTargetId(targetId);
+        rule.setType(type);
+        settings.accept(rule);
+        return rule;
+    }
+
+    private Map<String, Long> sample(long usedHeapKB, long heapKB) {
+        Map<String, Long> sample = new HashMap<>();
+        sample.put("usedHeapKB", usedHeapKB);
+        sample.put("heapKB", heapKB);
+        return sample;
+    }
+}
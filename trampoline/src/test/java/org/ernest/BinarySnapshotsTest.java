@@ -0,0 +1,85 @@
+package org.ernest;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import org.ernest.applications.trampoline.entities.BuildTools;
+import org.ernest.applications.trampoline.entities.Ecosystem;
+import org.ernest.applications.trampoline.entities.Instance;
+import org.ernest.applications.trampoline.entities.MicroService;
+import org.ernest.applications.trampoline.utils.BinarySnapshots;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class BinarySnapshotsTest {
+
+    @Test
+    public void givenEcosystemWhenWrittenAsBinaryThenIsReadBackUnchanged() throws IOException {
+        Ecosystem ecosystem = buildEcosystem();
+        File snapshot = writeBinary(ecosystem);
+
+        Ecosystem read = BinarySnapshots.read(snapshot.toPath(), Ecosystem.class);
+
+        Assert.assertEquals(new Gson().toJson(ecosystem), new Gson().toJson(read));
+        Assert.assertTrue(snapshot.length() < new Gson().toJson(ecosystem).length());
+    }
+
+    @Test
+    public void givenJsonSnapshotWhenImportedAndExportedThenJsonIsPreserved() throws IOException {
+        String json = "{\"name\":\"ü service\",\"port\":8080,\"negative\":-42,\"ratio\":1.50,\"big\":12345678901234567890,"
+                + "\"version\":0.3,\"enabled\":true,\"disabled\":false,\"missing\":null,\"list\":[{\"name\":\"a\"},{\"name\":\"b\"}],\"empty\":[]}";
+        File source = File.createTempFile("trampoline-json", ".txt");
+        File binary = File.createTempFile("trampoline-binary", ".bin");
+        source.deleteOnExit();
+        binary.deleteOnExit();
+        Files.write(source.toPath(), json.getBytes(StandardCharsets.UTF_8));
+
+        try (OutputStream out = new FileOutputStream(binary)) {
+            BinarySnapshots.importFromJson(source.toPath(), out);
+        }
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        BinarySnapshots.exportToJson(binary.toPath(), exported);
+
+        Assert.assertEquals(json, new String(exported.toByteArray(), StandardCharsets.UTF_8));
+        Assert.assertEquals(new JsonParser().parse(json), BinarySnapshots.readTree(binary.toPath()));
+    }
+
+    private File writeBinary(Ecosystem ecosystem) throws IOException {
+        File snapshot = File.createTempFile("trampoline-binary", ".bin");
+        snapshot.deleteOnExit();
+        try (OutputStream out = new FileOutputStream(snapshot)) {
+            BinarySnapshots.write(ecosystem, out);
+        }
+        return snapshot;
+    }
+
+    private Ecosystem buildEcosystem() {
+        Ecosystem ecosystem = new Ecosystem();
+        ecosystem.setMavenBinaryLocation("/usr/bin/mvn");
+        ecosystem.setJournalSequence(7);
+
+        MicroService microservice = new MicroService();
+        microservice.setId("ms-1");
+        microservice.setName("service");
+        microservice.setDefaultPort(8080);
+        microservice.setBuildTool(BuildTools.MAVEN);
+        microservice.setVersion(0.3f);
+        ecosystem.getMicroservices().add(microservice);
+
+        for (int i = 0; i < 3; i++) {
+            Instance instance = new Instance();
+            instance.setId("in-" + i);
+            instance.setPort(String.valueOf(8080 + i));
+            instance.setMicroserviceId("ms-1");
+            ecosystem.getInstances().add(instance);
+        }
+        return ecosystem;
+    }
+}
@@ -0,0 +1,106 @@
+package org.ernest;
+
+import org.ernest.applications.trampoline.entities.BuildExecution;
+import org.ernest.applications.trampoline.services.BuildScheduler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BuildSchedulerTest {
+
+    private BuildScheduler buildScheduler;
+
+    @Before
+    public void setUp() {
+        buildScheduler = new BuildScheduler();
+        ReflectionTestUtils.setField(buildScheduler, "maxConcurrent", 1);
+        buildScheduler.start();
+    }
+
+    @After
+    public void tearDown() {
+        buildScheduler.stop();
+    }
+
+    @Test
+    public void givenBuildRunningWhenLimitIsReachedThenNextBuildWaitsForIt() {
+        CompletableFuture<Integer> first = new CompletableFuture<>();
+        AtomicBoolean secondStarted = new AtomicBoolean();
+
+        CompletableFuture<Integer> firstResult = buildScheduler.schedule("instance-1", "first", () -> first);
+        CompletableFuture<Integer> secondResult = buildScheduler.schedule("instance-2", "second", () -> {
+            secondStarted.set(true);
+            return CompletableFuture.completedFuture(0);
+        });
+
+        Assert.assertFalse(secondStarted.get());
+        Assert.assertNull(buildScheduler.getBuilds().get(1).getStartedAt());
+
+        first.complete(1);
+
+        Assert.assertEquals(Integer.valueOf(1), firstResult.join());
+        Assert.assertEquals(Integer.valueOf(0), secondResult.join());
+        Assert.assertTrue(secondStarted.get());
+        for (BuildExecution execution : buildScheduler.getBuilds()) {
+            Assert.assertNotNull(execution.getWallMillis());
+            Assert.assertNotNull(execution.getQueueWaitMillis());
+        }
+    }
+
+    @Test
+    public void givenWorkInFlightOnProjectWhenSameMicroserviceAsksThenItJoinsTheSameWork() {
+        CompletableFuture<Integer> build = new CompletableFuture<>();
+        AtomicInteger starts = new AtomicInteger();
+
+        CompletableFuture<Integer> first = buildScheduler.forProject("/src/app", "service-1", () -> {
+            starts.incrementAndGet();
+            return build;
+        });
+        CompletableFuture<Integer> second = buildScheduler.forProject("/src/app", "service-1", () -> {
+            starts.incrementAndGet();
+            return CompletableFuture.completedFuture(1);
+        });
+        build.complete(0);
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(Integer.valueOf(0), second.join());
+        Assert.assertEquals(1, starts.get());
+    }
+
+    @Test
+    public void givenWorkInFlightOnProjectWhenAnotherMicroserviceAsksThenItWaitsAndOtherProjectsDoNot() {
+        CompletableFuture<Integer> build = new CompletableFuture<>();
+        AtomicBoolean sameProjectStarted = new AtomicBoolean();
+        AtomicBoolean otherProjectStarted = new AtomicBoolean();
+
+        buildScheduler.forProject("/src/app", "service-1", () -> build);
+        CompletableFuture<Integer> sameProject = buildScheduler.forProject("/src/app", "service-2", () -> {
+            sameProjectStarted.set(true);
+            return CompletableFuture.completedFuture(0);
+        });
+        buildScheduler.forProject("/src/other", "service-3", () -> {
+            otherProjectStarted.set(true);
+            return CompletableFuture.completedFuture(0);
+        });
+
+        Assert.assertFalse(sameProjectStarted.get());
+        Assert.assertTrue(otherProjectStarted.get());
+
+        build.completeExceptionally(new IllegalStateException("pull failed"));
+
+        Assert.assertEquals(Integer.valueOf(0), sameProject.join());
+        Assert.assertTrue(sameProjectStarted.get());
+    }
+
+    @Test
+    public void givenDelayWhenElapsedThenFutureCompletes() {
+        Assert.assertTrue(buildScheduler.delay(0).isDone());
+        buildScheduler.delay(1).join();
+    }
+}
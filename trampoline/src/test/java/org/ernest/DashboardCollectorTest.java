@@ -0,0 +1,62 @@
+package org.ernest;
+
+import org.ernest.applications.trampoline.collectors.DashboardCollector;
+import org.ernest.applications.trampoline.collectors.ResourceSampler;
+import org.ernest.applications.trampoline.entities.HostOverview;
+import org.ernest.applications.trampoline.entities.HostResources;
+import org.ernest.applications.trampoline.entities.MetricsResolution;
+import org.ernest.applications.trampoline.entities.MetricsSeries;
+import org.ernest.applications.trampoline.entities.ProcessResources;
+import org.ernest.applications.trampoline.services.UpdateBroadcaster;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class DashboardCollectorTest {
+
+    @Test
+    public void givenHostSampleWhenCollectingThenSeriesAndTopConsumersAreNumeric() {
+        HostResources host = new HostResources();
+        host.setSampledAt(1000L);
+        host.setCpuLoadPercent(12.5);
+        host.setMemoryTotalKB(8192);
+        host.setMemoryAvailableKB(2048);
+        Map<String, ProcessResources> processes = new HashMap<>();
+        processes.put("small", new ProcessResources("small", "small", 1, 1000L, 100, 0, 1.5, 10, 5));
+        processes.put("large", new ProcessResources("large", "large", 2, 1000L, 900, 0, 2.5, 20, 5));
+        processes.put("medium", new ProcessResources("medium", "medium", 3, 1000L, 500, 0, 0, 30, 5));
+
+        ResourceSampler resourceSampler = Mockito.mock(ResourceSampler.class);
+        Mockito.when(resourceSampler.getHostResources()).thenReturn(host);
+        Mockito.when(resourceSampler.getProcessResources()).thenReturn(processes);
+        UpdateBroadcaster updateBroadcaster = Mockito.mock(UpdateBroadcaster.class);
+
+        DashboardCollector dashboardCollector = new DashboardCollector();
+        ReflectionTestUtils.setField(dashboardCollector, "resourceSampler", resourceSampler);
+        ReflectionTestUtils.setField(dashboardCollector, "updateBroadcaster", updateBroadcaster);
+        ReflectionTestUtils.setField(dashboardCollector, "sampleDelayMillis", 10000L);
+        ReflectionTestUtils.setField(dashboardCollector, "rawRetentionMinutes", 60L);
+        ReflectionTestUtils.setField(dashboardCollector, "minuteRetentionHours", 24L);
+        ReflectionTestUtils.setField(dashboardCollector, "topConsumers", 2);
+        dashboardCollector.start();
+        dashboardCollector.collectMetrics();
+
+        HostOverview overview = dashboardCollector.getOverview();
+        Assert.assertEquals(1500L, overview.getInstancesResidentSetKB());
+        Assert.assertEquals(2, overview.getTopConsumers().size());
+        Assert.assertEquals("large", overview.getTopConsumers().get(0).getInstanceId());
+        Assert.assertEquals("medium", overview.getTopConsumers().get(1).getInstanceId());
+        Mockito.verify(updateBroadcaster).publish(UpdateBroadcaster.HOST_TOPIC, overview);
+
+        MetricsSeries series = dashboardCollector.getHostSeries(0, Long.MAX_VALUE, MetricsResolution.RAW);
+        Assert.assertArrayEquals(new long[]{1000L}, series.getTimestamps());
+        Assert.assertArrayEquals(new long[]{125L}, series.getAvg().get("cpuPermille"));
+        Assert.assertArrayEquals(new long[]{6144L}, series.getAvg().get("memoryUsedKB"));
+        Assert.assertArrayEquals(new long[]{40L}, series.getAvg().get("instancesCpuPermille"));
+        Assert.assertArrayEquals(new long[]{900L}, dashboardCollector.getInstanceSeries("large", 0, Long.MAX_VALUE, MetricsResolution.RAW).getAvg().get("residentSetKB"));
+    }
+}
@@ -0,0 +1,85 @@
+package org.ernest;
+
+import com.google.gson.Gson;
+import org.ernest.applications.trampoline.entities.Ecosystem;
+import org.ernest.applications.trampoline.entities.Instance;
+import org.ernest.applications.trampoline.entities.MicroService;
+import org.ernest.applications.trampoline.utils.BinarySnapshots;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class EcosystemSnapshotBenchmark {
+
+    private static final int ITERATIONS = 20;
+
+    public static void main(String[] args) throws IOException {
+        for (int entities : new int[]{10, 1000, 10000}) {
+            run(buildEcosystem(entities), entities);
+        }
+    }
+
+    private static void run(Ecosystem ecosystem, int entities) throws IOException {
+        Gson gson = new Gson();
+        File json = File.createTempFile("trampoline-benchmark", ".txt");
+        File binary = File.createTempFile("trampoline-benchmark", ".bin");
+        json.deleteOnExit();
+        binary.deleteOnExit();
+
+        long jsonSave = 0, jsonLoad = 0, binarySave = 0, binaryLoad = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            Files.write(json.toPath(), gson.toJson(ecosystem).getBytes(StandardCharsets.UTF_8));
+            jsonSave += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            gson.fromJson(new String(Files.readAllBytes(json.toPath()), StandardCharsets.UTF_8), Ecosystem.class);
+            jsonLoad += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            try (OutputStream out = new FileOutputStream(binary)) {
+                BinarySnapshots.write(ecosystem, out);
+            }
+            binarySave += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            BinarySnapshots.read(binary.toPath(), Ecosystem.class);
+            binaryLoad += System.nanoTime() - start;
+        }
+
+        System.out.println(String.format("%6d entities | json %9d bytes, save %7.2f ms, load %7.2f ms | binary %9d bytes, save %7.2f ms, load %7.2f ms",
+                entities, json.length(), millis(jsonSave), millis(jsonLoad), binary.length(), millis(binarySave), millis(binaryLoad)));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1000000.0 / ITERATIONS;
+    }
+
+    private static Ecosystem buildEcosystem(int entities) {
+        Ecosystem ecosystem = new Ecosystem();
+        for (int i = 0; i < entities; i++) {
+            MicroService microservice = new MicroService();
+            microservice.setId("ms-" + i);
+            microservice.setName("service-" + i);
+            microservice.setPomLocation("/home/user/projects/service-" + i);
+            microservice.setDefaultPort(8000 + i);
+            microservice.setActuatorPrefix("/actuator");
+            microservice.setVmArguments("-Xmx256m");
+            microservice.setVersion(0.3f);
+            ecosystem.getMicroservices().add(microservice);
+
+            Instance instance = new Instance();
+            instance.setId("in-" + i);
+            instance.setIp("127.0.0.1");
+            instance.setName("service-" + i);
+            instance.setPort(String.valueOf(8000 + i));
+            instance.setMicroserviceId("ms-" + i);
+            ecosystem.getInstances().add(instance);
+        }
+        return ecosystem;
+    }
+}
@@ -0,0 +1,87 @@
+package org.ernest;
+
+import org.ernest.applications.trampoline.entities.Ecosystem;
+import org.ernest.applications.trampoline.entities.Instance;
+import org.ernest.applications.trampoline.entities.MicroService;
+import org.ernest.applications.trampoline.entities.MicroservicesGroup;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+public class EcosystemTest {
+
+    @Test
+    public void givenFrozenEcosystemWhenLookingUpByIdThenIndexedEntitiesAreReturned() {
+        Ecosystem ecosystem = buildEcosystem().freeze();
+
+        Assert.assertEquals("service", ecosystem.findMicroservice("ms-1").get().getName());
+        Assert.assertEquals("8080", ecosystem.findInstance("in-1").get().getPort());
+        Assert.assertEquals(2, ecosystem.findInstancesByMicroserviceId("ms-1").size());
+        Assert.assertEquals("in-2", ecosystem.findInstancesByPort("8081").get(0).getId());
+        Assert.assertFalse(ecosystem.findInstance("unknown").isPresent());
+        Assert.assertTrue(ecosystem.findInstancesByPort("9999").isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void givenFrozenEcosystemWhenModifyingListsThenIsRejected() {
+        buildEcosystem().freeze().removeInstance("in-1");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void givenFrozenEcosystemWhenModifyingAnElementThenIsRejected() {
+        buildEcosystem().freeze().findInstance("in-1").get().setPort("9090");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void givenFrozenEcosystemWhenModifyingGroupMembersThenIsRejected() {
+        Ecosystem ecosystem = buildEcosystem();
+        MicroservicesGroup group = new MicroservicesGroup();
+        group.setId("group-1");
+        group.setMicroservicesIds(new ArrayList<>(Collections.singletonList("ms-1")));
+        ecosystem.getMicroservicesGroups().add(group);
+
+        ecosystem.freeze().findMicroservicesGroup("group-1").get().getMicroservicesIds().add("ms-2");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void givenFrozenEcosystemWhenReplacingPropertiesThenIsRejected() {
+        buildEcosystem().freeze().setMavenHomeLocation("/opt/maven");
+    }
+
+    @Test
+    public void givenFrozenEcosystemWhenCopyingThenCopyIsEditableAndSnapshotIsUntouched() {
+        Ecosystem snapshot = buildEcosystem().freeze();
+
+        Ecosystem copy = snapshot.copy();
+        copy.removeInstance("in-1");
+        copy.findMicroservice("ms-1").get().setName("renamed");
+
+        Assert.assertFalse(copy.isFrozen());
+        Assert.assertFalse(copy.findInstance("in-1").isPresent());
+        Assert.assertTrue(snapshot.findInstance("in-1").isPresent());
+        Assert.assertEquals("service", snapshot.findMicroservice("ms-1").get().getName());
+    }
+
+    private Ecosystem buildEcosystem() {
+        Ecosystem ecosystem = new Ecosystem();
+
+        MicroService microservice = new MicroService();
+        microservice.setId("ms-1");
+        microservice.setName("service");
+        ecosystem.getMicroservices().add(microservice);
+
+        ecosystem.getInstances().add(buildInstance("in-1", "8080"));
+        ecosystem.getInstances().add(buildInstance("in-2", "8081"));
+        return ecosystem;
+    }
+
+    private Instance buildInstance(String id, String port) {
+        Instance instance = new Instance();
+        instance.setId(id);
+        instance.setPort(port);
+        instance.setMicroserviceId("ms-1");
+        return instance;
+    }
+}
@@ -0,0 +1,160 @@
+package org.ernest;
+
+import com.sun.net.httpserver.HttpServer;
+import org.ernest.applications.trampoline.entities.Ecosystem;
+import org.ernest.applications.trampoline.entities.Instance;
+import org.ernest.applications.trampoline.entities.InstanceHealth;
+import org.ernest.applications.trampoline.entities.InstancesHealth;
+import org.ernest.applications.trampoline.entities.ProbeType;
+import org.ernest.applications.trampoline.services.FileManager;
+import org.ernest.applications.trampoline.services.HealthChecker;
+import org.ernest.applications.trampoline.services.ProcessSupervisor;
+import org.ernest.applications.trampoline.services.UpdateBroadcaster;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+
+public class HealthCheckerTest {
+
+    private HttpServer server;
+
+    private Ecosystem ecosystem;
+
+    private HealthChecker healthChecker;
+
+    private UpdateBroadcaster updateBroadcaster;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.createContext("/down", exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.start();
+
+        ecosystem = new Ecosystem();
+        ecosystem.getInstances().add(buildInstance("up", server.getAddress().getPort()));
+
+        updateBroadcaster = Mockito.mock(UpdateBroadcaster.class);
+        FileManager fileManager = Mockito.mock(FileManager.class);
+        Mockito.when(fileManager.getEcosystem()).thenReturn(ecosystem);
+        healthChecker = new HealthChecker(fileManager, Mockito.mock(ProcessSupervisor.class), updateBroadcaster);
+        ReflectionTestUtils.setField(healthChecker, "probeThreads", 2);
+        ReflectionTestUtils.setField(healthChecker, "connectTimeoutMillis", 500);
+        ReflectionTestUtils.setField(healthChecker, "readTimeoutMillis", 500);
+        ReflectionTestUtils.setField(healthChecker, "latencyWindow", 3);
+        ReflectionTestUtils.setField(healthChecker, "breakerFailures", 2);
+        ReflectionTestUtils.setField(healthChecker, "breakerInitialBackoffMillis", 60000L);
+        ReflectionTestUtils.setField(healthChecker, "breakerMaxBackoffMillis", 60000L);
+        healthChecker.start();
+    }
+
+    @After
+    public void tearDown() {
+        healthChecker.stop();
+        server.stop(0);
+    }
+
+    @Test
+    public void givenPolledInstancesWhenAskingForChangesThenOnlyNewerStatusesAreReturned() {
+        healthChecker.checkInstances();
+        InstancesHealth all = healthChecker.getChangesSince(0);
+        Assert.assertEquals(1, all.getInstances().size());
+        Assert.assertEquals("deployed", all.getInstances().get(0).getStatus());
+
+        healthChecker.checkInstances();
+        Assert.assertTrue(healthChecker.getChangesSince(all.getVersion()).getInstances().isEmpty());
+        Mockito.verify(updateBroadcaster, Mockito.times(1)).publish(Mockito.eq(UpdateBroadcaster.STATUS_TOPIC), Mockito.any());
+
+        server.stop(0);
+        healthChecker.checkInstances();
+        InstancesHealth changed = healthChecker.getChangesSince(all.getVersion());
+        Assert.assertEquals("not deployed", changed.getInstances().get(0).getStatus());
+
+        ecosystem.getInstances().clear();
+        healthChecker.checkInstances();
+        Assert.assertEquals("up", healthChecker.getChangesSince(changed.getVersion()).getRemoved().get(0));
+    }
+
+    @Test
+    public void givenProbeStrategiesWhenPollingThenEachInstanceIsProbedWithItsOwnStrategy() {
+        ecosystem.getInstances().clear();
+        Instance tcp = buildInstance("tcp", server.getAddress().getPort());
+        tcp.setProbeType(ProbeType.TCP);
+        Instance custom = buildInstance("custom", server.getAddress().getPort());
+        custom.setProbeType(ProbeType.CUSTOM);
+        custom.setProbePath("missing");
+        ecosystem.getInstances().add(tcp);
+        ecosystem.getInstances().add(custom);
+
+        healthChecker.checkInstances();
+
+        Assert.assertEquals("deployed", healthChecker.getStatus(tcp));
+        Assert.assertEquals("not deployed", healthChecker.getStatus(custom));
+    }
+
+    @Test
+    public void givenHealthEndpointAnswersWhenPollingThenOnly503CountsAmongErrors() {
+        ecosystem.getInstances().clear();
+        Instance wrongPrefix = buildInstance("wrong-prefix", server.getAddress().getPort());
+        wrongPrefix.setActuatorPrefix("missing");
+        Instance degraded = buildInstance("degraded", server.getAddress().getPort());
+        degraded.setActuatorPrefix("down");
+        ecosystem.getInstances().add(wrongPrefix);
+        ecosystem.getInstances().add(degraded);
+
+        healthChecker.checkInstances();
+
+        Assert.assertEquals("not deployed", healthChecker.getStatus(wrongPrefix));
+        Assert.assertEquals("deployed", healthChecker.getStatus(degraded));
+    }
+
+    @Test
+    public void givenRepeatedProbesWhenPollingThenLatencyWindowIsReported() {
+        for (int i = 0; i < 5; i++) {
+            healthChecker.checkInstances();
+        }
+
+        InstanceHealth health = healthChecker.getProbes().get(0);
+        Assert.assertTrue(health.getProbeLatencyMinMillis() <= health.getProbeLatencyAvgMillis());
+        Assert.assertTrue(health.getProbeLatencyAvgMillis() <= health.getProbeLatencyMaxMillis());
+        Assert.assertTrue(health.getProbeLatencyMaxMillis() >= health.getProbeLatencyMillis());
+    }
+
+    @Test
+    public void givenInstanceDownWhenFailuresReachThresholdThenProbingIsSuspended() {
+        server.stop(0);
+
+        healthChecker.checkInstances();
+        healthChecker.checkInstances();
+        healthChecker.checkInstances();
+
+        InstanceHealth health = healthChecker.getProbes().get(0);
+        Assert.assertEquals("not deployed", health.getStatus());
+        Assert.assertEquals(2, health.getConsecutiveFailures());
+        Assert.assertTrue(health.isCircuitOpen());
+    }
+
+    private Instance buildInstance(String id, int port) {
+        Instance instance = new Instance();
+        instance.setId(id);
+        instance.setIp("127.0.0.1");
+        instance.setPort(String.valueOf(port));
+        instance.setActuatorPrefix("");
+        return instance;
+    }
+}
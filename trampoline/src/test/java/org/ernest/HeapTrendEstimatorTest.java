@@ -0,0 +1,50 @@
+package org.ernest;
+
+import org.ernest.applications.trampoline.utils.HeapTrendEstimator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HeapTrendEstimatorTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    public void givenGrowingPostGcFloorWhenEstimatingThenSawtoothPeaksAreIgnored() {
+        HeapTrendEstimator estimator = new HeapTrendEstimator(5 * MINUTE, 120);
+        for (int minute = 0; minute <= 60; minute++) {
+            long floor = 100_000 + minute * 100L;
+            long sawtooth = (minute % 5) * 50_000L;
+            estimator.add(minute * MINUTE, floor + sawtooth);
+        }
+
+        Assert.assertEquals(12, estimator.getPoints());
+        Assert.assertEquals(100.0, estimator.getSlopeKBPerMinute(), 0.001);
+        Assert.assertEquals(105_500.0, estimator.getProjectedKB(), 0.001);
+        Assert.assertEquals(945.0, estimator.getMinutesToReach(200_000), 0.001);
+    }
+
+    @Test
+    public void givenFlatOrShrinkingHeapWhenEstimatingThenExhaustionIsNeverProjected() {
+        HeapTrendEstimator estimator = new HeapTrendEstimator(MINUTE, 60);
+        for (int minute = 0; minute <= 30; minute++) {
+            estimator.add(minute * MINUTE, 200_000 - minute * 10L);
+        }
+
+        Assert.assertTrue(estimator.getSlopeKBPerMinute() < 0);
+        Assert.assertTrue(Double.isInfinite(estimator.getMinutesToReach(300_000)));
+        Assert.assertTrue(Double.isInfinite(estimator.getMinutesToReach(0)));
+    }
+
+    @Test
+    public void givenMissingReadAmongFlatHeapWhenEstimatingThenNoGrowthIsReported() {
+        HeapTrendEstimator estimator = new HeapTrendEstimator(5 * MINUTE, 120);
+        for (int minute = 0; minute <= 60; minute++) {
+            estimator.add(minute * MINUTE, minute == 2 ? 0 : 100_000);
+        }
+
+        Assert.assertEquals(12, estimator.getPoints());
+        Assert.assertEquals(0.0, estimator.getSlopeKBPerMinute(), 0.001);
+        Assert.assertEquals(100_000.0, estimator.getProjectedKB(), 0.001);
+        Assert.assertTrue(Double.isInfinite(estimator.getMinutesToReach(200_000)));
+    }
+}
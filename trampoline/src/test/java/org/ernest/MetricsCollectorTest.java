@@ -0,0 +1,164 @@
+package org.ernest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.ernest.applications.trampoline.collectors.MetricsCollector;
+import org.ernest.applications.trampoline.entities.Ecosystem;
+import org.ernest.applications.trampoline.entities.Instance;
+import org.ernest.applications.trampoline.entities.MetricsResolution;
+import org.ernest.applications.trampoline.entities.MetricsSeries;
+import org.ernest.applications.trampoline.services.ActuatorClient;
+import org.ernest.applications.trampoline.services.AlertEngine;
+import org.ernest.applications.trampoline.services.EcosystemManager;
+import org.ernest.applications.trampoline.services.UpdateBroadcaster;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MetricsCollectorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger prometheusScrapes = new AtomicInteger();
+
+    private HttpServer server;
+
+    private Ecosystem ecosystem;
+
+    private ActuatorClient actuatorClient;
+
+    private MetricsCollector metricsCollector;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/fast/metrics", exchange -> respond(exchange, "{\"names\":[\"jvm.threads.live\"]}"));
+        server.createContext("/fast/metrics/", exchange -> respond(exchange, "{\"measurements\":[{\"statistic\":\"VALUE\",\"value\":2097152}]}"));
+        server.createContext("/fast/prometheus", exchange -> {
+            int requests = prometheusScrapes.incrementAndGet() * 10;
+            respond(exchange, "http_server_requests_seconds_bucket{uri=\"/a\",le=\"0.1\",} " + requests + ".0\n"
+                    + "http_server_requests_seconds_bucket{uri=\"/a\",le=\"0.5\",} " + (requests * 2 - 10) + ".0\n"
+                    + "http_server_requests_seconds_bucket{uri=\"/a\",le=\"+Inf\",} " + (requests * 2 - 10) + ".0\n");
+        });
+        server.createContext("/broken/metrics", exchange -> respond(exchange, "{\"names\":[]}"));
+        server.createContext("/slow/metrics", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "{\"names\":[]}");
+        });
+        server.start();
+
+        ecosystem = new Ecosystem();
+        ecosystem.getInstances().add(buildInstance("fast"));
+        ecosystem.getInstances().get(0).setMicroserviceId("service");
+        ecosystem.getInstances().add(buildInstance("slow"));
+        EcosystemManager ecosystemManager = Mockito.mock(EcosystemManager.class);
+        Mockito.when(ecosystemManager.getEcosystem()).thenReturn(ecosystem);
+
+        actuatorClient = new ActuatorClient();
+        ReflectionTestUtils.setField(actuatorClient, "maxTotal", 8);
+        ReflectionTestUtils.setField(actuatorClient, "maxPerHost", 4);
+        ReflectionTestUtils.setField(actuatorClient, "connectTimeoutMillis", 1000);
+        ReflectionTestUtils.setField(actuatorClient, "readTimeoutMillis", 5000);
+        ReflectionTestUtils.setField(actuatorClient, "poolWaitMillis", 1000);
+        ReflectionTestUtils.setField(actuatorClient, "idleEvictSeconds", 30L);
+        ReflectionTestUtils.setField(actuatorClient, "capabilitiesTtlMinutes", 10L);
+        actuatorClient.start();
+
+        metricsCollector = new MetricsCollector();
+        ReflectionTestUtils.setField(metricsCollector, "ecosystemManager", ecosystemManager);
+        ReflectionTestUtils.setField(metricsCollector, "actuatorClient", actuatorClient);
+        ReflectionTestUtils.setField(metricsCollector, "updateBroadcaster", Mockito.mock(UpdateBroadcaster.class));
+        ReflectionTestUtils.setField(metricsCollector, "alertEngine", Mockito.mock(AlertEngine.class));
+        ReflectionTestUtils.setField(metricsCollector, "scrapeThreads", 4);
+        ReflectionTestUtils.setField(metricsCollector, "deadlineMillis", 500L);
+        ReflectionTestUtils.setField(metricsCollector, "rawSamples", 10);
+        ReflectionTestUtils.setField(metricsCollector, "minuteSamples", 10);
+        ReflectionTestUtils.setField(metricsCollector, "tenMinutesSamples", 10);
+        ReflectionTestUtils.setField(metricsCollector, "hourSamples", 10);
+        ReflectionTestUtils.setField(metricsCollector, "catalogSpec", "liveThreads=jvm.threads.live:VALUE:1");
+        ReflectionTestUtils.setField(metricsCollector, "latencyHistogram", "http_server_requests_seconds");
+        metricsCollector.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+        metricsCollector.stop();
+        actuatorClient.stop();
+        server.stop(0);
+    }
+
+    @Test
+    public void givenHungInstanceWhenCollectingThenOthersAreStoredAndItIsMarkedStale() throws Exception {
+        long started = System.currentTimeMillis();
+        metricsCollector.collectMetrics();
+
+        Assert.assertTrue(System.currentTimeMillis() - started < 3000);
+        MetricsSeries fast = metricsCollector.getInstanceMetrics("fast", 0, Long.MAX_VALUE, MetricsResolution.RAW);
+        Assert.assertEquals(1, fast.getTimestamps().length);
+        Assert.assertEquals(2048L, fast.getAvg().get("usedHeapKB")[0]);
+        Assert.assertEquals(2048L, fast.getAvg().get("committedHeapKB")[0]);
+        Assert.assertEquals(0L, fast.getAvg().get("initHeapKB")[0]);
+        Assert.assertEquals(2097152L, fast.getAvg().get("liveThreads")[0]);
+        Assert.assertNull(metricsCollector.getInstanceMetrics("slow", 0, Long.MAX_VALUE, MetricsResolution.RAW));
+        Assert.assertEquals(Collections.singleton("slow"), metricsCollector.getStaleInstances());
+    }
+
+    @Test
+    public void givenMissingMemoryMetricsWhenCollectingThenNoZeroSampleIsStored() throws Exception {
+        ecosystem.getInstances().add(buildInstance("broken"));
+
+        metricsCollector.collectMetrics();
+
+        Assert.assertNull(metricsCollector.getInstanceMetrics("broken", 0, Long.MAX_VALUE, MetricsResolution.RAW));
+        Assert.assertTrue(metricsCollector.getHeapTrends().stream().noneMatch(trend -> trend.getInstanceId().equals("broken")));
+        Assert.assertNotNull(metricsCollector.getInstanceMetrics("fast", 0, Long.MAX_VALUE, MetricsResolution.RAW));
+    }
+
+    @Test
+    public void givenTwoScrapesWhenCollectingThenFleetLatencyComesFromHistogramDelta() throws Exception {
+        metricsCollector.collectMetrics();
+        metricsCollector.collectMetrics();
+
+        MetricsSeries latencies = metricsCollector.getLatencies("service", 0, Long.MAX_VALUE, MetricsResolution.RAW);
+        Assert.assertEquals(1, latencies.getTimestamps().length);
+        Assert.assertEquals(20L, latencies.getAvg().get("requests")[0]);
+        Assert.assertEquals(100L, latencies.getAvg().get("p50Millis")[0]);
+        Assert.assertEquals(492L, latencies.getAvg().get("p99Millis")[0]);
+    }
+
+    private void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Instance buildInstance(String id) {
+        Instance instance = new Instance();
+        instance.setId(id);
+        instance.setIp("127.0.0.1");
+        instance.setPort(String.valueOf(server.getAddress().getPort()));
+        instance.setActuatorPrefix(id);
+        return instance;
+    }
+}
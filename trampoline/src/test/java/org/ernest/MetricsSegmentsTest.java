@@ -0,0 +1,70 @@
+package org.ernest;
+
+import org.ernest.applications.trampoline.entities.MetricsResolution;
+import org.ernest.applications.trampoline.entities.MetricsSeries;
+import org.ernest.applications.trampoline.utils.MetricsSegments;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+public class MetricsSegmentsTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void givenSamplesAcrossSegmentsWhenReopeningThenHistoryIsStillReadable() throws Exception {
+        File folder = temporaryFolder.newFolder("history");
+        MetricsSegments segments = new MetricsSegments(folder, new String[]{"used", "total"}, 4096, HOUR, 30 * HOUR);
+        for (int i = 0; i < 4; i++) {
+            segments.append("a", HOUR + i * HOUR / 2, new long[]{i, 100});
+            segments.append("b", HOUR + i * HOUR / 2, new long[]{10 + i, 100});
+        }
+        segments.close();
+
+        Assert.assertEquals(2, folder.listFiles().length);
+
+        MetricsSegments reopened = new MetricsSegments(folder, new String[]{"total", "used", "heap"}, 4096, HOUR, 30 * HOUR);
+        MetricsSeries series = reopened.query("a", HOUR + HOUR / 2, 3 * HOUR, MetricsResolution.RAW);
+
+        Assert.assertArrayEquals(new long[]{HOUR + HOUR / 2, 2 * HOUR, 2 * HOUR + HOUR / 2}, series.getTimestamps());
+        Assert.assertArrayEquals(new long[]{1, 2, 3}, series.getAvg().get("used"));
+        Assert.assertArrayEquals(new long[]{100, 100, 100}, series.getAvg().get("total"));
+        Assert.assertArrayEquals(new long[]{0, 0, 0}, series.getAvg().get("heap"));
+        Assert.assertNull(reopened.query("c", 0, Long.MAX_VALUE, MetricsResolution.RAW));
+    }
+
+    @Test
+    public void givenFullSegmentWhenAppendingThenANewSegmentIsStarted() throws Exception {
+        File folder = temporaryFolder.newFolder("history");
+        MetricsSegments segments = new MetricsSegments(folder, new String[]{"used"}, 128, HOUR, 30 * HOUR);
+        for (int i = 1; i <= 10; i++) {
+            segments.append("a", i, new long[]{i});
+        }
+
+        Assert.assertTrue(folder.listFiles().length > 1);
+        MetricsSeries series = segments.query("a", 0, Long.MAX_VALUE, MetricsResolution.MINUTE);
+        Assert.assertArrayEquals(new long[]{0}, series.getTimestamps());
+        Assert.assertArrayEquals(new long[]{1}, series.getMin().get("used"));
+        Assert.assertArrayEquals(new long[]{10}, series.getMax().get("used"));
+    }
+
+    @Test
+    public void givenOldSegmentsWhenRetentionPassesThenTheyAreDeleted() throws Exception {
+        File folder = temporaryFolder.newFolder("history");
+        MetricsSegments segments = new MetricsSegments(folder, new String[]{"used"}, 4096, HOUR, 2 * HOUR);
+        for (int i = 0; i < 5; i++) {
+            segments.append("a", HOUR + i * HOUR, new long[]{i});
+        }
+
+        segments.deleteExpired(5 * HOUR + HOUR / 2);
+
+        Assert.assertEquals(3, folder.listFiles().length);
+        Assert.assertArrayEquals(new long[]{2, 3, 4}, segments.query("a", 0, Long.MAX_VALUE, MetricsResolution.RAW).getAvg().get("used"));
+    }
+}
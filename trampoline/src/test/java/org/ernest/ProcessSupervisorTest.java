@@ -0,0 +1,93 @@
+package org.ernest;
+
+import org.ernest.applications.trampoline.entities.InstanceProcess;
+import org.ernest.applications.trampoline.entities.ProcessState;
+import org.ernest.applications.trampoline.services.ProcessSupervisor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ProcessSupervisorTest {
+
+    private ProcessSupervisor processSupervisor;
+
+    @Before
+    public void setUp() {
+        processSupervisor = new ProcessSupervisor();
+        ReflectionTestUtils.setField(processSupervisor, "outputLines", 2);
+    }
+
+    @After
+    public void tearDown() {
+        processSupervisor.shutdown();
+    }
+
+    @Test
+    public void givenFailingProcessWhenItExitsThenStateIsExitedWithCodeAndOutputIsBounded() throws Exception {
+        CountDownLatch exited = new CountDownLatch(1);
+        processSupervisor.addListener(process -> {
+            if (process.getState() == ProcessState.EXITED) exited.countDown();
+        });
+
+        processSupervisor.supervise("instance", start("echo one; echo two; echo three; echo error >&2; exit 3"), ProcessState.BUILDING, ProcessState.STARTING);
+
+        Assert.assertTrue(exited.await(10, TimeUnit.SECONDS));
+        InstanceProcess process = processSupervisor.getProcess("instance").get();
+        Assert.assertEquals(Integer.valueOf(3), process.getExitCode());
+        Assert.assertTrue(process.getStdout().size() <= 2);
+        Assert.assertFalse(process.getStdout().contains("one"));
+    }
+
+    @Test
+    public void givenDaemonizingScriptWhenItSucceedsThenInstanceIsStartingUntilMarkedRunning() throws Exception {
+        CountDownLatch starting = new CountDownLatch(1);
+        processSupervisor.addListener(process -> {
+            if (process.getState() == ProcessState.STARTING) starting.countDown();
+        });
+
+        processSupervisor.supervise("instance", start("exit 0"), ProcessState.BUILDING, ProcessState.STARTING);
+
+        Assert.assertTrue(starting.await(10, TimeUnit.SECONDS));
+        processSupervisor.markRunning("instance");
+        Assert.assertEquals(ProcessState.RUNNING, processSupervisor.getProcess("instance").get().getState());
+    }
+
+    @Test
+    public void givenFollowedDaemonWhenItDiesThenReconcileMarksInstanceExited() throws Exception {
+        File pidFile = File.createTempFile("trampoline", ".pid");
+        pidFile.deleteOnExit();
+        CountDownLatch starting = new CountDownLatch(1);
+        processSupervisor.addListener(process -> {
+            if (process.getState() == ProcessState.STARTING) starting.countDown();
+        });
+
+        processSupervisor.supervise("instance", start("nohup sleep 60 > /dev/null 2>&1 & echo $! > " + pidFile.getAbsolutePath()),
+                ProcessState.STARTING, ProcessState.STARTING).get(10, TimeUnit.SECONDS);
+        Assert.assertTrue(starting.await(10, TimeUnit.SECONDS));
+        processSupervisor.follow("instance", pidFile);
+        processSupervisor.reconcile();
+        Assert.assertEquals(ProcessState.STARTING, processSupervisor.getProcess("instance").get().getState());
+
+        start("kill " + new String(Files.readAllBytes(pidFile.toPath()), StandardCharsets.UTF_8).trim()).waitFor();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (processSupervisor.getProcess("instance").get().getState() != ProcessState.EXITED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            processSupervisor.reconcile();
+        }
+
+        Assert.assertEquals(ProcessState.EXITED, processSupervisor.getProcess("instance").get().getState());
+        Assert.assertFalse(pidFile.exists());
+    }
+
+    private Process start(String command) throws Exception {
+        return new ProcessBuilder("bash", "-c", command).start();
+    }
+}
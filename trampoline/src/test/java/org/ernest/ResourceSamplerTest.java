@@ -0,0 +1,60 @@
+package org.ernest;
+
+import org.ernest.applications.trampoline.collectors.ResourceSampler;
+import org.ernest.applications.trampoline.entities.Ecosystem;
+import org.ernest.applications.trampoline.entities.Instance;
+import org.ernest.applications.trampoline.entities.ProcessResources;
+import org.ernest.applications.trampoline.services.EcosystemManager;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+public class ResourceSamplerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void givenPidFilesWhenSamplingThenOnlyRunningInstancesAreReported() throws Exception {
+        File pomLocation = temporaryFolder.newFolder("service");
+        File runFolder = new File(pomLocation, "run/trampoline");
+        runFolder.mkdirs();
+        String pid = ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
+        Files.write(new File(runFolder, "running.pid").toPath(), (pid + "\n").getBytes(StandardCharsets.UTF_8));
+
+        Ecosystem ecosystem = new Ecosystem();
+        ecosystem.getInstances().add(buildInstance("running", pomLocation));
+        ecosystem.getInstances().add(buildInstance("stopped", pomLocation));
+        EcosystemManager ecosystemManager = Mockito.mock(EcosystemManager.class);
+        Mockito.when(ecosystemManager.getEcosystem()).thenReturn(ecosystem);
+
+        ResourceSampler resourceSampler = new ResourceSampler();
+        ReflectionTestUtils.setField(resourceSampler, "ecosystemManager", ecosystemManager);
+        resourceSampler.start();
+        resourceSampler.sample();
+
+        Map<String, ProcessResources> processes = resourceSampler.getProcessResources();
+        Assert.assertEquals(1, processes.size());
+        Assert.assertEquals(Integer.parseInt(pid), processes.get("running").getPid());
+        Assert.assertTrue(processes.get("running").getResidentSetKB() > 0);
+        Assert.assertTrue(processes.get("running").getThreadCount() > 0);
+        Assert.assertTrue(resourceSampler.getHostResources().getMemoryTotalKB() > 0);
+    }
+
+    private Instance buildInstance(String name, File pomLocation) {
+        Instance instance = new Instance();
+        instance.setId(name);
+        instance.setName(name);
+        instance.setPomLocation(pomLocation.getAbsolutePath());
+        return instance;
+    }
+}
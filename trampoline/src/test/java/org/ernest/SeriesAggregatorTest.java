@@ -0,0 +1,56 @@
+package org.ernest;
+
+import org.ernest.applications.trampoline.entities.MetricsAggregation;
+import org.ernest.applications.trampoline.entities.MetricsSeries;
+import org.ernest.applications.trampoline.utils.SeriesAggregator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SeriesAggregatorTest {
+
+    @Test
+    public void givenRawSamplesWhenAggregatingThenEveryStepIsFoldedAndGapsAreNull() {
+        MetricsSeries series = new MetricsSeries();
+        series.setTimestamps(new long[20]);
+        long[] heap = new long[20];
+        for (int i = 0; i < 20; i++) {
+            series.getTimestamps()[i] = 1_000 + i * 1_000L;
+            heap[i] = i + 1;
+        }
+        series.getAvg().put("usedHeapKB", heap);
+
+        Map<String, Map<String, Long[]>> values = SeriesAggregator.aggregate(series, 1_000, 10_000, 3, Arrays.asList("usedHeapKB", "missing"),
+                Arrays.asList(MetricsAggregation.values()));
+
+        Assert.assertEquals(Collections.singleton("usedHeapKB"), values.keySet());
+        Map<String, Long[]> columns = values.get("usedHeapKB");
+        Assert.assertArrayEquals(new Long[]{1L, 11L, null}, columns.get("min"));
+        Assert.assertArrayEquals(new Long[]{10L, 20L, null}, columns.get("max"));
+        Assert.assertArrayEquals(new Long[]{6L, 16L, null}, columns.get("avg"));
+        Assert.assertArrayEquals(new Long[]{10L, 20L, null}, columns.get("last"));
+        Assert.assertArrayEquals(new Long[]{10L, 20L, null}, columns.get("p95"));
+    }
+
+    @Test
+    public void givenRollupPointsWhenAggregatingThenStoredExtremesAreKept() {
+        MetricsSeries series = new MetricsSeries();
+        series.setTimestamps(new long[]{0, 60_000, 120_000});
+        series.getAvg().put("threads", new long[]{20, 30, 40});
+        series.setMin(new LinkedHashMap<>());
+        series.setMax(new LinkedHashMap<>());
+        series.getMin().put("threads", new long[]{5, 25, 35});
+        series.getMax().put("threads", new long[]{25, 90, 45});
+
+        Map<String, Long[]> columns = SeriesAggregator.aggregate(series, 0, 120_000, 2, Collections.singletonList("threads"),
+                Arrays.asList(MetricsAggregation.MIN, MetricsAggregation.MAX, MetricsAggregation.AVG)).get("threads");
+
+        Assert.assertArrayEquals(new Long[]{5L, 35L}, columns.get("min"));
+        Assert.assertArrayEquals(new Long[]{90L, 45L}, columns.get("max"));
+        Assert.assertArrayEquals(new Long[]{25L, 40L}, columns.get("avg"));
+    }
+}
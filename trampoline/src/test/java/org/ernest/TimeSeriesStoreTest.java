@@ -0,0 +1,67 @@
+package org.ernest;
+
+import org.ernest.applications.trampoline.entities.MetricsResolution;
+import org.ernest.applications.trampoline.entities.MetricsSeries;
+import org.ernest.applications.trampoline.utils.TimeSeriesStore;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class TimeSeriesStoreTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private TimeSeriesStore store;
+
+    @Before
+    public void setUp() {
+        Map<MetricsResolution, Integer> capacities = new EnumMap<>(MetricsResolution.class);
+        capacities.put(MetricsResolution.RAW, 4);
+        capacities.put(MetricsResolution.MINUTE, 60);
+        capacities.put(MetricsResolution.TEN_MINUTES, 60);
+        capacities.put(MetricsResolution.HOUR, 60);
+        store = new TimeSeriesStore(new String[]{"used"}, capacities);
+    }
+
+    @Test
+    public void givenSamplesWhenRawRingIsFullThenOldestAreOverwritten() {
+        for (int i = 0; i < 6; i++) {
+            store.add("instance", i * 1000L, new long[]{i});
+        }
+
+        MetricsSeries series = store.query("instance", 0, Long.MAX_VALUE, MetricsResolution.RAW);
+
+        Assert.assertArrayEquals(new long[]{2000, 3000, 4000, 5000}, series.getTimestamps());
+        Assert.assertArrayEquals(new long[]{2, 3, 4, 5}, series.getAvg().get("used"));
+        Assert.assertNull(series.getMin());
+    }
+
+    @Test
+    public void givenSamplesWhenQueryingRollupThenBucketsKeepMinMaxAndAverage() {
+        store.add("instance", 10_000L, new long[]{10});
+        store.add("instance", 40_000L, new long[]{30});
+        store.add("instance", MINUTE + 5_000L, new long[]{7});
+
+        MetricsSeries series = store.query("instance", 0, Long.MAX_VALUE, MetricsResolution.MINUTE);
+
+        Assert.assertEquals("1m", series.getResolution());
+        Assert.assertArrayEquals(new long[]{0, MINUTE}, series.getTimestamps());
+        Assert.assertArrayEquals(new long[]{20, 7}, series.getAvg().get("used"));
+        Assert.assertArrayEquals(new long[]{10, 7}, series.getMin().get("used"));
+        Assert.assertArrayEquals(new long[]{30, 7}, series.getMax().get("used"));
+    }
+
+    @Test
+    public void givenRangeOlderThanRawHistoryWhenNoResolutionRequestedThenCoarserRingIsUsed() {
+        for (int i = 0; i < 10; i++) {
+            store.add("instance", i * MINUTE, new long[]{i});
+        }
+
+        Assert.assertEquals("raw", store.query("instance", 7 * MINUTE, Long.MAX_VALUE, null).getResolution());
+        Assert.assertEquals("1m", store.query("instance", 0, Long.MAX_VALUE, null).getResolution());
+        Assert.assertEquals(3, store.query("instance", 2 * MINUTE, 4 * MINUTE, MetricsResolution.MINUTE).getTimestamps().length);
+    }
+}
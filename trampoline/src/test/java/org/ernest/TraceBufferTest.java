@@ -0,0 +1,66 @@
+package org.ernest;
+
+import org.ernest.applications.trampoline.entities.TraceActuator;
+import org.ernest.applications.trampoline.utils.TraceBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TraceBufferTest {
+
+    @Test
+    public void givenOverlappingWindowsWhenOfferingThenOnlyUnseenExchangesAreKept() {
+        TraceBuffer buffer = new TraceBuffer(100, 1_000, 8_000);
+
+        Assert.assertEquals(3, buffer.offer(Arrays.asList(trace(3_000, "/c"), trace(2_000, "/b"), trace(1_000, "/a"))));
+        Assert.assertEquals(2, buffer.offer(Arrays.asList(trace(4_000, "/d"), trace(4_000, "/e"), trace(3_000, "/c"), trace(2_000, "/b"))));
+        Assert.assertEquals(0, buffer.offer(Arrays.asList(trace(4_000, "/d"), trace(4_000, "/e"), trace(3_000, "/c"), trace(2_000, "/b"))));
+
+        List<String> paths = buffer.getTraces().stream().map(TraceActuator::getPath).collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList("/e", "/d", "/c", "/b", "/a"), paths);
+        Assert.assertEquals(5, buffer.getIngested());
+        Assert.assertEquals(0, buffer.getOverflows());
+        Assert.assertEquals(2_000, buffer.getIntervalMillis());
+    }
+
+    @Test
+    public void givenIdenticalExchangesOnSameMillisecondWhenOfferingThenEachIsCountedOnce() {
+        TraceBuffer buffer = new TraceBuffer(100, 1_000, 8_000);
+
+        Assert.assertEquals(3, buffer.offer(Arrays.asList(trace(1_000, "/a"), trace(2_000, "/b"), trace(2_000, "/b"))));
+        Assert.assertEquals(0, buffer.offer(Arrays.asList(trace(2_000, "/b"), trace(2_000, "/b"), trace(1_000, "/a"))));
+        Assert.assertEquals(2, buffer.offer(Arrays.asList(trace(2_000, "/b"), trace(2_000, "/b"), trace(2_000, "/b"), trace(2_000, "/c"))));
+
+        Assert.assertEquals(5, buffer.getIngested());
+        Assert.assertEquals(3, buffer.getTraces().stream().filter(trace -> trace.getPath().equals("/b")).count());
+    }
+
+    @Test
+    public void givenWindowWithoutOverlapWhenOfferingThenMissedExchangesAreCountedAndPollingSpeedsUp() {
+        TraceBuffer buffer = new TraceBuffer(4, 1_000, 8_000);
+        buffer.offer(Arrays.asList(trace(1_000, "/a"), trace(2_000, "/b"), trace(3_000, "/c")));
+        buffer.offer(Arrays.asList(trace(3_000, "/c")));
+        buffer.offer(Arrays.asList(trace(3_000, "/c")));
+        Assert.assertEquals(4_000, buffer.getIntervalMillis());
+
+        Assert.assertEquals(3, buffer.offer(Arrays.asList(trace(10_000, "/x"), trace(11_000, "/y"), trace(12_000, "/z"))));
+
+        Assert.assertEquals(1, buffer.getOverflows());
+        Assert.assertEquals(11, buffer.getMissed());
+        Assert.assertEquals(2_000, buffer.getIntervalMillis());
+        Assert.assertEquals(4, buffer.getSize());
+        Assert.assertEquals(2, buffer.getEvicted());
+    }
+
+    private static TraceActuator trace(long timestamp, String path) {
+        TraceActuator trace = new TraceActuator();
+        trace.setTimestamp(timestamp);
+        trace.setMethod("GET");
+        trace.setPath(path);
+        trace.setStatus("200");
+        return trace;
+    }
+}
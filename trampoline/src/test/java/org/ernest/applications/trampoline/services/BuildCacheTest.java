@@ -0,0 +1,112 @@
+package org.ernest.applications.trampoline.services;
+
+import org.eclipse.jgit.api.Git;
+import org.ernest.applications.trampoline.entities.BuildCacheStats;
+import org.ernest.applications.trampoline.entities.MicroService;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class BuildCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File sources;
+
+    private MicroService microservice;
+
+    private BuildCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        sources = folder.newFolder("service");
+        write("pom.xml", "<project/>");
+        write("src/main/java/App.java", "class App {}");
+        microservice = new MicroService();
+        microservice.setId("ms-1");
+        microservice.setName("service");
+        microservice.setPomLocation(sources.getAbsolutePath());
+        cache = new BuildCache(folder.newFolder("cache"), 1024);
+    }
+
+    @Test
+    public void givenUnchangedSourcesWhenHashingThenKeyIsStable() throws IOException {
+        String key = cache.key(microservice, "pom.xml");
+        write("target/service.jar", "output");
+        write("run/trampoline/service.pid", "42");
+
+        Assert.assertEquals(key, cache.key(microservice, "pom.xml"));
+    }
+
+    @Test
+    public void givenChangedBuildFileOrSourcesWhenHashingThenKeyChanges() throws IOException {
+        String key = cache.key(microservice, "pom.xml");
+
+        write("pom.xml", "<project><version>2</version></project>");
+        String pomChanged = cache.key(microservice, "pom.xml");
+        write("src/main/java/App.java", "class App { }");
+        String sourceChanged = cache.key(microservice, "pom.xml");
+
+        Assert.assertNotEquals(key, pomChanged);
+        Assert.assertNotEquals(pomChanged, sourceChanged);
+    }
+
+    @Test
+    public void givenGitCheckoutWhenHeadMovesOrFilesGetDirtyThenKeyChanges() throws Exception {
+        try (Git git = Git.init().setDirectory(sources).call()) {
+            commit(git, "first");
+            String first = cache.key(microservice, "pom.xml");
+            Assert.assertEquals(first, cache.key(microservice, "pom.xml"));
+
+            write("src/main/java/App.java", "class App { int dirty; }");
+            String dirty = cache.key(microservice, "pom.xml");
+            Assert.assertNotEquals(first, dirty);
+
+            commit(git, "second");
+            String second = cache.key(microservice, "pom.xml");
+            Assert.assertNotEquals(first, second);
+            Assert.assertNotEquals(dirty, second);
+        }
+    }
+
+    @Test
+    public void givenCacheOverItsLimitWhenStoringThenLeastRecentlyUsedBuildIsEvicted() throws IOException {
+        File jar = new File(sources, "target/service.jar");
+        File restored = new File(sources, "restored.jar");
+        write("target/service.jar", new String(new char[400]));
+
+        cache.store("first", jar);
+        cache.store("second", jar);
+        Assert.assertTrue(cache.restore("first", restored));
+        cache.store("third", jar);
+
+        Assert.assertFalse(cache.restore("second", restored));
+        Assert.assertTrue(cache.restore("third", restored));
+        Assert.assertTrue(cache.restore("first", restored));
+        BuildCacheStats stats = cache.getStats();
+        Assert.assertEquals(3, stats.getHits());
+        Assert.assertEquals(1, stats.getMisses());
+        Assert.assertEquals(1, stats.getEvictions());
+        Assert.assertEquals(2, stats.getEntries());
+        Assert.assertEquals(800, stats.getSizeBytes());
+    }
+
+    private void commit(Git git, String message) throws Exception {
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage(message).setAuthor("dev", "dev@localhost").setCommitter("dev", "dev@localhost").setAllowEmpty(true).call();
+    }
+
+    private void write(String path, String content) throws IOException {
+        File file = new File(sources, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,109 @@
+package org.ernest.applications.trampoline.services;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class EcosystemJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File journalFile;
+
+    @Before
+    public void setUp() {
+        journalFile = new File(folder.getRoot(), "settings.journal");
+    }
+
+    @Test
+    public void givenChangedSnapshotWhenDiffingThenElementsAreRecordedById() {
+        JsonObject previous = json("{'mavenHomeLocation':'/opt/m2','instances':[{'id':'a','port':'1'},{'id':'b','port':'2'}]}");
+        JsonObject next = json("{'mavenHomeLocation':'/opt/m3','instances':[{'id':'b','port':'3'},{'id':'c','port':'4'}]}");
+
+        List<String> records = EcosystemJournal.diff(previous, next).stream().map(JsonObject::toString).collect(Collectors.toList());
+
+        Assert.assertEquals(4, records.size());
+        Assert.assertTrue(records.contains("{\"op\":\"SET\",\"path\":\"mavenHomeLocation\",\"value\":\"/opt/m3\"}"));
+        Assert.assertTrue(records.contains("{\"op\":\"REMOVE\",\"path\":\"instances\",\"id\":\"a\"}"));
+        Assert.assertTrue(records.contains("{\"op\":\"PUT\",\"path\":\"instances\",\"id\":\"b\",\"value\":{\"id\":\"b\",\"port\":\"3\"}}"));
+        Assert.assertTrue(records.contains("{\"op\":\"PUT\",\"path\":\"instances\",\"id\":\"c\",\"value\":{\"id\":\"c\",\"port\":\"4\"}}"));
+    }
+
+    @Test
+    public void givenAppendedChangesWhenReplayingThenSnapshotCatchesUp() throws IOException {
+        JsonObject previous = json("{'instances':[{'id':'a','port':'1'}]}");
+        JsonObject next = json("{'mavenHomeLocation':'/opt/m2','instances':[{'id':'a','port':'2'},{'id':'b','port':'3'}]}");
+        Assert.assertEquals(3, new EcosystemJournal(journalFile).append(previous, next));
+
+        EcosystemJournal journal = new EcosystemJournal(journalFile);
+        JsonObject replayed = json("{'instances':[{'id':'a','port':'1'}]}");
+
+        Assert.assertEquals(3, journal.replay(replayed));
+        Assert.assertEquals(next, replayed);
+        Assert.assertEquals(3, journal.getLastSequence());
+    }
+
+    @Test
+    public void givenRecordsAlreadyInSnapshotWhenReplayingThenTheyAreSkipped() throws IOException {
+        write("{'seq':1,'op':'SET','path':'mavenHomeLocation','value':'/opt/m2'}\n{'seq':2,'op':'SET','path':'mavenBinaryLocation','value':'/opt/m2/bin'}\n");
+        JsonObject snapshot = json("{'journalSequence':1,'mavenHomeLocation':'/opt/m3'}");
+
+        EcosystemJournal journal = new EcosystemJournal(journalFile);
+
+        Assert.assertEquals(1, journal.replay(snapshot));
+        Assert.assertEquals("/opt/m3", snapshot.get("mavenHomeLocation").getAsString());
+        Assert.assertEquals("/opt/m2/bin", snapshot.get("mavenBinaryLocation").getAsString());
+        Assert.assertEquals(2, journal.getLastSequence());
+    }
+
+    @Test
+    public void givenTornLastRecordWhenReplayingThenOnlyThatRecordIsDiscarded() throws IOException {
+        String complete = "{\"seq\":1,\"op\":\"SET\",\"path\":\"mavenHomeLocation\",\"value\":\"/opt/m2\"}\n";
+        write(complete + "{\"seq\":2,\"op\":\"SET\",\"path\":\"mavenBin");
+        JsonObject snapshot = new JsonObject();
+
+        Assert.assertEquals(1, new EcosystemJournal(journalFile).replay(snapshot));
+        Assert.assertEquals("/opt/m2", snapshot.get("mavenHomeLocation").getAsString());
+        Assert.assertEquals(complete, new String(Files.readAllBytes(journalFile.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void givenCorruptRecordBeforeCommittedOnesWhenReplayingThenLoadFailsAndJournalIsKept() throws IOException {
+        write("{'seq':1,'op':'SET','path':'mavenHomeLocation','value':'/opt/m2'}\n{'seq':2,'op':\n{'seq':3,'op':'SET','path':'mavenBinaryLocation','value':'/opt/m2/bin'}\n");
+        byte[] before = Files.readAllBytes(journalFile.toPath());
+
+        try {
+            new EcosystemJournal(journalFile).replay(new JsonObject());
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertArrayEquals(before, Files.readAllBytes(journalFile.toPath()));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void givenRecordWithoutSequenceWhenReplayingThenLoadFails() throws IOException {
+        write("{'op':'SET','path':'mavenHomeLocation','value':'/opt/m2'}\n");
+
+        new EcosystemJournal(journalFile).replay(new JsonObject());
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(journalFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static JsonObject json(String content) {
+        return new JsonParser().parse(content).getAsJsonObject();
+    }
+}
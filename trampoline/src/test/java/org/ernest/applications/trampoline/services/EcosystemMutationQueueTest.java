@@ -0,0 +1,127 @@
+package org.ernest.applications.trampoline.services;
+
+import org.ernest.applications.trampoline.entities.Ecosystem;
+import org.ernest.applications.trampoline.entities.Instance;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+public class EcosystemMutationQueueTest {
+
+    private final AtomicReference<Ecosystem> published = new AtomicReference<>(new Ecosystem().freeze());
+
+    private final List<Ecosystem> commits = new CopyOnWriteArrayList<>();
+
+    private EcosystemMutationQueue queue;
+
+    @After
+    public void tearDown() {
+        queue.stop();
+    }
+
+    @Test
+    public void givenBurstOfMutationsWhenCoalescingThenSingleWriteKeepsSubmissionOrder() throws Exception {
+        queue = start(200, this::commit);
+
+        List<CompletableFuture<Ecosystem>> futures = Arrays.asList(queue.submit(add("in-1")), queue.submit(add("in-2")), queue.submit(add("in-3")));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1, commits.size());
+        Assert.assertEquals(Arrays.asList("in-1", "in-2", "in-3"), ids(published.get()));
+        futures.forEach(future -> Assert.assertSame(published.get(), future.join()));
+    }
+
+    @Test
+    public void givenFailingMutationInBatchWhenCommittingThenOthersAreReplayedOnce() throws Exception {
+        queue = start(200, this::commit);
+
+        CompletableFuture<Ecosystem> first = queue.submit(add("in-1"));
+        CompletableFuture<Ecosystem> failing = queue.submit(ecosystem -> {
+            ecosystem.getInstances().add(instance("broken"));
+            throw new IllegalStateException("rejected");
+        });
+        CompletableFuture<Ecosystem> last = queue.submit(add("in-2"));
+        last.get(5, TimeUnit.SECONDS);
+
+        Assert.assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        Assert.assertTrue(failing.isCompletedExceptionally());
+        Assert.assertEquals(Arrays.asList("in-1", "in-2"), ids(published.get()));
+        Assert.assertEquals(1, commits.size());
+    }
+
+    @Test
+    public void givenSlowCommitWhenWaitingThenFutureCompletesOnlyAfterCommit() throws Exception {
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        queue = start(0, next -> {
+            committing.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            commit(next);
+        });
+
+        CompletableFuture<Ecosystem> future = queue.submit(add("in-1"));
+        Assert.assertTrue(committing.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assert.assertFalse(future.isDone());
+
+        release.countDown();
+        Assert.assertEquals(Arrays.asList("in-1"), ids(future.get(5, TimeUnit.SECONDS)));
+    }
+
+    @Test
+    public void givenFailingCommitWhenWaitingThenEveryAppliedFutureFails() throws Exception {
+        queue = start(0, next -> {
+            throw new IllegalStateException("disk full");
+        });
+
+        CompletableFuture<Ecosystem> future = queue.submit(add("in-1"));
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals("disk full", e.getCause().getMessage());
+        }
+        Assert.assertTrue(published.get().getInstances().isEmpty());
+    }
+
+    private EcosystemMutationQueue start(long coalesceMillis, Consumer<Ecosystem> committer) {
+        EcosystemMutationQueue started = new EcosystemMutationQueue(published::get, committer, coalesceMillis);
+        started.start();
+        return started;
+    }
+
+    private void commit(Ecosystem next) {
+        commits.add(next);
+        published.set(next.freeze());
+    }
+
+    private static Consumer<Ecosystem> add(String id) {
+        return ecosystem -> ecosystem.getInstances().add(instance(id));
+    }
+
+    private static Instance instance(String id) {
+        Instance instance = new Instance();
+        instance.setId(id);
+        instance.setPort("8080");
+        return instance;
+    }
+
+    private static List<String> ids(Ecosystem ecosystem) {
+        return ecosystem.getInstances().stream().map(Instance::getId).collect(Collectors.toList());
+    }
+}
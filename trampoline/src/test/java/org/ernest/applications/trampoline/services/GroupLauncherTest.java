@@ -0,0 +1,177 @@
+package org.ernest.applications.trampoline.services;
+
+import com.google.gson.JsonParser;
+import org.ernest.applications.trampoline.entities.Instance;
+import org.ernest.applications.trampoline.entities.MicroService;
+import org.ernest.applications.trampoline.exceptions.StartingGroupException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+public class GroupLauncherTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    private final Set<String> readyIds = ConcurrentHashMap.newKeySet();
+
+    private final List<String> launched = new CopyOnWriteArrayList<>();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void givenDependenciesWhenOrderingThenPrerequisitesComeFirst() {
+        Map<String, List<String>> dependencies = new HashMap<>();
+        dependencies.put("api", Arrays.asList("db", "config"));
+        dependencies.put("db", Collections.singletonList("config"));
+
+        List<String> order = GroupLauncher.topologicalOrder(Arrays.asList("api", "db", "config", "ui"), dependencies);
+
+        Assert.assertEquals(4, order.size());
+        Assert.assertTrue(order.indexOf("config") < order.indexOf("db"));
+        Assert.assertTrue(order.indexOf("db") < order.indexOf("api"));
+    }
+
+    @Test
+    public void givenUnknownAndSelfDependenciesWhenOrderingThenTheyAreIgnored() {
+        Map<String, List<String>> dependencies = new HashMap<>();
+        dependencies.put("api", Arrays.asList("api", "missing"));
+
+        Assert.assertEquals(Collections.singletonList("api"), GroupLauncher.topologicalOrder(Collections.singletonList("api"), dependencies));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void givenCycleWhenOrderingThenRejected() {
+        Map<String, List<String>> dependencies = new HashMap<>();
+        dependencies.put("a", Collections.singletonList("b"));
+        dependencies.put("b", Collections.singletonList("c"));
+        dependencies.put("c", Collections.singletonList("a"));
+
+        GroupLauncher.topologicalOrder(Arrays.asList("a", "b", "c"), dependencies);
+    }
+
+    @Test
+    public void givenPrerequisiteNotReadyWhenStartingThenDependentWaitsForIt() throws Exception {
+        GroupLauncher launcher = new GroupLauncher(instance -> readyIds.contains(instance.getId()), scheduler, 10, 5000);
+
+        CompletableFuture<Void> started = launcher.start(Arrays.asList(microService("api"), microService("db")),
+                Collections.singletonMap("api", Collections.singletonList("db")), this::launch);
+
+        Thread.sleep(200);
+        Assert.assertEquals(Collections.singletonList("db"), launched);
+        Assert.assertFalse(started.isDone());
+
+        readyIds.add("db");
+        waitFor(() -> launched.size() == 2);
+        readyIds.add("api");
+        started.get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(Arrays.asList("db", "api"), launched);
+    }
+
+    @Test
+    public void givenPrerequisiteNeverReadyWhenTimingOutThenGroupFailsWithoutStartingDependents() throws Exception {
+        GroupLauncher launcher = new GroupLauncher(instance -> false, scheduler, 10, 100);
+
+        CompletableFuture<Void> started = launcher.start(Arrays.asList(microService("api"), microService("db")),
+                Collections.singletonMap("api", Collections.singletonList("db")), this::launch);
+
+        assertFailsWith(started, StartingGroupException.class);
+        Assert.assertEquals(Collections.singletonList("db"), launched);
+    }
+
+    @Test
+    public void givenLaunchSlowerThanTimeoutWhenStartingThenTimeoutOnlyCoversStartup() throws Exception {
+        GroupLauncher launcher = new GroupLauncher(instance -> true, scheduler, 10, 100);
+        Function<MicroService, CompletableFuture<Instance>> slowBuild = member -> {
+            CompletableFuture<Instance> built = new CompletableFuture<>();
+            scheduler.schedule(() -> built.complete(launch(member).join()), 300, TimeUnit.MILLISECONDS);
+            return built;
+        };
+
+        CompletableFuture<Void> started = launcher.start(Arrays.asList(microService("api"), microService("db")),
+                Collections.singletonMap("api", Collections.singletonList("db")), slowBuild);
+
+        started.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(Arrays.asList("db", "api"), launched);
+    }
+
+    @Test
+    public void givenFailingLaunchWhenStartingThenGroupFailsWithoutStartingDependents() throws Exception {
+        GroupLauncher launcher = new GroupLauncher(instance -> true, scheduler, 10, 5000);
+        Function<MicroService, CompletableFuture<Instance>> failingDb = member -> {
+            if (member.getId().equals("db")) {
+                launched.add("db");
+                CompletableFuture<Instance> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new IllegalStateException("build failed"));
+                return failed;
+            }
+            return launch(member);
+        };
+
+        CompletableFuture<Void> started = launcher.start(Arrays.asList(microService("api"), microService("db"), microService("ui")),
+                Collections.singletonMap("api", Collections.singletonList("db")), failingDb);
+
+        assertFailsWith(started, IllegalStateException.class);
+        Assert.assertFalse(launched.contains("api"));
+        Assert.assertTrue(launched.contains("ui"));
+    }
+
+    @Test
+    public void givenHealthDocumentsWhenCheckingReadinessThenOnlyStatusUpCounts() {
+        Assert.assertTrue(HttpReadinessProbe.isUp(new JsonParser().parse("{\"status\":\"UP\",\"details\":{}}")));
+        Assert.assertFalse(HttpReadinessProbe.isUp(new JsonParser().parse("{\"status\":\"DOWN\"}")));
+        Assert.assertFalse(HttpReadinessProbe.isUp(new JsonParser().parse("{\"error\":\"Not Found\"}")));
+        Assert.assertFalse(HttpReadinessProbe.isUp(new JsonParser().parse("\"UP\"")));
+    }
+
+    private CompletableFuture<Instance> launch(MicroService member) {
+        launched.add(member.getId());
+        Instance instance = new Instance();
+        instance.setId(member.getId());
+        instance.setPort("8080");
+        return CompletableFuture.completedFuture(instance);
+    }
+
+    private static MicroService microService(String id) {
+        MicroService microService = new MicroService();
+        microService.setId(id);
+        microService.setName(id);
+        return microService;
+    }
+
+    private static void assertFailsWith(CompletableFuture<?> future, Class<? extends Throwable> cause) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("Group start should have failed");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(cause.isInstance(e.getCause()));
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(condition.getAsBoolean());
+    }
+}
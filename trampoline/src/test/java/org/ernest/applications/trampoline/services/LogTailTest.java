@@ -0,0 +1,110 @@
+package org.ernest.applications.trampoline.services;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class LogTailTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+
+    private File file;
+
+    private LogSubscriber subscriber;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "instance.log");
+        subscriber = new LogSubscriber(new CapturingEmitter(), 16, Runnable::run, failed -> Assert.fail());
+    }
+
+    @Test
+    public void givenExistingOutputWhenSubscribingThenLastCompleteLinesAreReplayed() throws IOException {
+        append("first line\nsecond\n");
+        LogTail tail = new LogTail(file, 8, 1024);
+
+        tail.subscribe(subscriber);
+
+        Assert.assertEquals(Collections.singletonList("second"), received);
+    }
+
+    @Test
+    public void givenAppendedOutputWhenPollingThenOnlyNewCompleteLinesAreDelivered() throws IOException {
+        append("old\n");
+        LogTail tail = new LogTail(file, 0, 1024);
+        tail.subscribe(subscriber);
+
+        append("one\r\ntwo\npart");
+        tail.poll();
+        Assert.assertEquals(Arrays.asList("one", "two"), received);
+
+        append("ial\n");
+        tail.poll();
+        tail.poll();
+        Assert.assertEquals(Arrays.asList("one", "two", "partial"), received);
+    }
+
+    @Test
+    public void givenFileCreatedAfterSubscribingWhenPollingThenItIsReadFromTheStart() throws IOException {
+        LogTail tail = new LogTail(file, 1024, 1024);
+        tail.subscribe(subscriber);
+
+        append("started\n");
+        tail.poll();
+
+        Assert.assertEquals(Collections.singletonList("started"), received);
+    }
+
+    @Test
+    public void givenTruncatedFileWhenPollingThenItIsReadAgainFromTheStart() throws IOException {
+        append("a long line before the restart\n");
+        LogTail tail = new LogTail(file, 0, 1024);
+        tail.subscribe(subscriber);
+
+        Files.write(file.toPath(), "restarted\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+        tail.poll();
+
+        Assert.assertEquals(Collections.singletonList("restarted"), received);
+    }
+
+    @Test
+    public void givenOutputWithoutNewlinesWhenPollingThenLinesAreCappedAtTheMaximumLength() throws IOException {
+        LogTail tail = new LogTail(file, 0, 8);
+        tail.subscribe(subscriber);
+
+        append("0123456789abcdefXY");
+        tail.poll();
+
+        Assert.assertEquals(Arrays.asList("01234567", "89abcdef"), received);
+    }
+
+    private void append(String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private class CapturingEmitter extends SseEmitter {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder builder) {
+            builder.build().stream().filter(data -> data.getData() instanceof List)
+                    .forEach(data -> received.addAll((List<String>) data.getData()));
+        }
+    }
+}